@@ -146,11 +146,11 @@ INSERT INTO Usuario (nombre, apellido, dni, email, telefono, fecha_registro, use
 ('Laura', 'López', '22222222', 'laura.lopez@biblioteca.com', '3874222222', '2024-01-01', 'llopez', 'admin123', 'BIBLIOTECARIO');
 
 INSERT INTO Socio (id_usuario, numero_socio, fecha_vencimiento_carnet, estado, categoria) VALUES
-(1, 'SOC-2025-001', '2025-12-31', 'ACTIVO'),
-(2, 'SOC-2025-002', '2025-12-31', 'ACTIVO'),
-(3, 'SOC-2025-003', '2025-12-31', 'ACTIVO'),
-(4, 'SOC-2025-004', '2025-06-30', 'SUSPENDIDO'),
-(5, 'SOC-2025-005', '2025-12-31', 'ACTIVO');
+(1, 'SOC-2025-001', '2025-12-31', 'ACTIVO', 'Estándar'),
+(2, 'SOC-2025-002', '2025-12-31', 'ACTIVO', 'Estándar'),
+(3, 'SOC-2025-003', '2025-12-31', 'ACTIVO', 'Estándar'),
+(4, 'SOC-2025-004', '2025-06-30', 'SUSPENDIDO', 'Estándar'),
+(5, 'SOC-2025-005', '2025-12-31', 'ACTIVO', 'Estándar');
 
 UPDATE Socio SET tiene_sanciones = TRUE WHERE id_socio = 4;
 
@@ -217,11 +217,15 @@ INSERT INTO Historial (fecha, tipo_operacion, detalles, id_usuario, id_libro, id
 ('2025-09-10 12:30:00', 'DEVOLUCION', 'Devolución con multa', 5, 1, 3);
 
 -- Consultas
+-- Desde la migración V005 los estados se guardan como códigos TINYINT:
+--   Socio.estado:    1 ACTIVO, 2 SUSPENDIDO, 3 INHABILITADO
+--   Ejemplar.estado: 1 DISPONIBLE, 2 PRESTADO, 3 DAÑADO, 4 EXTRAVIADO
+--   Prestamo.estado: 1 ACTIVO, 2 VENCIDO, 3 DEVUELTO
 -- Listar socios activos
 SELECT s.numero_socio, u.nombre, u.apellido, u.email, s.estado
 FROM Socio s
 INNER JOIN Usuario u ON s.id_usuario = u.id_usuario
-WHERE s.estado = 'ACTIVO';
+WHERE s.estado = 1; -- ACTIVO
 
 -- Listar libros disponibles con nombre de autor
 SELECT 
@@ -231,7 +235,7 @@ SELECT
 FROM Libro l
 INNER JOIN Autor a ON l.id_autor = a.id_autor
 INNER JOIN Ejemplar e ON l.id_libro = e.id_libro
-WHERE e.estado = 'DISPONIBLE'
+WHERE e.estado = 1 -- DISPONIBLE
 GROUP BY l.id_libro, l.titulo, a.nombre_completo;
 
 -- Listar prestamos activos
@@ -241,7 +245,7 @@ INNER JOIN Socio s ON p.id_socio = s.id_socio
 INNER JOIN Usuario u ON s.id_usuario = u.id_usuario
 INNER JOIN Ejemplar e ON p.id_ejemplar = e.id_ejemplar
 INNER JOIN Libro l ON e.id_libro = l.id_libro
-WHERE p.estado = 'ACTIVO';
+WHERE p.estado = 1; -- ACTIVO
 
 -- Listar historial de un socio
 SELECT h.fecha, h.tipo_operacion, l.titulo, h.detalles
@@ -253,14 +257,14 @@ ORDER BY h.fecha DESC;
 -- Actualización y eliminación
 -- Actualizar estado de un ejemplar
 UPDATE Ejemplar
-SET estado = 'PRESTADO'
+SET estado = 2 -- PRESTADO
 WHERE codigo_ejemplar = 'EJ-001-001';
 
 -- Marcar préstamos vencidos
 SET SQL_SAFE_UPDATES = 0;
 UPDATE Prestamo
-SET estado = 'VENCIDO'
-WHERE estado = 'ACTIVO' AND fecha_vencimiento < CURDATE();
+SET estado = 2 -- VENCIDO
+WHERE estado = 1 AND fecha_vencimiento < CURDATE();
 SET SQL_SAFE_UPDATES = 1;
 
 -- Eliminar notificaciones antiguas leidas
@@ -277,10 +281,10 @@ SELECT estado FROM Ejemplar WHERE codigo_ejemplar = 'EJ-003-002';
 -- 2. Registrar préstamo válido
 INSERT INTO Prestamo (fecha_prestamo, fecha_vencimiento, estado, dias_prestamo, 
                       id_socio, id_ejemplar, id_bibliotecario)
-VALUES (NOW(), DATE_ADD(CURDATE(), INTERVAL 15 DAY), 'ACTIVO', 15, 1, 7, 1);
+VALUES (NOW(), DATE_ADD(CURDATE(), INTERVAL 15 DAY), 1, 15, 1, 7, 1);
 
 -- 3. Actualizar estado del ejemplar
-UPDATE Ejemplar SET estado = 'PRESTADO' WHERE codigo_ejemplar = 'EJ-003-002';
+UPDATE Ejemplar SET estado = 2 WHERE codigo_ejemplar = 'EJ-003-002'; -- PRESTADO
 
 -- 4. Insertar en historial
 INSERT INTO Historial (fecha, tipo_operacion, detalles, id_usuario, id_libro, id_prestamo)
@@ -295,7 +299,7 @@ SELECT estado FROM Ejemplar WHERE codigo_ejemplar = 'EJ-001-002';
 
 -- 2. Intentar validar disponibilidad
 SELECT * FROM Ejemplar 
-WHERE codigo_ejemplar = 'EJ-001-002' AND estado = 'DISPONIBLE';
+WHERE codigo_ejemplar = 'EJ-001-002' AND estado = 1; -- DISPONIBLE
 -- Esperado: 0 filas → ejemplar no disponible
 
 -- CP-CU03-03
@@ -307,7 +311,7 @@ WHERE s.id_socio = 4;
 -- 2. Validar habilitación del socio
 SELECT 
    CASE 
-       WHEN s.estado = 'ACTIVO' 
+       WHEN s.estado = 1 -- ACTIVO
         AND s.tiene_sanciones = FALSE 
         AND s.tiene_atrasos = FALSE 
        THEN 'HABILITADO'
@@ -338,10 +342,10 @@ INSERT INTO Devolucion (fecha_devolucion, estado_ejemplar, observaciones, multa,
 VALUES (NOW(), 'BUENO', 'Devolución en buen estado', 0.00, 1);
 
 -- 4. Actualizar estado del ejemplar
-UPDATE Ejemplar SET estado = 'DISPONIBLE' WHERE id_ejemplar = 2;
+UPDATE Ejemplar SET estado = 1 WHERE id_ejemplar = 2; -- DISPONIBLE
 
 -- 5. Actualizar estado del préstamo
-UPDATE Prestamo SET estado = 'DEVUELTO' WHERE id_prestamo = 1;
+UPDATE Prestamo SET estado = 3 WHERE id_prestamo = 1; -- DEVUELTO
 
 -- 6. Registrar en historial
 INSERT INTO Historial (fecha, tipo_operacion, detalles, id_usuario, id_libro, id_prestamo)
@@ -355,7 +359,7 @@ WHERE id_ejemplar = 2;
 -- CP-CU10-02
 -- precondicion
 UPDATE Prestamo
-SET fecha_vencimiento = '2025-09-16', estado = 'VENCIDO'
+SET fecha_vencimiento = '2025-09-16', estado = 2 -- VENCIDO
 WHERE id_prestamo = 4;
 
 -- 1. Verificar atraso
@@ -377,10 +381,10 @@ INSERT INTO Devolucion (fecha_devolucion, estado_ejemplar, observaciones, multa,
 VALUES (NOW(), 'BUENO', 'Devolución con atraso de 16 días', 800.00, 4);
 
 -- 4. Actualizar estado del ejemplar
-UPDATE Ejemplar SET estado = 'DISPONIBLE' WHERE id_ejemplar = 2;
+UPDATE Ejemplar SET estado = 1 WHERE id_ejemplar = 2; -- DISPONIBLE
 
 -- 5. Actualizar estado del préstamo
-UPDATE Prestamo SET estado = 'DEVUELTO' WHERE id_prestamo = 4;
+UPDATE Prestamo SET estado = 3 WHERE id_prestamo = 4; -- DEVUELTO
 
 -- 6. Registrar en historial
 INSERT INTO Historial (fecha, tipo_operacion, detalles, id_usuario, id_libro, id_prestamo)
@@ -0,0 +1,33 @@
+-- V002: índices secundarios para los filtros y órdenes de los DAOs
+-- V001 es el esquema base de db_biblioteca.sql, que sólo declara claves primarias, foráneas y UNIQUE.
+-- Cada índice compuesto empieza por la columna de su clave foránea cuando la tiene, así MySQL lo usa
+-- también para la restricción y descarta el índice que había creado automáticamente para ella.
+
+-- PrestamoDAO.marcarVencidos (estado = 'ACTIVO' AND fecha_vencimiento < ?), recorrerResumenPorEstado
+-- y recorrerResumenActivosQueVencen. Cubre el SELECT id_prestamo ... FOR UPDATE de marcarVencidos.
+CREATE INDEX idx_prestamo_estado_vencimiento ON Prestamo (estado, fecha_vencimiento);
+
+-- PrestamoDAO.listarResumenPorDniSocio: préstamos del socio ordenados por fecha_prestamo DESC.
+CREATE INDEX idx_prestamo_socio_fecha ON Prestamo (id_socio, fecha_prestamo);
+
+-- HistorialDAO.listarPorSocioId, listarPorIdSocio, buscarPorDni y existePorIdSocio (ORDER BY h.fecha DESC).
+CREATE INDEX idx_historial_usuario_fecha ON Historial (id_usuario, fecha);
+
+-- HistorialDAO.listarPorTipo (WHERE tipo_operacion = ? ORDER BY fecha DESC).
+CREATE INDEX idx_historial_tipo_fecha ON Historial (tipo_operacion, fecha);
+
+-- HistorialDAO.listarPorLibroId y existePorLibroId (WHERE h.id_libro = ?, ORDER BY fecha DESC).
+CREATE INDEX idx_historial_libro_fecha ON Historial (id_libro, fecha);
+
+-- HistorialDAO.listarTodos, recorrerTodos y listarPagina (ORDER BY fecha DESC, id_historial DESC).
+CREATE INDEX idx_historial_fecha ON Historial (fecha, id_historial);
+
+-- NotificacionesDAO.listarNoLeidas (WHERE leida = FALSE ORDER BY fecha_envio DESC).
+CREATE INDEX idx_notificacion_leida_fecha ON Notificacion (leida, fecha_envio);
+
+-- NotificacionesDAO.listarTodos y listarPagina (ORDER BY fecha_envio DESC, id_notificacion DESC).
+CREATE INDEX idx_notificacion_fecha ON Notificacion (fecha_envio, id_notificacion);
+
+-- EjemplarDAO.contarPorLibro, contarPorEstado y contarPorEstadoDeTodos: el índice cubre las cuentas
+-- (id_libro, estado) sin leer las filas de Ejemplar.
+CREATE INDEX idx_ejemplar_libro_estado ON Ejemplar (id_libro, estado);
@@ -0,0 +1,22 @@
+-- V003: contadores de disponibilidad por libro
+-- Una fila por libro con el total de ejemplares y cuántos están disponibles o prestados, para que el catálogo
+-- se lea de una sola consulta. EjemplarDAO los mantiene en la misma transacción que cada alta, cambio de estado
+-- o baja de ejemplar; DisponibilidadLibroDAO.reconciliar corrige cualquier desvío (por ejemplo, SQL manual).
+
+CREATE TABLE DisponibilidadLibro (
+    id_libro INT PRIMARY KEY,
+    total INT NOT NULL DEFAULT 0,
+    disponibles INT NOT NULL DEFAULT 0,
+    prestados INT NOT NULL DEFAULT 0,
+    FOREIGN KEY (id_libro) REFERENCES Libro(id_libro) ON DELETE CASCADE
+);
+
+-- Carga inicial desde los ejemplares existentes (mismo criterio que EjemplarDAO.contarPorEstado)
+INSERT INTO DisponibilidadLibro (id_libro, total, disponibles, prestados)
+SELECT l.id_libro,
+       COUNT(e.id_ejemplar),
+       COALESCE(SUM(CASE WHEN UPPER(e.estado) = 'DISPONIBLE' THEN 1 ELSE 0 END), 0),
+       COALESCE(SUM(CASE WHEN UPPER(e.estado) = 'PRESTADO' THEN 1 ELSE 0 END), 0)
+FROM Libro l
+LEFT JOIN Ejemplar e ON e.id_libro = l.id_libro
+GROUP BY l.id_libro;
@@ -0,0 +1,19 @@
+-- V004: tabla de archivo para el historial
+-- Historial sólo conserva los meses activos (historial.meses.activos); TareaArchivoHistorial mueve los meses
+-- cerrados más viejos a HistorialArchivo, así las consultas de actividad reciente recorren una tabla acotada.
+-- No se particiona Historial por rango de fecha porque MySQL no admite claves foráneas en tablas particionadas.
+-- HistorialArchivo guarda las mismas columnas sin claves foráneas: lo archivado no se modifica y no debe
+-- impedir dar de baja socios, libros o préstamos.
+
+CREATE TABLE HistorialArchivo (
+    id_historial INT PRIMARY KEY,
+    fecha DATETIME NOT NULL,
+    tipo_operacion VARCHAR(50) NOT NULL,
+    detalles TEXT,
+    id_usuario INT NOT NULL,
+    id_libro INT NOT NULL,
+    id_prestamo INT
+);
+
+-- Recorridos por fecha (listarTodos, listarPagina, listarPorRango) y purga por retención.
+CREATE INDEX idx_historial_archivo_fecha ON HistorialArchivo (fecha, id_historial);
@@ -0,0 +1,51 @@
+-- V005: estados de Socio, Ejemplar y Prestamo como códigos TINYINT
+-- Los estados se guardaban como texto en mayúsculas o minúsculas según quién los escribía, lo que obligaba
+-- a comparar con UPPER(estado) y dejaba sin usar los índices sobre la columna. Cada tabla pasa a guardar el
+-- código de su enum (EstadoSocio, EstadoEjemplar, EstadoPrestamo):
+--   Socio:    1 ACTIVO, 2 SUSPENDIDO, 3 INHABILITADO
+--   Ejemplar: 1 DISPONIBLE, 2 PRESTADO, 3 DAÑADO, 4 EXTRAVIADO
+--   Prestamo: 1 ACTIVO, 2 VENCIDO, 3 DEVUELTO
+-- La SELECT inicial es una precondición (ver MigradorEsquema): si algún estado no es uno de los conocidos
+-- (en cualquier combinación de mayúsculas, o ya convertido a código) la migración se detiene antes de tocar
+-- datos y el error lista las filas a corregir. Sin ella, un UPDATE a NULL sobre la columna NOT NULL fallaría en
+-- modo estricto o, sin modo estricto, guardaría '' y el ALTER lo convertiría en 0, perdiendo el valor original.
+-- Cada UPDATE acepta también un código ya convertido, así la migración puede volver a ejecutarse si falla a
+-- mitad en MySQL (cada ALTER se confirma por separado).
+-- idx_prestamo_estado_vencimiento (V002) e idx_ejemplar_libro_estado (V002) se reconstruyen con la columna.
+
+SELECT 'Socio' AS tabla, id_socio AS id, estado
+FROM Socio
+WHERE UPPER(TRIM(estado)) NOT IN ('ACTIVO', 'SUSPENDIDO', 'INHABILITADO', '1', '2', '3')
+UNION ALL
+SELECT 'Ejemplar', id_ejemplar, estado
+FROM Ejemplar
+WHERE UPPER(TRIM(estado)) NOT IN ('DISPONIBLE', 'PRESTADO', 'DAÑADO', 'DANADO', 'EXTRAVIADO', '1', '2', '3', '4')
+UNION ALL
+SELECT 'Prestamo', id_prestamo, estado
+FROM Prestamo
+WHERE UPPER(TRIM(estado)) NOT IN ('ACTIVO', 'VENCIDO', 'DEVUELTO', '1', '2', '3');
+
+UPDATE Socio SET estado = CASE UPPER(TRIM(estado))
+    WHEN 'ACTIVO' THEN '1' WHEN '1' THEN '1'
+    WHEN 'SUSPENDIDO' THEN '2' WHEN '2' THEN '2'
+    WHEN 'INHABILITADO' THEN '3' WHEN '3' THEN '3'
+END;
+
+ALTER TABLE Socio MODIFY COLUMN estado TINYINT NOT NULL DEFAULT 1;
+
+UPDATE Ejemplar SET estado = CASE UPPER(TRIM(estado))
+    WHEN 'DISPONIBLE' THEN '1' WHEN '1' THEN '1'
+    WHEN 'PRESTADO' THEN '2' WHEN '2' THEN '2'
+    WHEN 'DAÑADO' THEN '3' WHEN 'DANADO' THEN '3' WHEN '3' THEN '3'
+    WHEN 'EXTRAVIADO' THEN '4' WHEN '4' THEN '4'
+END;
+
+ALTER TABLE Ejemplar MODIFY COLUMN estado TINYINT NOT NULL DEFAULT 1;
+
+UPDATE Prestamo SET estado = CASE UPPER(TRIM(estado))
+    WHEN 'ACTIVO' THEN '1' WHEN '1' THEN '1'
+    WHEN 'VENCIDO' THEN '2' WHEN '2' THEN '2'
+    WHEN 'DEVUELTO' THEN '3' WHEN '3' THEN '3'
+END;
+
+ALTER TABLE Prestamo MODIFY COLUMN estado TINYINT NOT NULL DEFAULT 1;
@@ -0,0 +1,12 @@
+-- V006: índices de HistorialArchivo para las búsquedas por socio, libro y tipo
+-- Las búsquedas de HistorialDAO bajan al archivo cuando no alcanza con lo activo, y los existePor* lo consultan
+-- siempre. Son los mismos índices que V002 creó en Historial; V004 sólo indexó el archivo por fecha.
+
+-- HistorialDAO.listarPorSocioId, listarPorIdSocio, buscarPorDni y existePorIdSocio (ORDER BY h.fecha DESC).
+CREATE INDEX idx_historial_archivo_usuario_fecha ON HistorialArchivo (id_usuario, fecha);
+
+-- HistorialDAO.listarPorTipo (WHERE tipo_operacion = ? ORDER BY fecha DESC).
+CREATE INDEX idx_historial_archivo_tipo_fecha ON HistorialArchivo (tipo_operacion, fecha);
+
+-- HistorialDAO.listarPorLibroId y existePorLibroId (WHERE h.id_libro = ?, ORDER BY fecha DESC).
+CREATE INDEX idx_historial_archivo_libro_fecha ON HistorialArchivo (id_libro, fecha);
@@ -1,14 +1,25 @@
 import biblioteca.data.dao.DAOException;
+import biblioteca.data.db.ConexionBD;
+import biblioteca.data.db.ConfigBD;
 import biblioteca.ui.MenuPrincipal;
 
 public class Main {
     public static void main(String[] args) {
+        try {
+            ConfigBD.actual();
+        } catch (IllegalStateException e) {
+            System.err.println(e.getMessage());
+            return;
+        }
+
         try {
             MenuPrincipal menu = new MenuPrincipal();
             menu.iniciar();
         } catch (DAOException e) {
             System.err.println("Error al inicializar el sistema: " + e.getMessage());
             e.printStackTrace();
+        } finally {
+            ConexionBD.cerrarConexion();
         }
     }
 }
\ No newline at end of file
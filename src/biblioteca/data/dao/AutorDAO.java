@@ -6,7 +6,9 @@ import biblioteca.entities.inventario.Autor;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * DAO para gestionar la persistencia de autores en la base de datos.
@@ -73,6 +75,17 @@ public class AutorDAO implements DAO<Autor> {
         return null;
     }
 
+    @Override
+    public Map<Integer, Autor> buscarPorIds(Collection<Integer> ids) throws DAOException {
+        String sql = """
+            SELECT id_autor, nombre_completo, nacionalidad, fecha_nacimiento
+            FROM Autor
+            WHERE id_autor IN (%s)
+        """;
+        return BusquedaPorIds.buscar(ids, sql, BusquedaPorIds.porFila(this::mapearAutor), Autor::getIdAutor,
+                "Error al buscar autores por ID");
+    }
+
     @Override
     public List<Autor> listarTodos() throws DAOException {
         List<Autor> autores = new ArrayList<>();
@@ -4,10 +4,13 @@ import biblioteca.entities.usuarios.Bibliotecario;
 import biblioteca.entities.usuarios.TipoUsuario;
 import biblioteca.data.interfaces.DAO;
 import biblioteca.data.db.ConexionBD;
+import biblioteca.data.mapeo.MapeadorFilas;
+import biblioteca.data.mapeo.Mapeadores;
 
 import java.sql.*;
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * DAO para gestionar la persistencia de bibliotecarios en la base de datos.
@@ -15,6 +18,20 @@ import java.util.List;
  */
 public class BibliotecarioDAO implements DAO<Bibliotecario> {
 
+    private static final MapeadorFilas<Bibliotecario> MAPEADOR = Mapeadores.bibliotecario();
+
+    // Consulta completa de las búsquedas y listados de bibliotecarios, con los alias b_* de
+    // Mapeadores.bibliotecario; cada uno agrega su filtro
+    private static final String SELECT_LISTADO = """
+            SELECT
+                biblio.id_bibliotecario, biblio.legajo, biblio.turno,
+                u.id_usuario AS b_id_usuario, u.nombre AS b_nombre, u.apellido AS b_apellido,
+                u.dni AS b_dni, u.username AS b_username, u.password AS b_password,
+                u.email AS b_email, u.telefono AS b_telefono, u.fecha_registro AS b_fecha_registro
+            FROM Usuario u
+            INNER JOIN Bibliotecario biblio ON u.id_usuario = biblio.id_usuario
+            """;
+
     public BibliotecarioDAO() {
     }
 
@@ -147,39 +164,34 @@ public class BibliotecarioDAO implements DAO<Bibliotecario> {
 
     @Override
     public Bibliotecario buscarPorId(int idBibliotecario) throws DAOException {
-        String sql = """
-                SELECT u.*, biblio.id_bibliotecario, biblio.legajo, biblio.turno
-                FROM Usuario u
-                INNER JOIN Bibliotecario biblio ON u.id_usuario = biblio.id_usuario
-                WHERE biblio.id_bibliotecario = ?
-                """;
+        String sql = SELECT_LISTADO + "WHERE biblio.id_bibliotecario = ?";
 
         try (Connection conn = ConexionBD.getConexion();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, idBibliotecario);
             try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) return mapearBibliotecario(rs);
-                return null;
+                return MAPEADOR.primero(rs);
             }
         } catch (SQLException e) {
             throw new DAOException("Error al buscar bibliotecario por ID", e);
         }
     }
 
+    @Override
+    public Map<Integer, Bibliotecario> buscarPorIds(Collection<Integer> ids) throws DAOException {
+        String sql = SELECT_LISTADO + "WHERE biblio.id_bibliotecario IN (%s)";
+        return BusquedaPorIds.buscar(ids, sql, MAPEADOR::listar, Bibliotecario::getIdBibliotecario,
+                "Error al buscar bibliotecarios por ID");
+    }
+
     public Bibliotecario buscarPorUsername(String username) throws DAOException {
-        String sql = """
-                SELECT u.*, biblio.id_bibliotecario, biblio.legajo, biblio.turno
-                FROM Usuario u
-                INNER JOIN Bibliotecario biblio ON u.id_usuario = biblio.id_usuario
-                WHERE u.username = ?
-                """;
+        String sql = SELECT_LISTADO + "WHERE u.username = ?";
 
         try (Connection conn = ConexionBD.getConexion();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, username);
             try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) return mapearBibliotecario(rs);
-                return null;
+                return MAPEADOR.primero(rs);
             }
         } catch (SQLException e) {
             throw new DAOException("Error al buscar bibliotecario por username", e);
@@ -187,19 +199,13 @@ public class BibliotecarioDAO implements DAO<Bibliotecario> {
     }
 
     public Bibliotecario buscarPorDni(String dni) throws DAOException {
-        String sql = """
-            SELECT u.*, biblio.id_bibliotecario, biblio.legajo, biblio.turno
-            FROM Usuario u
-            INNER JOIN Bibliotecario biblio ON u.id_usuario = biblio.id_usuario
-            WHERE u.dni = ?
-            """;
+        String sql = SELECT_LISTADO + "WHERE u.dni = ?";
 
         try (Connection conn = ConexionBD.getConexion();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, dni);
             try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) return mapearBibliotecario(rs);
-                return null;
+                return MAPEADOR.primero(rs);
             }
         } catch (SQLException e) {
             throw new DAOException("Error al buscar bibliotecario por DNI", e);
@@ -208,45 +214,14 @@ public class BibliotecarioDAO implements DAO<Bibliotecario> {
 
     @Override
     public List<Bibliotecario> listarTodos() throws DAOException {
-        List<Bibliotecario> bibliotecarios = new ArrayList<>();
-        String sql = """
-                SELECT u.*, biblio.id_bibliotecario, biblio.legajo, biblio.turno
-                FROM Usuario u
-                INNER JOIN Bibliotecario biblio ON u.id_usuario = biblio.id_usuario
-                """;
-
         try (Connection conn = ConexionBD.getConexion();
              Statement st = conn.createStatement();
-             ResultSet rs = st.executeQuery(sql)) {
+             ResultSet rs = st.executeQuery(SELECT_LISTADO)) {
 
-            while (rs.next()) bibliotecarios.add(mapearBibliotecario(rs));
-            return bibliotecarios;
+            return MAPEADOR.listar(rs);
 
         } catch (SQLException e) {
             throw new DAOException("Error al listar bibliotecarios", e);
         }
     }
-
-    private Bibliotecario mapearBibliotecario(ResultSet rs) throws SQLException {
-        int idUsuario = rs.getInt("id_usuario");
-        int idBibliotecario = rs.getInt("id_bibliotecario");
-
-        Bibliotecario bibliotecario = new Bibliotecario(
-                idUsuario,
-                rs.getString("nombre"),
-                rs.getString("apellido"),
-                rs.getString("dni"),
-                rs.getString("email"),
-                rs.getString("telefono"),
-                rs.getDate("fecha_registro").toLocalDate(),
-                TipoUsuario.valueOf(rs.getString("tipo_usuario").toUpperCase()),
-                rs.getString("username"),
-                rs.getString("password"),
-                rs.getString("legajo"),
-                rs.getString("turno")
-        );
-
-        bibliotecario.setIdBibliotecario(idBibliotecario);
-        return bibliotecario;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,101 @@
+package biblioteca.data.dao;
+
+import biblioteca.data.db.ConexionBD;
+import biblioteca.data.db.ConfigBD;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Búsqueda masiva por clave para los buscarPorIds de los DAOs.
+ * Parte los ids en tandas de consulta.in.tamanio y resuelve cada tanda con una sola consulta
+ * IN (?, ?, ...) sobre la misma conexión, en lugar de un buscarPorId por id.
+ */
+final class BusquedaPorIds {
+
+    /**
+     * Convierte el ResultSet completo de una tanda en entidades (una fila por entidad o varias agrupadas).
+     */
+    @FunctionalInterface
+    interface LectorResultado<T> {
+        List<T> leer(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Arma una entidad a partir de la fila actual; es el mapearX de los DAOs con una fila por entidad.
+     */
+    @FunctionalInterface
+    interface MapeoFila<T> {
+        T mapear(ResultSet rs) throws SQLException;
+    }
+
+    private BusquedaPorIds() {
+    }
+
+    static <T> LectorResultado<T> porFila(MapeoFila<T> mapeo) {
+        return rs -> {
+            List<T> lista = new ArrayList<>();
+            while (rs.next()) {
+                lista.add(mapeo.mapear(rs));
+            }
+            return lista;
+        };
+    }
+
+    /**
+     * @param ids          ids a buscar; los repetidos se consultan una vez
+     * @param sql          consulta con un %s en el lugar de los marcadores del IN
+     * @param lector       arma las entidades de cada tanda
+     * @param clave        id de cada entidad, el mismo que recibe buscarPorId
+     * @param mensajeError mensaje de la DAOException si falla la consulta
+     * @return las entidades encontradas, en el orden de los ids pedidos; los ids inexistentes no aparecen
+     */
+    static <T> Map<Integer, T> buscar(Collection<Integer> ids, String sql, LectorResultado<T> lector,
+                                      Function<T, Integer> clave, String mensajeError) throws DAOException {
+        if (ids == null) throw new IllegalArgumentException("La colección de ids no puede ser nula.");
+        List<Integer> distintos = new ArrayList<>(new LinkedHashSet<>(ids));
+        if (distintos.contains(null)) throw new IllegalArgumentException("La colección de ids no puede contener nulos.");
+        if (distintos.isEmpty()) return new LinkedHashMap<>();
+
+        int tamanio = ConfigBD.actual().getTamanioListaIn();
+        Map<Integer, T> encontrados = new HashMap<>();
+        try (Connection conn = ConexionBD.getConexion()) {
+            for (int inicio = 0; inicio < distintos.size(); inicio += tamanio) {
+                List<Integer> tanda = distintos.subList(inicio, Math.min(inicio + tamanio, distintos.size()));
+                String marcadores = String.join(", ", Collections.nCopies(tanda.size(), "?"));
+
+                try (PreparedStatement ps = conn.prepareStatement(String.format(sql, marcadores))) {
+                    for (int i = 0; i < tanda.size(); i++) {
+                        ps.setInt(i + 1, tanda.get(i));
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        for (T entidad : lector.leer(rs)) {
+                            encontrados.put(clave.apply(entidad), entidad);
+                        }
+                    }
+                }
+            }
+
+        } catch (SQLException e) {
+            throw new DAOException(mensajeError, e);
+        }
+
+        Map<Integer, T> resultado = new LinkedHashMap<>();
+        for (Integer id : distintos) {
+            T entidad = encontrados.get(id);
+            if (entidad != null) resultado.put(id, entidad);
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,79 @@
+package biblioteca.data.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posición de continuación de un listado paginado: el id (y la fecha, en los listados ordenados por fecha)
+ * de la última fila entregada. Se codifica en Base64 junto con el nombre del listado, para rechazar
+ * un token de otro DAO en lugar de devolver una página incorrecta.
+ */
+final class CursorPagina {
+
+    private final LocalDateTime fecha;
+    private final int id;
+
+    private CursorPagina(LocalDateTime fecha, int id) {
+        this.fecha = fecha;
+        this.id = id;
+    }
+
+    static String token(String listado, int id) {
+        return codificar(listado + "|-|" + id);
+    }
+
+    static String token(String listado, LocalDateTime fecha, int id) {
+        return codificar(listado + "|" + fecha + "|" + id);
+    }
+
+    /**
+     * Decodifica el token de la página pedida; null si es la primera (token null o vacío).
+     * @throws IllegalArgumentException si el token está mal formado o pertenece a otro listado
+     */
+    static CursorPagina leer(String listado, String token) {
+        if (token == null || token.isBlank()) return null;
+
+        String[] partes;
+        try {
+            partes = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Token de página inválido.", e);
+        }
+        if (partes.length != 3 || !partes[0].equals(listado)) {
+            throw new IllegalArgumentException("El token de página no corresponde al listado de " + listado + ".");
+        }
+
+        try {
+            LocalDateTime fecha = partes[1].equals("-") ? null : LocalDateTime.parse(partes[1]);
+            return new CursorPagina(fecha, Integer.parseInt(partes[2]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Token de página inválido.", e);
+        }
+    }
+
+    /**
+     * Como leer, para los listados ordenados por fecha: el token tiene que traer la fecha de la última fila.
+     * @throws IllegalArgumentException si el token está mal formado, pertenece a otro listado o no trae fecha
+     */
+    static CursorPagina leerConFecha(String listado, String token) {
+        CursorPagina cursor = leer(listado, token);
+        if (cursor != null && cursor.fecha == null) {
+            throw new IllegalArgumentException("Token de página inválido: falta la fecha.");
+        }
+        return cursor;
+    }
+
+    private static String codificar(String valor) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    LocalDateTime getFecha() {
+        return fecha;
+    }
+
+    int getId() {
+        return id;
+    }
+}
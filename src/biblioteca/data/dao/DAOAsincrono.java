@@ -0,0 +1,70 @@
+package biblioteca.data.dao;
+
+import biblioteca.data.db.ConfigBD;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fachada asíncrona para operaciones de los DAOs.
+ * Ejecuta cada operación en un ejecutor dedicado y devuelve un CompletableFuture, de modo que los servicios
+ * puedan lanzar en paralelo consultas independientes (por ejemplo, bibliotecario y socio por DNI).
+ * El ejecutor tiene tantos hilos como conexiones el pool: más hilos sólo esperarían una conexión libre.
+ * Las operaciones corren en otro hilo y por lo tanto no participan de la UnidadDeTrabajo del llamador.
+ */
+public final class DAOAsincrono {
+
+    @FunctionalInterface
+    public interface OperacionDAO<T> {
+        T ejecutar() throws DAOException;
+    }
+
+    private static final AtomicInteger CONTADOR_HILOS = new AtomicInteger();
+
+    private static final ExecutorService EJECUTOR = Executors.newFixedThreadPool(ConfigBD.actual().getPoolMaximo(), r -> {
+        Thread t = new Thread(r, "dao-async-" + CONTADOR_HILOS.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    private DAOAsincrono() {
+    }
+
+    public static <T> CompletableFuture<T> ejecutar(OperacionDAO<T> operacion) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return operacion.ejecutar();
+            } catch (DAOException e) {
+                throw new CompletionException(e);
+            }
+        }, EJECUTOR);
+    }
+
+    /**
+     * Espera el resultado y relanza la excepción original de la operación:
+     * DAOException y RuntimeException (p. ej. validaciones) salen tal cual.
+     */
+    public static <T> T esperar(CompletableFuture<T> futuro) throws DAOException {
+        try {
+            return futuro.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DAOException("Operación interrumpida mientras se esperaba la base de datos.", e);
+        } catch (CancellationException e) {
+            throw new DAOException("La operación sobre la base de datos fue cancelada.", e);
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause() instanceof CompletionException && e.getCause().getCause() != null
+                    ? e.getCause().getCause()
+                    : e.getCause();
+            if (causa instanceof DAOException) throw (DAOException) causa;
+            if (causa instanceof RuntimeException) throw (RuntimeException) causa;
+            if (causa instanceof Error) throw (Error) causa;
+            throw new DAOException("Error en operación asíncrona: " + causa.getMessage(), causa);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package biblioteca.data.dao;
+
+import biblioteca.data.db.ConexionBD;
+import biblioteca.data.db.UnidadDeTrabajo;
+import biblioteca.data.mapeo.LectorFila;
+import biblioteca.data.mapeo.MapeadorFilas;
+import biblioteca.data.mapeo.Mapeadores;
+import biblioteca.entities.inventario.Ejemplar;
+import biblioteca.entities.inventario.EstadoEjemplar;
+import biblioteca.entities.inventario.Libro;
+import biblioteca.entities.reportes.DisponibilidadLibro;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * DAO de los contadores de ejemplares por libro (tabla DisponibilidadLibro).
+ * Los contadores se mantienen desde EjemplarDAO dentro de la misma transacción que cada alta, cambio o baja
+ * de ejemplar, de modo que el catálogo con disponibilidad se lee de una sola consulta sin contar ejemplares.
+ * Un ejemplar cuenta como disponible o prestado según su estado; cualquier otro estado sólo suma al total. reconciliar() corrige los libros cuyos contadores se desviaron de Ejemplar.
+ */
+public class DisponibilidadLibroDAO {
+
+    private static final String SELECT_CATALOGO = """
+        SELECT
+            l.id_libro, l.titulo, l.isbn, l.categoria AS l_categoria, l.anio_publicacion,
+            l.id_autor, a.nombre_completo AS nombre_autor,
+            l.id_editorial, ed.nombre AS nombre_editorial,
+            COALESCE(d.total, 0) AS total,
+            COALESCE(d.disponibles, 0) AS disponibles,
+            COALESCE(d.prestados, 0) AS prestados
+        FROM Libro l
+        INNER JOIN Autor a ON l.id_autor = a.id_autor
+        INNER JOIN Editorial ed ON l.id_editorial = ed.id_editorial
+        LEFT JOIN DisponibilidadLibro d ON d.id_libro = l.id_libro
+    """;
+
+    private static final MapeadorFilas<DisponibilidadLibro> MAPEADOR = mapeadorDisponibilidad();
+
+    // Mismo criterio que la carga inicial de la migración V003, sobre los códigos de estado de V005
+    private static final String CONTEO_EJEMPLARES = """
+        SELECT id_libro,
+               COUNT(*) AS total,
+               SUM(CASE WHEN estado = %d THEN 1 ELSE 0 END) AS disponibles,
+               SUM(CASE WHEN estado = %d THEN 1 ELSE 0 END) AS prestados
+        FROM Ejemplar
+    """.formatted(EstadoEjemplar.DISPONIBLE.getCodigo(), EstadoEjemplar.PRESTADO.getCodigo());
+
+    /**
+     * Crea los contadores en cero de un libro recién insertado, sobre la conexión de su transacción.
+     */
+    public void crear(Connection conn, int idLibro) throws DAOException {
+        String sql = "INSERT INTO DisponibilidadLibro (id_libro, total, disponibles, prestados) VALUES (?, 0, 0, 0)";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, idLibro);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new DAOException("Error al crear la disponibilidad del libro " + idLibro, e);
+        }
+    }
+
+    /**
+     * Suma a los contadores los ejemplares recién insertados, con una actualización por libro.
+     * Debe llamarse dentro de la transacción que los insertó. Un ejemplar sin estado se guardó como DISPONIBLE.
+     */
+    public void registrarAltas(List<Ejemplar> ejemplares) throws DAOException {
+        // Ordenado por id_libro, el mismo orden de bloqueo que registrarCambio
+        Map<Integer, int[]> porLibro = new TreeMap<>();
+        for (Ejemplar ejemplar : ejemplares) {
+            EstadoEjemplar estado = ejemplar.getEstado() != null ? ejemplar.getEstado() : EstadoEjemplar.DISPONIBLE;
+            int[] delta = porLibro.computeIfAbsent(ejemplar.getLibro().getId(), k -> new int[3]);
+            delta[0]++;
+            delta[1] += disponible(estado);
+            delta[2] += prestado(estado);
+        }
+        for (Map.Entry<Integer, int[]> e : porLibro.entrySet()) {
+            int[] delta = e.getValue();
+            ajustar(e.getKey(), delta[0], delta[1], delta[2]);
+        }
+    }
+
+    /**
+     * Refleja en los contadores el cambio de libro y/o estado de un ejemplar. Sin cambio que cuente no toca la base.
+     * Debe llamarse dentro de la transacción que actualizó el ejemplar.
+     */
+    public void registrarCambio(int idLibroAnterior, EstadoEjemplar estadoAnterior,
+                                int idLibroNuevo, EstadoEjemplar estadoNuevo) throws DAOException {
+        int disponibles = disponible(estadoNuevo) - disponible(estadoAnterior);
+        int prestados = prestado(estadoNuevo) - prestado(estadoAnterior);
+
+        if (idLibroAnterior == idLibroNuevo) {
+            if (disponibles != 0 || prestados != 0) {
+                ajustar(idLibroNuevo, 0, disponibles, prestados);
+            }
+            return;
+        }
+        // Las filas de contadores se bloquean en orden ascendente de id_libro: dos traslados cruzados (A->B y B->A)
+        // en orden opuesto se bloquearían mutuamente
+        if (idLibroAnterior < idLibroNuevo) {
+            ajustar(idLibroAnterior, -1, -disponible(estadoAnterior), -prestado(estadoAnterior));
+            ajustar(idLibroNuevo, 1, disponible(estadoNuevo), prestado(estadoNuevo));
+        } else {
+            ajustar(idLibroNuevo, 1, disponible(estadoNuevo), prestado(estadoNuevo));
+            ajustar(idLibroAnterior, -1, -disponible(estadoAnterior), -prestado(estadoAnterior));
+        }
+    }
+
+    /**
+     * Resta de los contadores un ejemplar eliminado. Debe llamarse dentro de la transacción que lo eliminó.
+     */
+    public void registrarBaja(int idLibro, EstadoEjemplar estado) throws DAOException {
+        ajustar(idLibro, -1, -disponible(estado), -prestado(estado));
+    }
+
+    /**
+     * Catálogo completo con la disponibilidad de cada libro, ordenado por id.
+     */
+    public List<DisponibilidadLibro> listarCatalogo() throws DAOException {
+        return listar(SELECT_CATALOGO + " ORDER BY l.id_libro", "Error al listar la disponibilidad del catálogo");
+    }
+
+    /**
+     * Libros con al menos un ejemplar disponible, ordenados por id.
+     */
+    public List<DisponibilidadLibro> listarConDisponibles() throws DAOException {
+        return listar(SELECT_CATALOGO + " WHERE d.disponibles > 0 ORDER BY l.id_libro",
+                "Error al listar los libros disponibles");
+    }
+
+    /**
+     * Compara los contadores con una cuenta agregada de Ejemplar y recalcula los libros que no coinciden
+     * (o que no tienen fila de contadores), cada uno en su propia transacción.
+     * Devuelve los ids de los libros corregidos.
+     */
+    public List<Integer> reconciliar() throws DAOException {
+        String sql = """
+            SELECT l.id_libro
+            FROM Libro l
+            LEFT JOIN DisponibilidadLibro d ON d.id_libro = l.id_libro
+            LEFT JOIN (%s GROUP BY id_libro) c ON c.id_libro = l.id_libro
+            WHERE d.id_libro IS NULL
+               OR d.total <> COALESCE(c.total, 0)
+               OR d.disponibles <> COALESCE(c.disponibles, 0)
+               OR d.prestados <> COALESCE(c.prestados, 0)
+            ORDER BY l.id_libro
+        """.formatted(CONTEO_EJEMPLARES);
+
+        List<Integer> desviados = new ArrayList<>();
+        try (Connection conn = ConexionBD.getConexion();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+
+            while (rs.next()) {
+                desviados.add(rs.getInt("id_libro"));
+            }
+
+        } catch (SQLException e) {
+            throw new DAOException("Error al comparar la disponibilidad con los ejemplares", e);
+        }
+
+        for (int idLibro : desviados) {
+            UnidadDeTrabajo.ejecutar(() -> {
+                recalcular(idLibro);
+                return null;
+            });
+        }
+        return desviados;
+    }
+
+    /**
+     * Vuelve a contar los ejemplares del libro y reescribe (o crea) su fila de contadores.
+     * Bloquea primero la fila de contadores: un cambio de ejemplar concurrente que ya la tenga termina antes
+     * de contar, y uno que llegue después suma su delta sobre el valor recalculado.
+     */
+    public void recalcular(int idLibro) throws DAOException {
+        try (Connection conn = ConexionBD.getConexion()) {
+            boolean existe;
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT id_libro FROM DisponibilidadLibro WHERE id_libro = ? FOR UPDATE")) {
+                ps.setInt(1, idLibro);
+                try (ResultSet rs = ps.executeQuery()) {
+                    existe = rs.next();
+                }
+            }
+
+            int total = 0;
+            int disponibles = 0;
+            int prestados = 0;
+            try (PreparedStatement ps = conn.prepareStatement(CONTEO_EJEMPLARES + " WHERE id_libro = ? GROUP BY id_libro")) {
+                ps.setInt(1, idLibro);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        total = rs.getInt("total");
+                        disponibles = rs.getInt("disponibles");
+                        prestados = rs.getInt("prestados");
+                    }
+                }
+            }
+
+            String sql = existe
+                    ? "UPDATE DisponibilidadLibro SET total = ?, disponibles = ?, prestados = ? WHERE id_libro = ?"
+                    : "INSERT INTO DisponibilidadLibro (total, disponibles, prestados, id_libro) VALUES (?, ?, ?, ?)";
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setInt(1, total);
+                ps.setInt(2, disponibles);
+                ps.setInt(3, prestados);
+                ps.setInt(4, idLibro);
+                ps.executeUpdate();
+            }
+
+        } catch (SQLException e) {
+            throw new DAOException("Error al recalcular la disponibilidad del libro " + idLibro, e);
+        }
+    }
+
+    // -------------------------
+    // MÉTODOS AUXILIARES
+    // -------------------------
+
+    /**
+     * Suma los deltas a la fila del libro; si la fila no existe (libro anterior a los contadores) la recalcula,
+     * lo que ya incluye el cambio hecho en esta transacción.
+     */
+    private void ajustar(int idLibro, int total, int disponibles, int prestados) throws DAOException {
+        String sql = """
+            UPDATE DisponibilidadLibro
+            SET total = total + ?, disponibles = disponibles + ?, prestados = prestados + ?
+            WHERE id_libro = ?
+        """;
+        int filas;
+        try (Connection conn = ConexionBD.getConexion();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, total);
+            ps.setInt(2, disponibles);
+            ps.setInt(3, prestados);
+            ps.setInt(4, idLibro);
+            filas = ps.executeUpdate();
+
+        } catch (SQLException e) {
+            throw new DAOException("Error al actualizar la disponibilidad del libro " + idLibro, e);
+        }
+
+        if (filas == 0) {
+            recalcular(idLibro);
+        }
+    }
+
+    private List<DisponibilidadLibro> listar(String sql, String mensajeError) throws DAOException {
+        try (Connection conn = ConexionBD.getConexionLectura();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+
+            return MAPEADOR.listar(rs);
+
+        } catch (SQLException e) {
+            throw new DAOException(mensajeError, e);
+        }
+    }
+
+    private static MapeadorFilas<DisponibilidadLibro> mapeadorDisponibilidad() {
+        return c -> {
+            LectorFila<Libro> libro = Mapeadores.libro("id_libro", false).enlazar(c);
+            int total = c.indice("total");
+            int disponibles = c.indice("disponibles");
+            int prestados = c.indice("prestados");
+
+            return rs -> new DisponibilidadLibro(libro.leer(rs), rs.getInt(total), rs.getInt(disponibles),
+                    rs.getInt(prestados));
+        };
+    }
+
+    private static int disponible(EstadoEjemplar estado) {
+        return estado == EstadoEjemplar.DISPONIBLE ? 1 : 0;
+    }
+
+    private static int prestado(EstadoEjemplar estado) {
+        return estado == EstadoEjemplar.PRESTADO ? 1 : 0;
+    }
+}
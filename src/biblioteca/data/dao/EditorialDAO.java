@@ -6,7 +6,9 @@ import biblioteca.entities.inventario.Editorial;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * DAO para gestionar la persistencia de editoriales en la base de datos.
@@ -68,6 +70,17 @@ public class EditorialDAO implements DAO<Editorial> {
         return null;
     }
 
+    @Override
+    public Map<Integer, Editorial> buscarPorIds(Collection<Integer> ids) throws DAOException {
+        String sql = """
+            SELECT id_editorial, nombre, pais
+            FROM Editorial
+            WHERE id_editorial IN (%s)
+        """;
+        return BusquedaPorIds.buscar(ids, sql, BusquedaPorIds.porFila(this::mapearEditorial), Editorial::getIdEditorial,
+                "Error al buscar editoriales por ID");
+    }
+
     @Override
     public List<Editorial> listarTodos() throws DAOException {
         List<Editorial> editoriales = new ArrayList<>();
@@ -1,13 +1,21 @@
 package biblioteca.data.dao;
 
 import biblioteca.data.db.ConexionBD;
+import biblioteca.data.db.ConfigBD;
+import biblioteca.data.db.UnidadDeTrabajo;
 import biblioteca.data.interfaces.DAO;
+import biblioteca.data.mapeo.MapeadorFilas;
+import biblioteca.data.mapeo.Mapeadores;
 import biblioteca.entities.inventario.Ejemplar;
+import biblioteca.entities.inventario.EstadoEjemplar;
 import biblioteca.entities.inventario.Libro;
 
 import java.sql.*;
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * DAO para gestionar la persistencia de ejemplares en la base de datos.
@@ -15,6 +23,23 @@ import java.util.List;
  */
 public class EjemplarDAO implements DAO<Ejemplar> {
 
+    private static final MapeadorFilas<Ejemplar> MAPEADOR = Mapeadores.ejemplar(Mapeadores.libro("id_libro", false), false);
+
+    // Consulta completa de las búsquedas y listados de ejemplares; cada uno agrega su filtro y orden
+    private static final String SELECT_LISTADO = """
+            SELECT
+                e.id_ejemplar, e.codigo_ejemplar, e.estado AS e_estado, e.ubicacion,
+                l.id_libro, l.titulo, l.isbn, l.categoria AS l_categoria, l.anio_publicacion,
+                l.id_autor, a.nombre_completo AS nombre_autor, a.nacionalidad, a.fecha_nacimiento,
+                l.id_editorial, ed.nombre AS nombre_editorial, ed.pais
+            FROM Ejemplar e
+            INNER JOIN Libro l ON e.id_libro = l.id_libro
+            INNER JOIN Autor a ON l.id_autor = a.id_autor
+            INNER JOIN Editorial ed ON l.id_editorial = ed.id_editorial
+            """;
+
+    private final DisponibilidadLibroDAO disponibilidadDAO = new DisponibilidadLibroDAO();
+
     @Override
     public void insertar(Ejemplar ejemplar) throws DAOException {
         if (ejemplar == null || ejemplar.getLibro() == null) {
@@ -22,89 +47,131 @@ public class EjemplarDAO implements DAO<Ejemplar> {
         }
 
         String sql = "INSERT INTO Ejemplar (codigo_ejemplar, estado, ubicacion, id_libro) VALUES (?, ?, ?, ?)";
-        try (Connection conn = ConexionBD.getConexion();
-             PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        UnidadDeTrabajo.ejecutar(() -> {
+            try (Connection conn = ConexionBD.getConexion();
+                 PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+                ps.setString(1, ejemplar.getCodigo());
+                ps.setInt(2, estadoAGuardar(ejemplar).getCodigo());
+                ps.setString(3, ejemplar.getUbicacion());
+                ps.setInt(4, ejemplar.getLibro().getId());
+
+                int filas = ps.executeUpdate();
+                if (filas == 0) {
+                    throw new DAOException("No se pudo insertar el ejemplar en la base de datos.");
+                }
+
+                try (ResultSet rs = ps.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        ejemplar.setIdEjemplar(rs.getInt(1));
+                    }
+                }
+
+            } catch (SQLException e) {
+                throw new DAOException("Error al insertar ejemplar: " + e.getMessage(), e);
+            }
 
-            ps.setString(1, ejemplar.getCodigo());
-            ps.setString(2, ejemplar.getEstado() != null ? ejemplar.getEstado().toUpperCase() : "DISPONIBLE");
-            ps.setString(3, ejemplar.getUbicacion());
-            ps.setInt(4, ejemplar.getLibro().getId());
+            disponibilidadDAO.registrarAltas(List.of(ejemplar));
+            return null;
+        });
+    }
 
-            int filas = ps.executeUpdate();
-            if (filas == 0) {
-                throw new DAOException("No se pudo insertar el ejemplar en la base de datos.");
+    /**
+     * Inserta varios ejemplares con lotes JDBC (lote.tamanio sentencias por viaje) en una sola transacción:
+     * si falla uno no queda ninguno. Asigna a cada ejemplar su id generado, en el mismo orden de la lista.
+     * Dentro de una UnidadDeTrabajo en curso participa de ella. Los contadores de disponibilidad se actualizan
+     * en la misma transacción, una vez por libro.
+     */
+    public void insertarLote(List<Ejemplar> ejemplares) throws DAOException {
+        if (ejemplares == null || ejemplares.isEmpty()) return;
+        for (Ejemplar ejemplar : ejemplares) {
+            if (ejemplar == null || ejemplar.getLibro() == null) {
+                throw new DAOException("El ejemplar o su libro asociado no pueden ser nulos.");
             }
+        }
 
-            try (ResultSet rs = ps.getGeneratedKeys()) {
-                if (rs.next()) {
-                    ejemplar.setIdEjemplar(rs.getInt(1));
+        String sql = "INSERT INTO Ejemplar (codigo_ejemplar, estado, ubicacion, id_libro) VALUES (?, ?, ?, ?)";
+        int tamanioLote = ConfigBD.actual().getTamanioLote();
+
+        UnidadDeTrabajo.ejecutar(() -> {
+            try (Connection conn = ConexionBD.getConexion();
+                 PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+                for (int inicio = 0; inicio < ejemplares.size(); inicio += tamanioLote) {
+                    List<Ejemplar> lote = ejemplares.subList(inicio, Math.min(inicio + tamanioLote, ejemplares.size()));
+                    for (Ejemplar ejemplar : lote) {
+                        ps.setString(1, ejemplar.getCodigo());
+                        ps.setInt(2, estadoAGuardar(ejemplar).getCodigo());
+                        ps.setString(3, ejemplar.getUbicacion());
+                        ps.setInt(4, ejemplar.getLibro().getId());
+                        ps.addBatch();
+                    }
+
+                    for (int filas : ps.executeBatch()) {
+                        if (filas == 0 || filas == Statement.EXECUTE_FAILED) {
+                            throw new DAOException("No se pudo insertar el lote de ejemplares en la base de datos.");
+                        }
+                    }
+
+                    try (ResultSet rs = ps.getGeneratedKeys()) {
+                        for (Ejemplar ejemplar : lote) {
+                            if (!rs.next()) {
+                                throw new SQLException("No se obtuvieron los IDs generados para todo el lote de ejemplares.");
+                            }
+                            ejemplar.setIdEjemplar(rs.getInt(1));
+                        }
+                    }
                 }
+
+            } catch (SQLException e) {
+                throw new DAOException("Error al insertar lote de ejemplares: " + e.getMessage(), e);
             }
 
-        } catch (SQLException e) {
-            throw new DAOException("Error al insertar ejemplar: " + e.getMessage(), e);
-        }
+            disponibilidadDAO.registrarAltas(ejemplares);
+            return null;
+        });
     }
 
     @Override
     public Ejemplar buscarPorId(int id) throws DAOException {
-        String sql = """
-            SELECT 
-                e.id_ejemplar, e.codigo_ejemplar, e.estado, e.ubicacion,
-                l.id_libro, l.titulo, l.isbn, l.categoria, l.anio_publicacion,
-                l.id_autor, a.nombre_completo AS nombre_autor, a.nacionalidad, a.fecha_nacimiento,
-                l.id_editorial, ed.nombre AS nombre_editorial, ed.pais
-            FROM Ejemplar e
-            INNER JOIN Libro l ON e.id_libro = l.id_libro
-            INNER JOIN Autor a ON l.id_autor = a.id_autor
-            INNER JOIN Editorial ed ON l.id_editorial = ed.id_editorial
-            WHERE e.id_ejemplar = ?
-        """;
+        String sql = SELECT_LISTADO + "WHERE e.id_ejemplar = ?";
         try (Connection conn = ConexionBD.getConexion();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, id);
             try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return mapearEjemplar(rs);
-                } else {
-                    return null;
-                }
+                return MAPEADOR.primero(rs);
             }
         } catch (SQLException e) {
             throw new DAOException("Error al buscar ejemplar por ID: " + e.getMessage(), e);
         }
     }
 
+    @Override
+    public Map<Integer, Ejemplar> buscarPorIds(Collection<Integer> ids) throws DAOException {
+        String sql = SELECT_LISTADO + "WHERE e.id_ejemplar IN (%s)";
+        return BusquedaPorIds.buscar(ids, sql, MAPEADOR::listar, Ejemplar::getIdEjemplar,
+                "Error al buscar ejemplares por ID");
+    }
+
     @Override
     public List<Ejemplar> listarTodos() throws DAOException {
-        String sql = """
-            SELECT 
-                e.id_ejemplar, e.codigo_ejemplar, e.estado, e.ubicacion,
-                l.id_libro, l.titulo, l.isbn, l.categoria, l.anio_publicacion,
-                l.id_autor, a.nombre_completo AS nombre_autor, a.nacionalidad, a.fecha_nacimiento,
-                l.id_editorial, ed.nombre AS nombre_editorial, ed.pais
-            FROM Ejemplar e
-            INNER JOIN Libro l ON e.id_libro = l.id_libro
-            INNER JOIN Autor a ON l.id_autor = a.id_autor
-            INNER JOIN Editorial ed ON l.id_editorial = ed.id_editorial
-            ORDER BY e.id_ejemplar
-        """;
-        List<Ejemplar> lista = new ArrayList<>();
+        String sql = SELECT_LISTADO + "ORDER BY e.id_ejemplar";
         try (Connection conn = ConexionBD.getConexion();
              PreparedStatement ps = conn.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
 
-            while (rs.next()) {
-                lista.add(mapearEjemplar(rs));
-            }
-            return lista;
+            return MAPEADOR.listar(rs);
 
         } catch (SQLException e) {
             throw new DAOException("Error al listar ejemplares: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Actualiza el ejemplar y, en la misma transacción, los contadores de disponibilidad de su libro
+     * (de los dos libros si cambió de libro). Dentro de una UnidadDeTrabajo en curso participa de ella.
+     */
     @Override
     public void actualizar(Ejemplar ejemplar) throws DAOException {
         if (ejemplar == null || ejemplar.getLibro() == null) {
@@ -112,55 +179,68 @@ public class EjemplarDAO implements DAO<Ejemplar> {
         }
 
         String sql = "UPDATE Ejemplar SET codigo_ejemplar = ?, estado = ?, ubicacion = ?, id_libro = ? WHERE id_ejemplar = ?";
-        try (Connection conn = ConexionBD.getConexion();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+        UnidadDeTrabajo.ejecutar(() -> {
+            EstadoGuardado anterior = bloquearEstado(ejemplar.getIdEjemplar());
+            if (anterior == null) {
+                throw new DAOException("No se pudo actualizar el ejemplar con ID " + ejemplar.getIdEjemplar());
+            }
 
-            ps.setString(1, ejemplar.getCodigo());
-            ps.setString(2, ejemplar.getEstado() != null ? ejemplar.getEstado().toUpperCase() : "DISPONIBLE");
-            ps.setString(3, ejemplar.getUbicacion());
-            ps.setInt(4, ejemplar.getLibro().getId());
-            ps.setInt(5, ejemplar.getIdEjemplar());
+            EstadoEjemplar estado = estadoAGuardar(ejemplar);
+            try (Connection conn = ConexionBD.getConexion();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
 
-            int filas = ps.executeUpdate();
-            if (filas == 0) {
-                throw new DAOException("No se pudo actualizar el ejemplar con ID " + ejemplar.getIdEjemplar());
+                ps.setString(1, ejemplar.getCodigo());
+                ps.setInt(2, estado.getCodigo());
+                ps.setString(3, ejemplar.getUbicacion());
+                ps.setInt(4, ejemplar.getLibro().getId());
+                ps.setInt(5, ejemplar.getIdEjemplar());
+
+                int filas = ps.executeUpdate();
+                if (filas == 0) {
+                    throw new DAOException("No se pudo actualizar el ejemplar con ID " + ejemplar.getIdEjemplar());
+                }
+
+            } catch (SQLException e) {
+                throw new DAOException("Error al actualizar ejemplar: " + e.getMessage(), e);
             }
 
-        } catch (SQLException e) {
-            throw new DAOException("Error al actualizar ejemplar: " + e.getMessage(), e);
-        }
+            disponibilidadDAO.registrarCambio(anterior.idLibro(), anterior.estado(), ejemplar.getLibro().getId(), estado);
+            return null;
+        });
     }
 
+    /**
+     * Elimina el ejemplar y lo descuenta de la disponibilidad de su libro en la misma transacción.
+     */
     @Override
     public void eliminar(int id) throws DAOException {
         String sql = "DELETE FROM Ejemplar WHERE id_ejemplar = ?";
-        try (Connection conn = ConexionBD.getConexion();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            ps.setInt(1, id);
-            int filas = ps.executeUpdate();
-            if (filas == 0) {
+        UnidadDeTrabajo.ejecutar(() -> {
+            EstadoGuardado anterior = bloquearEstado(id);
+            if (anterior == null) {
                 throw new DAOException("No se pudo eliminar el ejemplar con ID " + id);
             }
 
-        } catch (SQLException e) {
-            throw new DAOException("Error al eliminar ejemplar: " + e.getMessage(), e);
-        }
+            try (Connection conn = ConexionBD.getConexion();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+
+                ps.setInt(1, id);
+                int filas = ps.executeUpdate();
+                if (filas == 0) {
+                    throw new DAOException("No se pudo eliminar el ejemplar con ID " + id);
+                }
+
+            } catch (SQLException e) {
+                throw new DAOException("Error al eliminar ejemplar: " + e.getMessage(), e);
+            }
+
+            disponibilidadDAO.registrarBaja(anterior.idLibro(), anterior.estado());
+            return null;
+        });
     }
 
     public Ejemplar buscarPorCodigo(String codigo) throws DAOException {
-        String sql = """
-            SELECT 
-                e.id_ejemplar, e.codigo_ejemplar, e.estado, e.ubicacion,
-                l.id_libro, l.titulo, l.isbn, l.categoria, l.anio_publicacion,
-                l.id_autor, a.nombre_completo AS nombre_autor, a.nacionalidad, a.fecha_nacimiento,
-                l.id_editorial, ed.nombre AS nombre_editorial, ed.pais
-            FROM Ejemplar e
-            INNER JOIN Libro l ON e.id_libro = l.id_libro
-            INNER JOIN Autor a ON l.id_autor = a.id_autor
-            INNER JOIN Editorial ed ON l.id_editorial = ed.id_editorial
-            WHERE e.codigo_ejemplar = ?
-        """;
+        String sql = SELECT_LISTADO + "WHERE e.codigo_ejemplar = ?";
 
         try (Connection conn = ConexionBD.getConexion();
              PreparedStatement ps = conn.prepareStatement(sql)) {
@@ -168,8 +248,7 @@ public class EjemplarDAO implements DAO<Ejemplar> {
             ps.setString(1, codigo);
 
             try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) return mapearEjemplar(rs);
-                return null;
+                return MAPEADOR.primero(rs);
             }
 
         } catch (SQLException e) {
@@ -179,55 +258,118 @@ public class EjemplarDAO implements DAO<Ejemplar> {
 
     public List<Ejemplar> listarPorLibro(Libro libro) throws DAOException {
         if (libro == null) throw new DAOException("El libro no puede ser nulo.");
+        String sql = SELECT_LISTADO + "WHERE l.id_libro = ? ORDER BY e.id_ejemplar";
+        try (Connection conn = ConexionBD.getConexion();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, libro.getId());
+            try (ResultSet rs = ps.executeQuery()) {
+                return MAPEADOR.listar(rs);
+            }
+
+        } catch (SQLException e) {
+            throw new DAOException("Error al listar ejemplares por libro: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Cantidad de ejemplares del libro, sin cargarlos.
+     */
+    public int contarPorLibro(int idLibro) throws DAOException {
+        String sql = "SELECT COUNT(*) FROM Ejemplar WHERE id_libro = ?";
+        try (Connection conn = ConexionBD.getConexion();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, idLibro);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+
+        } catch (SQLException e) {
+            throw new DAOException("Error al contar ejemplares por libro: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Cantidad de ejemplares del libro por estado. Los estados sin ejemplares no aparecen en el mapa.
+     */
+    public Map<EstadoEjemplar, Integer> contarPorEstado(int idLibro) throws DAOException {
         String sql = """
-            SELECT 
-                e.id_ejemplar, e.codigo_ejemplar, e.estado, e.ubicacion,
-                l.id_libro, l.titulo, l.isbn, l.categoria, l.anio_publicacion,
-                l.id_autor, a.nombre_completo AS nombre_autor, a.nacionalidad, a.fecha_nacimiento,
-                l.id_editorial, ed.nombre AS nombre_editorial, ed.pais
-            FROM Ejemplar e
-            INNER JOIN Libro l ON e.id_libro = l.id_libro
-            INNER JOIN Autor a ON l.id_autor = a.id_autor
-            INNER JOIN Editorial ed ON l.id_editorial = ed.id_editorial
-            WHERE l.id_libro = ?
-            ORDER BY e.id_ejemplar
+            SELECT estado, COUNT(*) AS cantidad
+            FROM Ejemplar
+            WHERE id_libro = ?
+            GROUP BY estado
         """;
-        List<Ejemplar> lista = new ArrayList<>();
         try (Connection conn = ConexionBD.getConexion();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
-            ps.setInt(1, libro.getId());
+            ps.setInt(1, idLibro);
+            Map<EstadoEjemplar, Integer> cantidades = new EnumMap<>(EstadoEjemplar.class);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    lista.add(mapearEjemplar(rs));
+                    cantidades.put(EstadoEjemplar.desdeCodigo(rs.getInt("estado")), rs.getInt("cantidad"));
                 }
             }
-            return lista;
+            return cantidades;
 
         } catch (SQLException e) {
-            throw new DAOException("Error al listar ejemplares por libro: " + e.getMessage(), e);
+            throw new DAOException("Error al contar ejemplares por estado: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Cantidad de ejemplares por libro y por estado de todo el catálogo en una sola consulta agregada.
+     * La clave externa es el id_libro y la interna el estado; los libros sin ejemplares no aparecen.
+     */
+    public Map<Integer, Map<EstadoEjemplar, Integer>> contarPorEstadoDeTodos() throws DAOException {
+        String sql = """
+            SELECT id_libro, estado, COUNT(*) AS cantidad
+            FROM Ejemplar
+            GROUP BY id_libro, estado
+        """;
+        try (Connection conn = ConexionBD.getConexion();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+
+            Map<Integer, Map<EstadoEjemplar, Integer>> cantidades = new HashMap<>();
+            while (rs.next()) {
+                cantidades.computeIfAbsent(rs.getInt("id_libro"), k -> new EnumMap<>(EstadoEjemplar.class))
+                        .put(EstadoEjemplar.desdeCodigo(rs.getInt("estado")), rs.getInt("cantidad"));
+            }
+            return cantidades;
+
+        } catch (SQLException e) {
+            throw new DAOException("Error al contar ejemplares del catálogo: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Libro y estado con que está guardado el ejemplar.
+     */
+    private record EstadoGuardado(int idLibro, EstadoEjemplar estado) {
+    }
+
+    /**
+     * Lee y bloquea la fila del ejemplar hasta el fin de la transacción, para que dos cambios concurrentes
+     * no calculen los contadores a partir del mismo estado anterior. Devuelve null si el ejemplar no existe.
+     */
+    private EstadoGuardado bloquearEstado(int idEjemplar) throws DAOException {
+        String sql = "SELECT id_libro, estado FROM Ejemplar WHERE id_ejemplar = ? FOR UPDATE";
+        try (Connection conn = ConexionBD.getConexion();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, idEjemplar);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? new EstadoGuardado(rs.getInt("id_libro"), EstadoEjemplar.desdeCodigo(rs.getInt("estado"))) : null;
+            }
+
+        } catch (SQLException e) {
+            throw new DAOException("Error al leer el estado del ejemplar: " + e.getMessage(), e);
         }
     }
 
-    private Ejemplar mapearEjemplar(ResultSet rs) throws SQLException {
-        Libro libro = new Libro(
-                rs.getInt("id_libro"),
-                rs.getString("titulo"),
-                rs.getString("nombre_autor"),
-                rs.getString("isbn"),
-                rs.getString("categoria"),
-                rs.getString("nombre_editorial"),
-                rs.getInt("anio_publicacion")
-        );
-        libro.setIdAutor(rs.getInt("id_autor"));
-        libro.setIdEditorial(rs.getInt("id_editorial"));
-
-        return new Ejemplar(
-                rs.getInt("id_ejemplar"),
-                rs.getString("codigo_ejemplar"),
-                rs.getString("estado"),
-                rs.getString("ubicacion"),
-                libro
-        );
+    private static EstadoEjemplar estadoAGuardar(Ejemplar ejemplar) {
+        return ejemplar.getEstado() != null ? ejemplar.getEstado() : EstadoEjemplar.DISPONIBLE;
     }
 }
@@ -1,33 +1,69 @@
 package biblioteca.data.dao;
 
 import biblioteca.data.db.ConexionBD;
+import biblioteca.data.db.ConfigBD;
+import biblioteca.data.db.UnidadDeTrabajo;
 import biblioteca.data.interfaces.DAO;
+import biblioteca.data.mapeo.CursorFilas;
+import biblioteca.data.mapeo.LectorFila;
+import biblioteca.data.mapeo.MapeadorFilas;
+import biblioteca.data.mapeo.Mapeadores;
 import biblioteca.entities.reportes.Historial;
+import biblioteca.entities.reportes.HistorialResumen;
 import biblioteca.entities.usuarios.Socio;
 import biblioteca.entities.prestamos.Prestamo;
-import biblioteca.entities.inventario.Ejemplar;
-import biblioteca.entities.inventario.Libro;
-import biblioteca.entities.usuarios.Bibliotecario;
-import biblioteca.entities.usuarios.TipoUsuario;
 
 import java.sql.*;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * DAO para gestionar la persistencia del historial de operaciones en la base de datos.
  * Maneja las operaciones CRUD sobre la tabla Historial, incluyendo JOINs completos con Usuario, Socio, Prestamo, Libro y todas sus relaciones.
+ * Los listados y consultas de reporte usan el lado de lectura de ConexionBD (réplica, si está configurada).
+ * El libro de cada registro es h.id_libro (NOT NULL en las dos tablas); se une con LEFT JOIN porque el archivo
+ * no tiene claves foráneas y puede conservar registros de libros dados de baja.
+ * Los meses cerrados más viejos que historial.meses.activos se mueven a HistorialArchivo (archivarAnterioresA).
+ * Los listados de todo el historial (listarTodos, listarResumen, recorrerTodos, listarPagina) y los de rango de
+ * fechas leen primero Historial y sólo bajan al archivo cuando la consulta llega a fechas archivadas. Las búsquedas
+ * por id, socio, libro o tipo y los existePor* consultan las dos tablas (buscarPorId y buscarPorIds sólo bajan al
+ * archivo por los ids que no encuentran activos). Usuario y Socio se unen con LEFT JOIN: el archivo no tiene claves
+ * foráneas y un registro archivado puede quedar sin socio.
  */
 public class HistorialDAO implements DAO<Historial> {
 
+    private static final MapeadorFilas<Historial> MAPEADOR = mapeadorHistorial();
+    private static final MapeadorFilas<HistorialResumen> MAPEADOR_RESUMEN = Mapeadores.historialResumen();
+
+    private static final String TABLA_ACTIVA = "Historial";
+    private static final String TABLA_ARCHIVO = "HistorialArchivo";
+    private static final String COLUMNAS = "id_historial, fecha, tipo_operacion, detalles, id_usuario, id_libro, id_prestamo";
+
+    // Consulta completa sobre el historial activo (buscarPorIds, recorrerTodos); cada uno agrega su filtro y orden.
+    // El resto de las consultas la arman con selectListado para cada tabla
+    private static final String SELECT_LISTADO = selectListado(TABLA_ACTIVA);
+
+    /**
+     * Lee las filas de una de las dos tablas del historial (Historial o HistorialArchivo) sobre la conexión dada.
+     */
+    @FunctionalInterface
+    private interface ConsultaTabla<T> {
+        List<T> leer(Connection conn, String tabla) throws SQLException;
+    }
+
     public HistorialDAO(SocioDAO socioDAO) {
     }
 
     @Override
     public void insertar(Historial historial) throws DAOException {
+        // Sólo los registros archivados de socios dados de baja se leen sin socio; no se vuelven a escribir
+        if (historial.getSocio() == null) throw new IllegalArgumentException("El historial debe tener un socio.");
         String sql = """
                 INSERT INTO Historial (fecha, tipo_operacion, detalles, id_usuario, id_libro, id_prestamo)
                 VALUES (?, ?, ?, ?, ?, ?)
@@ -72,90 +108,59 @@ public class HistorialDAO implements DAO<Historial> {
         }
     }
 
+    /**
+     * Busca primero en el historial activo y, si no está, en HistorialArchivo.
+     */
     @Override
     public Historial buscarPorId(int id) throws DAOException {
-        String sql = """
-                SELECT
-                  h.id_historial, h.fecha, h.tipo_operacion, h.detalles, h.id_usuario, h.id_libro, h.id_prestamo,
-                  s.id_socio, s.id_usuario AS s_id_usuario, s.numero_socio, s.fecha_vencimiento_carnet AS s_fecha_vencimiento_carnet,
-                  s.estado AS s_estado, s.tiene_sanciones, s.tiene_atrasos, s.categoria AS s_categoria,
-                  u_s.nombre AS s_nombre, u_s.apellido AS s_apellido, u_s.dni AS s_dni, u_s.email AS s_email, u_s.telefono AS s_telefono,
-                  u_s.fecha_registro AS s_fecha_registro, u_s.username AS s_username, u_s.password AS s_password, u_s.tipo_usuario AS s_tipo,
-                  p.id_prestamo AS p_id_prestamo, p.fecha_prestamo, p.fecha_vencimiento, p.estado AS p_estado, p.dias_prestamo,
-                  e.id_ejemplar, e.codigo_ejemplar, e.estado AS e_estado, e.ubicacion,
-                  l.id_libro AS l_id_libro, l.titulo, l.isbn, l.categoria AS l_categoria, l.anio_publicacion,
-                  l.id_autor, a.nombre_completo AS nombre_autor, a.nacionalidad, a.fecha_nacimiento,
-                  l.id_editorial, ed.nombre AS nombre_editorial, ed.pais,
-                  b.id_bibliotecario, b.legajo, b.turno,
-                  u_b.id_usuario AS b_id_usuario, u_b.nombre AS b_nombre, u_b.apellido AS b_apellido, 
-                  u_b.dni AS b_dni, u_b.username AS b_username, u_b.password AS b_password, 
-                  u_b.email AS b_email, u_b.telefono AS b_telefono, u_b.fecha_registro AS b_fecha_registro
-                FROM Historial h
-                INNER JOIN Usuario u_s ON h.id_usuario = u_s.id_usuario
-                INNER JOIN Socio s ON u_s.id_usuario = s.id_usuario
-                LEFT JOIN Prestamo p ON h.id_prestamo = p.id_prestamo
-                LEFT JOIN Ejemplar e ON p.id_ejemplar = e.id_ejemplar
-                LEFT JOIN Libro l ON (h.id_libro = l.id_libro OR (e.id_libro = l.id_libro))
-                LEFT JOIN Autor a ON l.id_autor = a.id_autor
-                LEFT JOIN Editorial ed ON l.id_editorial = ed.id_editorial
-                LEFT JOIN Bibliotecario b ON p.id_bibliotecario = b.id_bibliotecario
-                LEFT JOIN Usuario u_b ON b.id_usuario = u_b.id_usuario
-                WHERE h.id_historial = ?
-                """;
-        try (Connection conn = ConexionBD.getConexion();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            ps.setInt(1, id);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) return mapearHistorial(rs);
-                else return null;
+        String filtro = "WHERE h.id_historial = ?";
+        try (Connection conn = ConexionBD.getConexion()) {
+            List<Historial> encontrado = leerFiltrado(conn, TABLA_ACTIVA, filtro, id);
+            if (encontrado.isEmpty()) {
+                encontrado = leerFiltrado(conn, TABLA_ARCHIVO, filtro, id);
             }
-
+            return encontrado.isEmpty() ? null : encontrado.get(0);
         } catch (SQLException e) {
             throw new DAOException("Error al buscar historial por ID", e);
         }
     }
 
+    /**
+     * Los ids que no están en el historial activo se buscan en HistorialArchivo.
+     */
     @Override
-    public List<Historial> listarTodos() throws DAOException {
-        String sql = """
-                SELECT
-                  h.id_historial, h.fecha, h.tipo_operacion, h.detalles, h.id_usuario, h.id_libro, h.id_prestamo,
-                  s.id_socio, s.id_usuario AS s_id_usuario, s.numero_socio, s.fecha_vencimiento_carnet AS s_fecha_vencimiento_carnet,
-                  s.estado AS s_estado, s.tiene_sanciones, s.tiene_atrasos, s.categoria AS s_categoria,
-                  u_s.nombre AS s_nombre, u_s.apellido AS s_apellido, u_s.dni AS s_dni, u_s.email AS s_email, u_s.telefono AS s_telefono,
-                  u_s.fecha_registro AS s_fecha_registro, u_s.username AS s_username, u_s.password AS s_password, u_s.tipo_usuario AS s_tipo,
-                  p.id_prestamo AS p_id_prestamo, p.fecha_prestamo, p.fecha_vencimiento, p.estado AS p_estado, p.dias_prestamo,
-                  e.id_ejemplar, e.codigo_ejemplar, e.estado AS e_estado, e.ubicacion,
-                  l.id_libro AS l_id_libro, l.titulo, l.isbn, l.categoria AS l_categoria, l.anio_publicacion,
-                  l.id_autor, a.nombre_completo AS nombre_autor, a.nacionalidad, a.fecha_nacimiento,
-                  l.id_editorial, ed.nombre AS nombre_editorial, ed.pais,
-                  b.id_bibliotecario, b.legajo, b.turno,
-                  u_b.id_usuario AS b_id_usuario, u_b.nombre AS b_nombre, u_b.apellido AS b_apellido, 
-                  u_b.dni AS b_dni, u_b.username AS b_username, u_b.password AS b_password, 
-                  u_b.email AS b_email, u_b.telefono AS b_telefono, u_b.fecha_registro AS b_fecha_registro
-                FROM Historial h
-                INNER JOIN Usuario u_s ON h.id_usuario = u_s.id_usuario
-                INNER JOIN Socio s ON u_s.id_usuario = s.id_usuario
-                LEFT JOIN Prestamo p ON h.id_prestamo = p.id_prestamo
-                LEFT JOIN Ejemplar e ON p.id_ejemplar = e.id_ejemplar
-                LEFT JOIN Libro l ON (h.id_libro = l.id_libro OR (e.id_libro = l.id_libro))
-                LEFT JOIN Autor a ON l.id_autor = a.id_autor
-                LEFT JOIN Editorial ed ON l.id_editorial = ed.id_editorial
-                LEFT JOIN Bibliotecario b ON p.id_bibliotecario = b.id_bibliotecario
-                LEFT JOIN Usuario u_b ON b.id_usuario = u_b.id_usuario
-                ORDER BY h.fecha DESC
-                """;
-        List<Historial> lista = new ArrayList<>();
-        try (Connection conn = ConexionBD.getConexion();
-             PreparedStatement ps = conn.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-
-            while (rs.next()) {
-                lista.add(mapearHistorial(rs));
-            }
-            return lista;
+    public Map<Integer, Historial> buscarPorIds(Collection<Integer> ids) throws DAOException {
+        String mensajeError = "Error al buscar historial por ID";
+        Map<Integer, Historial> activos = BusquedaPorIds.buscar(ids, SELECT_LISTADO + "WHERE h.id_historial IN (%s)",
+                MAPEADOR::listar, Historial::getId, mensajeError);
+        List<Integer> faltantes = ids.stream().filter(id -> !activos.containsKey(id)).distinct().toList();
+        if (faltantes.isEmpty()) {
+            return activos;
+        }
+        Map<Integer, Historial> archivados = BusquedaPorIds.buscar(faltantes,
+                selectListado(TABLA_ARCHIVO) + "WHERE h.id_historial IN (%s)", MAPEADOR::listar, Historial::getId, mensajeError);
+
+        // Mismo orden que los ids pedidos, como BusquedaPorIds
+        Map<Integer, Historial> encontrados = new LinkedHashMap<>();
+        for (Integer id : ids) {
+            Historial h = activos.containsKey(id) ? activos.get(id) : archivados.get(id);
+            if (h != null) encontrados.put(id, h);
+        }
+        return encontrados;
+    }
 
+    /**
+     * Todo el historial, activo y archivado, del más reciente al más antiguo.
+     */
+    @Override
+    public List<Historial> listarTodos() throws DAOException {
+        try {
+            return leerActivoYArchivo(null, Integer.MAX_VALUE, (conn, tabla) -> {
+                try (PreparedStatement ps = conn.prepareStatement(selectListado(tabla) + "ORDER BY h.fecha DESC");
+                     ResultSet rs = ps.executeQuery()) {
+                    return MAPEADOR.listar(rs);
+                }
+            });
         } catch (SQLException e) {
             throw new DAOException("Error al listar historiales", e);
         }
@@ -163,6 +168,8 @@ public class HistorialDAO implements DAO<Historial> {
 
     @Override
     public void actualizar(Historial historial) throws DAOException {
+        // Sólo los registros archivados de socios dados de baja se leen sin socio; no se vuelven a escribir
+        if (historial.getSocio() == null) throw new IllegalArgumentException("El historial debe tener un socio.");
         String sql = """
                 UPDATE Historial 
                 SET fecha = ?, tipo_operacion = ?, detalles = ?, id_usuario = ?, id_libro = ?, id_prestamo = ? 
@@ -221,46 +228,14 @@ public class HistorialDAO implements DAO<Historial> {
         }
     }
 
+    /**
+     * Último registro del socio con ese DNI; sólo consulta el archivo si el socio no tiene registros activos.
+     */
     public Historial buscarPorDni(String dni) throws DAOException {
-        String sql = """
-                SELECT
-                  h.id_historial, h.fecha, h.tipo_operacion, h.detalles, h.id_usuario, h.id_libro, h.id_prestamo,
-                  s.id_socio, s.id_usuario AS s_id_usuario, s.numero_socio, s.fecha_vencimiento_carnet AS s_fecha_vencimiento_carnet,
-                  s.estado AS s_estado, s.tiene_sanciones, s.tiene_atrasos, s.categoria AS s_categoria,
-                  u_s.nombre AS s_nombre, u_s.apellido AS s_apellido, u_s.dni AS s_dni, u_s.email AS s_email, u_s.telefono AS s_telefono,
-                  u_s.fecha_registro AS s_fecha_registro, u_s.username AS s_username, u_s.password AS s_password, u_s.tipo_usuario AS s_tipo,
-                  p.id_prestamo AS p_id_prestamo, p.fecha_prestamo, p.fecha_vencimiento, p.estado AS p_estado, p.dias_prestamo,
-                  e.id_ejemplar, e.codigo_ejemplar, e.estado AS e_estado, e.ubicacion,
-                  l.id_libro AS l_id_libro, l.titulo, l.isbn, l.categoria AS l_categoria, l.anio_publicacion,
-                  l.id_autor, a.nombre_completo AS nombre_autor, a.nacionalidad, a.fecha_nacimiento,
-                  l.id_editorial, ed.nombre AS nombre_editorial, ed.pais,
-                  b.id_bibliotecario, b.legajo, b.turno,
-                  u_b.id_usuario AS b_id_usuario, u_b.nombre AS b_nombre, u_b.apellido AS b_apellido, 
-                  u_b.dni AS b_dni, u_b.username AS b_username, u_b.password AS b_password, 
-                  u_b.email AS b_email, u_b.telefono AS b_telefono, u_b.fecha_registro AS b_fecha_registro
-                FROM Historial h
-                INNER JOIN Usuario u_s ON h.id_usuario = u_s.id_usuario
-                INNER JOIN Socio s ON u_s.id_usuario = s.id_usuario
-                LEFT JOIN Prestamo p ON h.id_prestamo = p.id_prestamo
-                LEFT JOIN Ejemplar e ON p.id_ejemplar = e.id_ejemplar
-                LEFT JOIN Libro l ON (h.id_libro = l.id_libro OR (e.id_libro = l.id_libro))
-                LEFT JOIN Autor a ON l.id_autor = a.id_autor
-                LEFT JOIN Editorial ed ON l.id_editorial = ed.id_editorial
-                LEFT JOIN Bibliotecario b ON p.id_bibliotecario = b.id_bibliotecario
-                LEFT JOIN Usuario u_b ON b.id_usuario = u_b.id_usuario
-                WHERE u_s.dni = ?
-                ORDER BY h.fecha DESC
-                LIMIT 1
-                """;
-        try (Connection conn = ConexionBD.getConexion();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            ps.setString(1, dni);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) return mapearHistorial(rs);
-                else return null;
-            }
-
+        try {
+            List<Historial> ultimo = leerActivoYArchivo(null, 1,
+                    (conn, tabla) -> leerFiltrado(conn, tabla, "WHERE u_s.dni = ? ORDER BY h.fecha DESC LIMIT 1", dni));
+            return ultimo.isEmpty() ? null : ultimo.get(0);
         } catch (SQLException e) {
             throw new DAOException("Error al buscar historial por DNI", e);
         }
@@ -286,48 +261,7 @@ public class HistorialDAO implements DAO<Historial> {
     }
 
     public List<Historial> listarPorTipo(String tipoOperacion) throws DAOException {
-        String sql = """
-                SELECT
-                  h.id_historial, h.fecha, h.tipo_operacion, h.detalles, h.id_usuario, h.id_libro, h.id_prestamo,
-                  s.id_socio, s.id_usuario AS s_id_usuario, s.numero_socio, s.fecha_vencimiento_carnet AS s_fecha_vencimiento_carnet,
-                  s.estado AS s_estado, s.tiene_sanciones, s.tiene_atrasos, s.categoria AS s_categoria,
-                  u_s.nombre AS s_nombre, u_s.apellido AS s_apellido, u_s.dni AS s_dni, u_s.email AS s_email, u_s.telefono AS s_telefono,
-                  u_s.fecha_registro AS s_fecha_registro, u_s.username AS s_username, u_s.password AS s_password, u_s.tipo_usuario AS s_tipo,
-                  p.id_prestamo AS p_id_prestamo, p.fecha_prestamo, p.fecha_vencimiento, p.estado AS p_estado, p.dias_prestamo,
-                  e.id_ejemplar, e.codigo_ejemplar, e.estado AS e_estado, e.ubicacion,
-                  l.id_libro AS l_id_libro, l.titulo, l.isbn, l.categoria AS l_categoria, l.anio_publicacion,
-                  l.id_autor, a.nombre_completo AS nombre_autor, a.nacionalidad, a.fecha_nacimiento,
-                  l.id_editorial, ed.nombre AS nombre_editorial, ed.pais,
-                  b.id_bibliotecario, b.legajo, b.turno,
-                  u_b.id_usuario AS b_id_usuario, u_b.nombre AS b_nombre, u_b.apellido AS b_apellido, 
-                  u_b.dni AS b_dni, u_b.username AS b_username, u_b.password AS b_password, 
-                  u_b.email AS b_email, u_b.telefono AS b_telefono, u_b.fecha_registro AS b_fecha_registro
-                FROM Historial h
-                INNER JOIN Usuario u_s ON h.id_usuario = u_s.id_usuario
-                INNER JOIN Socio s ON u_s.id_usuario = s.id_usuario
-                LEFT JOIN Prestamo p ON h.id_prestamo = p.id_prestamo
-                LEFT JOIN Ejemplar e ON p.id_ejemplar = e.id_ejemplar
-                LEFT JOIN Libro l ON (h.id_libro = l.id_libro OR (e.id_libro = l.id_libro))
-                LEFT JOIN Autor a ON l.id_autor = a.id_autor
-                LEFT JOIN Editorial ed ON l.id_editorial = ed.id_editorial
-                LEFT JOIN Bibliotecario b ON p.id_bibliotecario = b.id_bibliotecario
-                LEFT JOIN Usuario u_b ON b.id_usuario = u_b.id_usuario
-                WHERE h.tipo_operacion = ?
-                ORDER BY h.fecha DESC
-                """;
-        List<Historial> lista = new ArrayList<>();
-        try (Connection conn = ConexionBD.getConexion();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            ps.setString(1, tipoOperacion);
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) lista.add(mapearHistorial(rs));
-            }
-            return lista;
-
-        } catch (SQLException e) {
-            throw new DAOException("Error al listar historial por tipo de operación", e);
-        }
+        return listarPor("WHERE h.tipo_operacion = ?", tipoOperacion, "Error al listar historial por tipo de operación");
     }
 
     /**
@@ -335,93 +269,11 @@ public class HistorialDAO implements DAO<Historial> {
      * Para buscar por id_socio, usar listarPorIdSocio().
      */
     public List<Historial> listarPorSocioId(int idUsuario) throws DAOException {
-        String sql = """
-                SELECT
-                  h.id_historial, h.fecha, h.tipo_operacion, h.detalles, h.id_usuario, h.id_libro, h.id_prestamo,
-                  s.id_socio, s.id_usuario AS s_id_usuario, s.numero_socio, s.fecha_vencimiento_carnet AS s_fecha_vencimiento_carnet,
-                  s.estado AS s_estado, s.tiene_sanciones, s.tiene_atrasos, s.categoria AS s_categoria,
-                  u_s.nombre AS s_nombre, u_s.apellido AS s_apellido, u_s.dni AS s_dni, u_s.email AS s_email, u_s.telefono AS s_telefono,
-                  u_s.fecha_registro AS s_fecha_registro, u_s.username AS s_username, u_s.password AS s_password, u_s.tipo_usuario AS s_tipo,
-                  p.id_prestamo AS p_id_prestamo, p.fecha_prestamo, p.fecha_vencimiento, p.estado AS p_estado, p.dias_prestamo,
-                  e.id_ejemplar, e.codigo_ejemplar, e.estado AS e_estado, e.ubicacion,
-                  l.id_libro AS l_id_libro, l.titulo, l.isbn, l.categoria AS l_categoria, l.anio_publicacion,
-                  l.id_autor, a.nombre_completo AS nombre_autor, a.nacionalidad, a.fecha_nacimiento,
-                  l.id_editorial, ed.nombre AS nombre_editorial, ed.pais,
-                  b.id_bibliotecario, b.legajo, b.turno,
-                  u_b.id_usuario AS b_id_usuario, u_b.nombre AS b_nombre, u_b.apellido AS b_apellido, 
-                  u_b.dni AS b_dni, u_b.username AS b_username, u_b.password AS b_password, 
-                  u_b.email AS b_email, u_b.telefono AS b_telefono, u_b.fecha_registro AS b_fecha_registro
-                FROM Historial h
-                INNER JOIN Usuario u_s ON h.id_usuario = u_s.id_usuario
-                INNER JOIN Socio s ON u_s.id_usuario = s.id_usuario
-                LEFT JOIN Prestamo p ON h.id_prestamo = p.id_prestamo
-                LEFT JOIN Ejemplar e ON p.id_ejemplar = e.id_ejemplar
-                LEFT JOIN Libro l ON (h.id_libro = l.id_libro OR (e.id_libro = l.id_libro))
-                LEFT JOIN Autor a ON l.id_autor = a.id_autor
-                LEFT JOIN Editorial ed ON l.id_editorial = ed.id_editorial
-                LEFT JOIN Bibliotecario b ON p.id_bibliotecario = b.id_bibliotecario
-                LEFT JOIN Usuario u_b ON b.id_usuario = u_b.id_usuario
-                WHERE h.id_usuario = ?
-                ORDER BY h.fecha DESC
-                """;
-        List<Historial> lista = new ArrayList<>();
-        try (Connection conn = ConexionBD.getConexion();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            ps.setInt(1, idUsuario);
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) lista.add(mapearHistorial(rs));
-            }
-            return lista;
-
-        } catch (SQLException e) {
-            throw new DAOException("Error al listar historial por socio", e);
-        }
+        return listarPor("WHERE h.id_usuario = ?", idUsuario, "Error al listar historial por socio");
     }
 
     public List<Historial> listarPorLibroId(int idLibro) throws DAOException {
-        String sql = """
-                SELECT
-                  h.id_historial, h.fecha, h.tipo_operacion, h.detalles, h.id_usuario, h.id_libro, h.id_prestamo,
-                  s.id_socio, s.id_usuario AS s_id_usuario, s.numero_socio, s.fecha_vencimiento_carnet AS s_fecha_vencimiento_carnet,
-                  s.estado AS s_estado, s.tiene_sanciones, s.tiene_atrasos, s.categoria AS s_categoria,
-                  u_s.nombre AS s_nombre, u_s.apellido AS s_apellido, u_s.dni AS s_dni, u_s.email AS s_email, u_s.telefono AS s_telefono,
-                  u_s.fecha_registro AS s_fecha_registro, u_s.username AS s_username, u_s.password AS s_password, u_s.tipo_usuario AS s_tipo,
-                  p.id_prestamo AS p_id_prestamo, p.fecha_prestamo, p.fecha_vencimiento, p.estado AS p_estado, p.dias_prestamo,
-                  e.id_ejemplar, e.codigo_ejemplar, e.estado AS e_estado, e.ubicacion,
-                  l.id_libro AS l_id_libro, l.titulo, l.isbn, l.categoria AS l_categoria, l.anio_publicacion,
-                  l.id_autor, a.nombre_completo AS nombre_autor, a.nacionalidad, a.fecha_nacimiento,
-                  l.id_editorial, ed.nombre AS nombre_editorial, ed.pais,
-                  b.id_bibliotecario, b.legajo, b.turno,
-                  u_b.id_usuario AS b_id_usuario, u_b.nombre AS b_nombre, u_b.apellido AS b_apellido, 
-                  u_b.dni AS b_dni, u_b.username AS b_username, u_b.password AS b_password, 
-                  u_b.email AS b_email, u_b.telefono AS b_telefono, u_b.fecha_registro AS b_fecha_registro
-                FROM Historial h
-                INNER JOIN Usuario u_s ON h.id_usuario = u_s.id_usuario
-                INNER JOIN Socio s ON u_s.id_usuario = s.id_usuario
-                LEFT JOIN Prestamo p ON h.id_prestamo = p.id_prestamo
-                LEFT JOIN Ejemplar e ON p.id_ejemplar = e.id_ejemplar
-                LEFT JOIN Libro l ON (h.id_libro = l.id_libro OR (e.id_libro = l.id_libro))
-                LEFT JOIN Autor a ON l.id_autor = a.id_autor
-                LEFT JOIN Editorial ed ON l.id_editorial = ed.id_editorial
-                LEFT JOIN Bibliotecario b ON p.id_bibliotecario = b.id_bibliotecario
-                LEFT JOIN Usuario u_b ON b.id_usuario = u_b.id_usuario
-                WHERE h.id_libro = ?
-                ORDER BY h.fecha DESC
-                """;
-        List<Historial> lista = new ArrayList<>();
-        try (Connection conn = ConexionBD.getConexion();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            ps.setInt(1, idLibro);
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) lista.add(mapearHistorial(rs));
-            }
-            return lista;
-
-        } catch (SQLException e) {
-            throw new DAOException("Error al listar historial por libro", e);
-        }
+        return listarPor("WHERE h.id_libro = ?", idLibro, "Error al listar historial por libro");
     }
 
     /**
@@ -429,186 +281,383 @@ public class HistorialDAO implements DAO<Historial> {
      * Hace JOIN para convertir id_socio a id_usuario.
      */
     public List<Historial> listarPorIdSocio(int idSocio) throws DAOException {
+        return listarPor("WHERE s.id_socio = ?", idSocio, "Error al listar historial por id_socio");
+    }
+
+    /**
+     * Indica si el socio (id_socio) tiene al menos un registro en el historial, activo o archivado, sin cargar
+     * los registros.
+     */
+    public boolean existePorIdSocio(int idSocio) throws DAOException {
         String sql = """
-                SELECT
-                  h.id_historial, h.fecha, h.tipo_operacion, h.detalles, h.id_usuario, h.id_libro, h.id_prestamo,
-                  s.id_socio, s.id_usuario AS s_id_usuario, s.numero_socio, s.fecha_vencimiento_carnet AS s_fecha_vencimiento_carnet,
-                  s.estado AS s_estado, s.tiene_sanciones, s.tiene_atrasos, s.categoria AS s_categoria,
-                  u_s.nombre AS s_nombre, u_s.apellido AS s_apellido, u_s.dni AS s_dni, u_s.email AS s_email, u_s.telefono AS s_telefono,
-                  u_s.fecha_registro AS s_fecha_registro, u_s.username AS s_username, u_s.password AS s_password, u_s.tipo_usuario AS s_tipo,
-                  p.id_prestamo AS p_id_prestamo, p.fecha_prestamo, p.fecha_vencimiento, p.estado AS p_estado, p.dias_prestamo,
-                  e.id_ejemplar, e.codigo_ejemplar, e.estado AS e_estado, e.ubicacion,
-                  l.id_libro AS l_id_libro, l.titulo, l.isbn, l.categoria AS l_categoria, l.anio_publicacion,
-                  l.id_autor, a.nombre_completo AS nombre_autor, a.nacionalidad, a.fecha_nacimiento,
-                  l.id_editorial, ed.nombre AS nombre_editorial, ed.pais,
-                  b.id_bibliotecario, b.legajo, b.turno,
-                  u_b.id_usuario AS b_id_usuario, u_b.nombre AS b_nombre, u_b.apellido AS b_apellido, 
-                  u_b.dni AS b_dni, u_b.username AS b_username, u_b.password AS b_password, 
-                  u_b.email AS b_email, u_b.telefono AS b_telefono, u_b.fecha_registro AS b_fecha_registro
-                FROM Historial h
-                INNER JOIN Usuario u_s ON h.id_usuario = u_s.id_usuario
-                INNER JOIN Socio s ON u_s.id_usuario = s.id_usuario
-                LEFT JOIN Prestamo p ON h.id_prestamo = p.id_prestamo
-                LEFT JOIN Ejemplar e ON p.id_ejemplar = e.id_ejemplar
-                LEFT JOIN Libro l ON (h.id_libro = l.id_libro OR (e.id_libro = l.id_libro))
-                LEFT JOIN Autor a ON l.id_autor = a.id_autor
-                LEFT JOIN Editorial ed ON l.id_editorial = ed.id_editorial
-                LEFT JOIN Bibliotecario b ON p.id_bibliotecario = b.id_bibliotecario
-                LEFT JOIN Usuario u_b ON b.id_usuario = u_b.id_usuario
+                SELECT 1
+                FROM Socio s
                 WHERE s.id_socio = ?
-                ORDER BY h.fecha DESC
+                  AND (EXISTS (SELECT 1 FROM Historial h WHERE h.id_usuario = s.id_usuario)
+                       OR EXISTS (SELECT 1 FROM HistorialArchivo h WHERE h.id_usuario = s.id_usuario))
                 """;
-        List<Historial> lista = new ArrayList<>();
-        try (Connection conn = ConexionBD.getConexion();
+        return existe(sql, idSocio, "Error al verificar historial por id_socio");
+    }
+
+    /**
+     * Indica si el libro tiene al menos un registro en el historial, activo o archivado, sin cargar los registros.
+     * Usa el mismo criterio que listarPorLibroId (h.id_libro).
+     */
+    public boolean existePorLibroId(int idLibro) throws DAOException {
+        String sql = """
+                SELECT 1
+                FROM Libro l
+                WHERE l.id_libro = ?
+                  AND (EXISTS (SELECT 1 FROM Historial h WHERE h.id_libro = l.id_libro)
+                       OR EXISTS (SELECT 1 FROM HistorialArchivo h WHERE h.id_libro = l.id_libro))
+                """;
+        return existe(sql, idLibro, "Error al verificar historial por libro");
+    }
+
+    private boolean existe(String sql, int id, String mensajeError) throws DAOException {
+        try (Connection conn = ConexionBD.getConexionLectura();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
-            ps.setInt(1, idSocio);
+            ps.setInt(1, id);
             try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) lista.add(mapearHistorial(rs));
+                return rs.next();
             }
-            return lista;
 
         } catch (SQLException e) {
-            throw new DAOException("Error al listar historial por id_socio", e);
+            throw new DAOException(mensajeError, e);
         }
     }
 
-    // --- helper corregido (hace JOINs completos) ---
-    private Historial mapearHistorial(ResultSet rs) throws SQLException {
-        int idHistorial = rs.getInt("id_historial");
-
-        // fecha es DATETIME en la BD
-        Timestamp timestamp = rs.getTimestamp("fecha");
-        LocalDateTime fecha = timestamp != null
-                ? timestamp.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime()
-                : LocalDateTime.now();
+    /**
+     * Resumen de todo el historial, activo y archivado, del más reciente al más antiguo: sólo el nombre del socio,
+     * el título del libro y el estado y fechas del préstamo, sin autor, editorial ni bibliotecario.
+     */
+    public List<HistorialResumen> listarResumen() throws DAOException {
+        try {
+            return leerActivoYArchivo(null, Integer.MAX_VALUE, (conn, tabla) -> {
+                try (PreparedStatement ps = conn.prepareStatement(selectResumen(tabla) + "ORDER BY h.fecha DESC");
+                     ResultSet rs = ps.executeQuery()) {
+                    return MAPEADOR_RESUMEN.listar(rs);
+                }
+            });
+        } catch (SQLException e) {
+            throw new DAOException("Error al listar resumen del historial", e);
+        }
+    }
 
-        String tipoOperacion = rs.getString("tipo_operacion");
-        String detalles = rs.getString("detalles");
+    /**
+     * Historial entre desde (inclusive) y hasta (exclusive), del más reciente al más antiguo.
+     * Sólo consulta HistorialArchivo si el rango llega a fechas archivadas.
+     */
+    public List<Historial> listarPorRango(LocalDateTime desde, LocalDateTime hasta) throws DAOException {
+        validarRango(desde, hasta);
+        try {
+            return leerActivoYArchivo(desde, Integer.MAX_VALUE, (conn, tabla) -> {
+                String sql = selectListado(tabla)
+                        + "WHERE h.fecha >= ? AND h.fecha < ? ORDER BY h.fecha DESC, h.id_historial DESC";
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    ps.setTimestamp(1, Timestamp.valueOf(desde));
+                    ps.setTimestamp(2, Timestamp.valueOf(hasta));
+                    try (ResultSet rs = ps.executeQuery()) {
+                        return MAPEADOR.listar(rs);
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            throw new DAOException("Error al listar historial por rango de fechas", e);
+        }
+    }
 
-        // Reconstruir Socio completo
-        Socio socio = mapearSocio(rs);
+    /**
+     * Resumen del historial entre desde (inclusive) y hasta (exclusive), del más reciente al más antiguo.
+     * Sólo consulta HistorialArchivo si el rango llega a fechas archivadas.
+     */
+    public List<HistorialResumen> listarResumenPorRango(LocalDateTime desde, LocalDateTime hasta) throws DAOException {
+        validarRango(desde, hasta);
+        try {
+            return leerActivoYArchivo(desde, Integer.MAX_VALUE, (conn, tabla) -> {
+                String sql = selectResumen(tabla)
+                        + "WHERE h.fecha >= ? AND h.fecha < ? ORDER BY h.fecha DESC, h.id_historial DESC";
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    ps.setTimestamp(1, Timestamp.valueOf(desde));
+                    ps.setTimestamp(2, Timestamp.valueOf(hasta));
+                    try (ResultSet rs = ps.executeQuery()) {
+                        return MAPEADOR_RESUMEN.listar(rs);
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            throw new DAOException("Error al listar resumen del historial por rango de fechas", e);
+        }
+    }
 
-        // Reconstruir Prestamo si existe
-        Prestamo prestamo = null;
-        Integer idPrestamo = rs.getInt("id_prestamo");
-        if (!rs.wasNull() && idPrestamo != null) {
-            prestamo = mapearPrestamo(rs);
+    /**
+     * Recorre todo el historial, activo y luego archivado, del más reciente al más antiguo, sin cargarlo junto
+     * en memoria; el Stream debe cerrarse para liberar la conexión. Las dos consultas usan la misma conexión:
+     * la del archivo se ejecuta recién cuando se agota el historial activo, después de cerrar su cursor.
+     */
+    public Stream<Historial> recorrerTodos() throws DAOException {
+        String orden = "ORDER BY h.fecha DESC, h.id_historial DESC";
+        try {
+            return CursorFilas.abrirEnSerie(ConexionBD.getConexionLectura(),
+                    List.of(SELECT_LISTADO + orden, selectListado(TABLA_ARCHIVO) + orden), MAPEADOR);
+        } catch (SQLException e) {
+            throw new DAOException("Error al recorrer historial", e);
         }
+    }
 
-        return new Historial(idHistorial, socio, prestamo, fecha, tipoOperacion, detalles);
-    }
-
-    private Socio mapearSocio(ResultSet rs) throws SQLException {
-        int idSocio = rs.getInt("id_socio");
-        int idUsuario = rs.getInt("s_id_usuario");
-        String nombre = rs.getString("s_nombre");
-        String apellido = rs.getString("s_apellido");
-        String dni = rs.getString("s_dni");
-        String email = rs.getString("s_email");
-        String telefono = rs.getString("s_telefono");
-        LocalDate fechaRegistro = rs.getDate("s_fecha_registro").toLocalDate();
-        String username = rs.getString("s_username");
-        String password = rs.getString("s_password");
-        TipoUsuario tipo = TipoUsuario.valueOf(rs.getString("s_tipo").toUpperCase());
-
-        String numeroSocio = rs.getString("numero_socio");
-        LocalDate vencCarnet = rs.getDate("s_fecha_vencimiento_carnet") != null
-                ? rs.getDate("s_fecha_vencimiento_carnet").toLocalDate() : null;
-        String estado = rs.getString("s_estado");
-        boolean sanciones = rs.getBoolean("tiene_sanciones");
-        boolean atrasos = rs.getBoolean("tiene_atrasos");
-        String categoria = rs.getString("s_categoria");
-        if (categoria == null || categoria.isBlank()) {
-            categoria = "Estándar";
+    /**
+     * Página del historial del más reciente al más antiguo; el id desempata registros con la misma fecha.
+     * Las páginas que se completan con el historial activo no consultan el archivo.
+     * @param token   token devuelto por la página anterior, o null para la primera
+     * @param tamanio cantidad máxima de elementos (se recorta a Pagina.TAMANIO_MAXIMO)
+     */
+    public Pagina<Historial> listarPagina(String token, int tamanio) throws DAOException {
+        int limite = Pagina.validarTamanio(tamanio);
+        CursorPagina cursor = CursorPagina.leerConFecha("Historial", token);
+
+        try {
+            List<Historial> filas = leerActivoYArchivo(null, limite + 1, (conn, tabla) -> {
+                String sql = selectListado(tabla)
+                        + (cursor != null ? "WHERE (h.fecha < ? OR (h.fecha = ? AND h.id_historial < ?)) " : "")
+                        + "ORDER BY h.fecha DESC, h.id_historial DESC LIMIT ?";
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    int indice = 1;
+                    if (cursor != null) {
+                        Timestamp fecha = Timestamp.valueOf(cursor.getFecha());
+                        ps.setTimestamp(indice++, fecha);
+                        ps.setTimestamp(indice++, fecha);
+                        ps.setInt(indice++, cursor.getId());
+                    }
+                    ps.setInt(indice, limite + 1);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        return MAPEADOR.listar(rs);
+                    }
+                }
+            });
+            return Pagina.de(filas, limite, h -> CursorPagina.token("Historial", h.getFecha(), h.getId()));
+
+        } catch (SQLException e) {
+            throw new DAOException("Error al listar página del historial", e);
         }
+    }
 
-        Socio socio = new Socio(idUsuario, nombre, apellido, dni, email, telefono, fechaRegistro, tipo,
-                username, password, numeroSocio, vencCarnet, estado, sanciones, atrasos, categoria);
-        socio.setIdSocio(idSocio);
-        return socio;
+    /**
+     * Mueve a HistorialArchivo los registros con fecha anterior al límite, en tandas de lote.tamanio,
+     * cada una en su propia transacción (copia y borrado juntos). Devuelve cuántos registros se movieron.
+     */
+    public int archivarAnterioresA(LocalDateTime limite) throws DAOException {
+        if (limite == null) throw new IllegalArgumentException("La fecha límite no puede ser nula.");
+        int tamanio = ConfigBD.actual().getTamanioLote();
+        int movidos = 0;
+        int tanda;
+
+        do {
+            tanda = UnidadDeTrabajo.ejecutar(() -> {
+                try (Connection conn = ConexionBD.getConexion()) {
+                    List<Integer> ids = idsAnterioresA(conn,
+                            "SELECT id_historial FROM Historial WHERE fecha < ? ORDER BY fecha, id_historial LIMIT ? FOR UPDATE",
+                            limite, tamanio);
+                    if (ids.isEmpty()) return 0;
+
+                    String marcadores = String.join(", ", Collections.nCopies(ids.size(), "?"));
+                    String copiar = "INSERT INTO " + TABLA_ARCHIVO + " (" + COLUMNAS + ") SELECT " + COLUMNAS
+                            + " FROM " + TABLA_ACTIVA + " WHERE id_historial IN (" + marcadores + ")";
+                    try (PreparedStatement ps = conn.prepareStatement(copiar)) {
+                        asignarIds(ps, ids);
+                        ps.executeUpdate();
+                    }
+                    try (PreparedStatement ps = conn.prepareStatement(
+                            "DELETE FROM " + TABLA_ACTIVA + " WHERE id_historial IN (" + marcadores + ")")) {
+                        asignarIds(ps, ids);
+                        ps.executeUpdate();
+                    }
+                    return ids.size();
+
+                } catch (SQLException e) {
+                    throw new DAOException("Error al archivar historial", e);
+                }
+            });
+            movidos += tanda;
+        } while (tanda == tamanio);
+
+        return movidos;
     }
 
-    private Prestamo mapearPrestamo(ResultSet rs) throws SQLException {
-        Integer idPrestamo = rs.getInt("p_id_prestamo");
-        if (rs.wasNull() || idPrestamo == null) {
-            return null;
-        }
+    /**
+     * Borra de HistorialArchivo los registros con fecha anterior al límite, en tandas de lote.tamanio.
+     * Devuelve cuántos registros se borraron.
+     */
+    public int purgarArchivoAnteriorA(LocalDateTime limite) throws DAOException {
+        if (limite == null) throw new IllegalArgumentException("La fecha límite no puede ser nula.");
+        int tamanio = ConfigBD.actual().getTamanioLote();
+        int borrados = 0;
+
+        try (Connection conn = ConexionBD.getConexion()) {
+            List<Integer> ids;
+            do {
+                ids = idsAnterioresA(conn,
+                        "SELECT id_historial FROM HistorialArchivo WHERE fecha < ? ORDER BY fecha, id_historial LIMIT ?",
+                        limite, tamanio);
+                if (ids.isEmpty()) break;
+
+                String marcadores = String.join(", ", Collections.nCopies(ids.size(), "?"));
+                try (PreparedStatement ps = conn.prepareStatement(
+                        "DELETE FROM " + TABLA_ARCHIVO + " WHERE id_historial IN (" + marcadores + ")")) {
+                    asignarIds(ps, ids);
+                    borrados += ps.executeUpdate();
+                }
+            } while (ids.size() == tamanio);
 
-        Timestamp timestamp = rs.getTimestamp("fecha_prestamo");
-        LocalDate fechaPrestamo = timestamp != null
-                ? timestamp.toInstant().atZone(ZoneId.systemDefault()).toLocalDate()
-                : LocalDate.now();
+        } catch (SQLException e) {
+            throw new DAOException("Error al purgar historial archivado", e);
+        }
+        return borrados;
+    }
 
-        LocalDate fechaVencimiento = rs.getDate("fecha_vencimiento").toLocalDate();
-        String estado = rs.getString("p_estado");
-        int diasPrestamo = rs.getInt("dias_prestamo");
+    // -------------------------
+    // MÉTODOS AUXILIARES
+    // -------------------------
 
-        Socio socio = mapearSocio(rs);
-        Ejemplar ejemplar = mapearEjemplar(rs);
-        Bibliotecario bibliotecario = mapearBibliotecario(rs);
+    // Registros activos y archivados que cumplen el filtro (un solo parámetro), del más reciente al más antiguo
+    private List<Historial> listarPor(String filtro, Object valor, String mensajeError) throws DAOException {
+        try {
+            return leerActivoYArchivo(null, Integer.MAX_VALUE,
+                    (conn, tabla) -> leerFiltrado(conn, tabla, filtro + " ORDER BY h.fecha DESC", valor));
+        } catch (SQLException e) {
+            throw new DAOException(mensajeError, e);
+        }
+    }
 
-        Prestamo prestamo = new Prestamo(idPrestamo, fechaPrestamo, fechaVencimiento, estado, diasPrestamo, socio, ejemplar, null);
-        prestamo.setBibliotecario(bibliotecario);
-        return prestamo;
+    // selectListado de la tabla seguido del filtro (WHERE, orden y límite) con su único parámetro
+    private static List<Historial> leerFiltrado(Connection conn, String tabla, String filtro, Object valor) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(selectListado(tabla) + filtro)) {
+            ps.setObject(1, valor);
+            try (ResultSet rs = ps.executeQuery()) {
+                return MAPEADOR.listar(rs);
+            }
+        }
     }
 
-    private Ejemplar mapearEjemplar(ResultSet rs) throws SQLException {
-        Integer idEj = rs.getInt("id_ejemplar");
-        if (rs.wasNull() || idEj == null) {
-            return null;
+    /**
+     * Lee primero de Historial y, si hace falta, de HistorialArchivo, y concatena los resultados. Lo archivado es
+     * anterior a todo lo activo, así que con cada consulta ordenada por fecha descendente la concatenación queda
+     * ordenada. El archivo se consulta sólo si con lo activo no se juntaron las filas suficientes y si tiene
+     * registros desde la fecha pedida (null = sin límite).
+     */
+    private <T> List<T> leerActivoYArchivo(LocalDateTime desde, int suficientes, ConsultaTabla<T> consulta) throws SQLException {
+        try (Connection conn = ConexionBD.getConexionLectura()) {
+            List<T> lista = new ArrayList<>(consulta.leer(conn, TABLA_ACTIVA));
+            if (lista.size() < suficientes && hayArchivadoDesde(conn, desde)) {
+                lista.addAll(consulta.leer(conn, TABLA_ARCHIVO));
+            }
+            return lista;
         }
+    }
 
-        String cod = rs.getString("codigo_ejemplar");
-        String estado = rs.getString("e_estado");
-        String ubicacion = rs.getString("ubicacion");
-        Libro libro = mapearLibro(rs);
-        return new Ejemplar(idEj, cod, estado, ubicacion, libro);
+    // El índice (fecha, id_historial) de HistorialArchivo resuelve el MAX sin recorrer la tabla
+    private boolean hayArchivadoDesde(Connection conn, LocalDateTime desde) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT MAX(fecha) FROM " + TABLA_ARCHIVO);
+             ResultSet rs = ps.executeQuery()) {
+            Timestamp ultima = rs.next() ? rs.getTimestamp(1) : null;
+            return ultima != null && (desde == null || !ultima.toLocalDateTime().isBefore(desde));
+        }
     }
 
-    private Libro mapearLibro(ResultSet rs) throws SQLException {
-        Integer idLibro = rs.getInt("l_id_libro");
-        if (rs.wasNull() || idLibro == null) {
-            return null;
+    private List<Integer> idsAnterioresA(Connection conn, String sql, LocalDateTime limite, int tamanio) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setTimestamp(1, Timestamp.valueOf(limite));
+            ps.setInt(2, tamanio);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
         }
+        return ids;
+    }
 
-        Libro libro = new Libro(
-                idLibro,
-                rs.getString("titulo"),
-                rs.getString("nombre_autor"),
-                rs.getString("isbn"),
-                rs.getString("l_categoria"),
-                rs.getString("nombre_editorial"),
-                rs.getInt("anio_publicacion")
-        );
-        libro.setIdAutor(rs.getInt("id_autor"));
-        libro.setIdEditorial(rs.getInt("id_editorial"));
-        return libro;
-    }
-
-    private Bibliotecario mapearBibliotecario(ResultSet rs) throws SQLException {
-        int idBibliotecario = rs.getInt("id_bibliotecario");
-        if (rs.wasNull()) {
-            return null;
+    private static void asignarIds(PreparedStatement ps, List<Integer> ids) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            ps.setInt(i + 1, ids.get(i));
         }
+    }
+
+    private static void validarRango(LocalDateTime desde, LocalDateTime hasta) {
+        if (desde == null || hasta == null) throw new IllegalArgumentException("El rango de fechas no puede ser nulo.");
+        if (!desde.isBefore(hasta)) throw new IllegalArgumentException("La fecha desde debe ser anterior a hasta.");
+    }
+
+    // Consulta de listarResumen sobre la tabla indicada
+    private static String selectResumen(String tabla) {
+        return """
+                SELECT
+                  h.id_historial, h.fecha, h.tipo_operacion,
+                  u_s.nombre AS s_nombre, u_s.apellido AS s_apellido,
+                  p.id_prestamo AS p_id_prestamo, p.fecha_prestamo, p.fecha_vencimiento, p.estado AS p_estado,
+                  l.titulo
+                FROM %s h
+                LEFT JOIN Usuario u_s ON h.id_usuario = u_s.id_usuario
+                LEFT JOIN Socio s ON u_s.id_usuario = s.id_usuario
+                LEFT JOIN Prestamo p ON h.id_prestamo = p.id_prestamo
+                LEFT JOIN Libro l ON l.id_libro = h.id_libro
+                """.formatted(tabla);
+    }
+
+    // SELECT_LISTADO sobre la tabla indicada; los JOINs son los mismos para el historial activo y el archivado
+    private static String selectListado(String tabla) {
+        return """
+            SELECT
+              h.id_historial, h.fecha, h.tipo_operacion, h.detalles, h.id_usuario, h.id_libro, h.id_prestamo,
+              s.id_socio, s.id_usuario AS s_id_usuario, s.numero_socio, s.fecha_vencimiento_carnet AS s_fecha_vencimiento_carnet,
+              s.estado AS s_estado, s.tiene_sanciones, s.tiene_atrasos, s.categoria AS s_categoria,
+              u_s.nombre AS s_nombre, u_s.apellido AS s_apellido, u_s.dni AS s_dni, u_s.email AS s_email, u_s.telefono AS s_telefono,
+              u_s.fecha_registro AS s_fecha_registro, u_s.username AS s_username, u_s.password AS s_password, u_s.tipo_usuario AS s_tipo,
+              p.id_prestamo AS p_id_prestamo, p.fecha_prestamo, p.fecha_vencimiento, p.estado AS p_estado, p.dias_prestamo,
+              e.id_ejemplar, e.codigo_ejemplar, e.estado AS e_estado, e.ubicacion,
+              l.id_libro AS l_id_libro, l.titulo, l.isbn, l.categoria AS l_categoria, l.anio_publicacion,
+              l.id_autor, a.nombre_completo AS nombre_autor, a.nacionalidad, a.fecha_nacimiento,
+              l.id_editorial, ed.nombre AS nombre_editorial, ed.pais,
+              b.id_bibliotecario, b.legajo, b.turno,
+              u_b.id_usuario AS b_id_usuario, u_b.nombre AS b_nombre, u_b.apellido AS b_apellido,
+              u_b.dni AS b_dni, u_b.username AS b_username, u_b.password AS b_password,
+              u_b.email AS b_email, u_b.telefono AS b_telefono, u_b.fecha_registro AS b_fecha_registro
+            FROM %s h
+            LEFT JOIN Usuario u_s ON h.id_usuario = u_s.id_usuario
+            LEFT JOIN Socio s ON u_s.id_usuario = s.id_usuario
+            LEFT JOIN Prestamo p ON h.id_prestamo = p.id_prestamo
+            LEFT JOIN Ejemplar e ON p.id_ejemplar = e.id_ejemplar
+            LEFT JOIN Libro l ON l.id_libro = h.id_libro
+            LEFT JOIN Autor a ON l.id_autor = a.id_autor
+            LEFT JOIN Editorial ed ON l.id_editorial = ed.id_editorial
+            LEFT JOIN Bibliotecario b ON p.id_bibliotecario = b.id_bibliotecario
+            LEFT JOIN Usuario u_b ON b.id_usuario = u_b.id_usuario
+            """.formatted(tabla);
+    }
 
-        int idUsuario = rs.getInt("b_id_usuario");
-        String nombre = rs.getString("b_nombre");
-        String apellido = rs.getString("b_apellido");
-        String dni = rs.getString("b_dni");
-        String email = rs.getString("b_email");
-        String telefono = rs.getString("b_telefono");
-        LocalDate fechaRegistro = rs.getDate("b_fecha_registro").toLocalDate();
-        String username = rs.getString("b_username");
-        String password = rs.getString("b_password");
-        String legajo = rs.getString("legajo");
-        String turno = rs.getString("turno");
-
-        Bibliotecario bibliotecario = new Bibliotecario(
-                idUsuario, nombre, apellido, dni, email, telefono, fechaRegistro,
-                TipoUsuario.BIBLIOTECARIO, username, password, legajo, turno
-        );
-        bibliotecario.setIdBibliotecario(idBibliotecario);
-        return bibliotecario;
+    // --- mapeo con JOINs completos: el préstamo (y su libro) puede faltar por los LEFT JOIN ---
+    // El socio también: HistorialArchivo no tiene claves foráneas y conserva los registros de socios dados de baja
+    private static MapeadorFilas<Historial> mapeadorHistorial() {
+        MapeadorFilas<Prestamo> mapeadorPrestamo = Mapeadores.prestamo("p_id_prestamo", "p_estado", true,
+                Mapeadores.socio(true),
+                Mapeadores.ejemplar(Mapeadores.libro("l_id_libro", true), true),
+                Mapeadores.bibliotecario());
+        return c -> {
+            int id = c.indice("id_historial");
+            int fecha = c.indice("fecha");
+            int tipoOperacion = c.indice("tipo_operacion");
+            int detalles = c.indice("detalles");
+            LectorFila<Socio> socio = Mapeadores.socio(true).enlazar(c);
+            LectorFila<Prestamo> prestamo = mapeadorPrestamo.enlazar(c);
+
+            return rs -> {
+                // fecha es DATETIME en la BD
+                LocalDateTime fechaHora = Mapeadores.fechaHora(rs.getTimestamp(fecha));
+                return new Historial(rs.getInt(id), socio.leer(rs), prestamo.leer(rs),
+                        fechaHora != null ? fechaHora : LocalDateTime.now(),
+                        rs.getString(tipoOperacion), rs.getString(detalles));
+            };
+        };
     }
 }
@@ -2,6 +2,7 @@ package biblioteca.data.dao;
 
 import biblioteca.entities.inventario.Libro;
 import biblioteca.entities.inventario.Ejemplar;
+import biblioteca.entities.inventario.EstadoEjemplar;
 import biblioteca.data.db.ConexionBD;
 
 import java.sql.*;
@@ -15,6 +16,7 @@ public class LibroDAO implements biblioteca.data.interfaces.DAO<Libro> {
 
     private final AutorDAO autorDAO = new AutorDAO();
     private final EditorialDAO editorialDAO = new EditorialDAO();
+    private final DisponibilidadLibroDAO disponibilidadDAO = new DisponibilidadLibroDAO();
 
     @Override
     public void insertar(Libro libro) throws DAOException {
@@ -67,6 +69,8 @@ public class LibroDAO implements biblioteca.data.interfaces.DAO<Libro> {
                     }
                 }
 
+                disponibilidadDAO.crear(conn, libro.getId());
+
                 conn.commit();
 
             } catch (SQLException | DAOException e) {
@@ -118,6 +122,24 @@ public class LibroDAO implements biblioteca.data.interfaces.DAO<Libro> {
         }
     }
 
+    @Override
+    public Map<Integer, Libro> buscarPorIds(Collection<Integer> ids) throws DAOException {
+        String sql = """
+            SELECT 
+                l.id_libro, l.titulo, l.isbn, l.categoria, l.anio_publicacion,
+                l.id_autor, a.nombre_completo AS nombre_autor, a.nacionalidad, a.fecha_nacimiento,
+                l.id_editorial, e.nombre AS nombre_editorial, e.pais,
+                ej.id_ejemplar, ej.codigo_ejemplar, ej.estado, ej.ubicacion
+            FROM Libro l
+            INNER JOIN Autor a ON l.id_autor = a.id_autor
+            INNER JOIN Editorial e ON l.id_editorial = e.id_editorial
+            LEFT JOIN Ejemplar ej ON l.id_libro = ej.id_libro
+            WHERE l.id_libro IN (%s)
+        """;
+        return BusquedaPorIds.buscar(ids, sql, this::agruparLibros, Libro::getId,
+                "Error al buscar libros por ID");
+    }
+
     @Override
     public List<Libro> listarTodos() throws DAOException {
         String sql = """
@@ -137,27 +159,51 @@ public class LibroDAO implements biblioteca.data.interfaces.DAO<Libro> {
              PreparedStatement ps = conn.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
 
-            Map<Integer, Libro> map = new LinkedHashMap<>();
+            return agruparLibros(rs);
 
-            while (rs.next()) {
-                int id = rs.getInt("id_libro");
-                Libro libro = map.get(id);
+        } catch (SQLException e) {
+            throw new DAOException("Error al listar todos los libros", e);
+        }
+    }
 
-                if (libro == null) {
-                    libro = mapearLibro(rs);
-                    map.put(id, libro);
-                }
+    /**
+     * Página de libros ordenada por id, cada uno con todos sus ejemplares.
+     * El LIMIT se aplica sobre los ids de Libro en una tabla derivada: aplicado al JOIN con Ejemplar
+     * cortaría los ejemplares de un libro entre dos páginas.
+     * @param token   token devuelto por la página anterior, o null para la primera
+     * @param tamanio cantidad máxima de libros (se recorta a Pagina.TAMANIO_MAXIMO)
+     */
+    public Pagina<Libro> listarPagina(String token, int tamanio) throws DAOException {
+        int limite = Pagina.validarTamanio(tamanio);
+        CursorPagina cursor = CursorPagina.leer("Libro", token);
+        String sql = """
+            SELECT
+                l.id_libro, l.titulo, l.isbn, l.categoria, l.anio_publicacion,
+                l.id_autor, a.nombre_completo AS nombre_autor, a.nacionalidad, a.fecha_nacimiento,
+                l.id_editorial, e.nombre AS nombre_editorial, e.pais,
+                ej.id_ejemplar, ej.codigo_ejemplar, ej.estado, ej.ubicacion
+            FROM (SELECT id_libro FROM Libro %s ORDER BY id_libro LIMIT ?) pag
+            INNER JOIN Libro l ON l.id_libro = pag.id_libro
+            INNER JOIN Autor a ON l.id_autor = a.id_autor
+            INNER JOIN Editorial e ON l.id_editorial = e.id_editorial
+            LEFT JOIN Ejemplar ej ON l.id_libro = ej.id_libro
+            ORDER BY l.id_libro
+        """.formatted(cursor != null ? "WHERE id_libro > ?" : "");
 
-                Ejemplar ej = mapearEjemplar(rs);
-                if (ej != null) {
-                    libro.agregarEjemplar(ej);
-                }
-            }
+        try (Connection conn = ConexionBD.getConexion();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
 
-            return new ArrayList<>(map.values());
+            int indice = 1;
+            if (cursor != null) {
+                ps.setInt(indice++, cursor.getId());
+            }
+            ps.setInt(indice, limite + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                return Pagina.de(agruparLibros(rs), limite, l -> CursorPagina.token("Libro", l.getId()));
+            }
 
         } catch (SQLException e) {
-            throw new DAOException("Error al listar todos los libros", e);
+            throw new DAOException("Error al listar página de libros", e);
         }
     }
 
@@ -318,6 +364,30 @@ public class LibroDAO implements biblioteca.data.interfaces.DAO<Libro> {
     // MÉTODOS AUXILIARES
     // -------------------------
 
+    /**
+     * Agrupa las filas del JOIN Libro-Ejemplar (ordenadas por libro) en un Libro por id con sus ejemplares.
+     */
+    private List<Libro> agruparLibros(ResultSet rs) throws SQLException {
+        Map<Integer, Libro> map = new LinkedHashMap<>();
+
+        while (rs.next()) {
+            int id = rs.getInt("id_libro");
+            Libro libro = map.get(id);
+
+            if (libro == null) {
+                libro = mapearLibro(rs);
+                map.put(id, libro);
+            }
+
+            Ejemplar ej = mapearEjemplar(rs);
+            if (ej != null) {
+                libro.agregarEjemplar(ej);
+            }
+        }
+
+        return new ArrayList<>(map.values());
+    }
+
     /**
      * Mapea un registro SQL a un objeto Libro.
      * Incluye datos de Autor y Editorial mediante JOINs.
@@ -364,7 +434,7 @@ public class LibroDAO implements biblioteca.data.interfaces.DAO<Libro> {
         return new Ejemplar(
                 idEj,
                 rs.getString("codigo_ejemplar"),
-                rs.getString("estado"),
+                EstadoEjemplar.desdeCodigo(rs.getInt("estado")),
                 rs.getString("ubicacion"),
                 libro
         );
@@ -2,19 +2,18 @@ package biblioteca.data.dao;
 
 import biblioteca.data.db.ConexionBD;
 import biblioteca.data.interfaces.DAO;
+import biblioteca.data.mapeo.LectorFila;
+import biblioteca.data.mapeo.MapeadorFilas;
+import biblioteca.data.mapeo.Mapeadores;
 import biblioteca.entities.notificaciones.Notificacion;
 import biblioteca.entities.prestamos.Prestamo;
-import biblioteca.entities.inventario.Ejemplar;
-import biblioteca.entities.inventario.Libro;
-import biblioteca.entities.usuarios.Socio;
-import biblioteca.entities.usuarios.Bibliotecario;
-import biblioteca.entities.usuarios.TipoUsuario;
 
 import java.sql.*;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * DAO para gestionar la persistencia de notificaciones en la base de datos.
@@ -22,6 +21,37 @@ import java.util.List;
  */
 public class NotificacionesDAO implements DAO<Notificacion> {
 
+    private static final MapeadorFilas<Notificacion> MAPEADOR = mapeadorNotificacion();
+
+    // Consulta completa de listarTodos, listarPagina y buscarPorIds; cada uno agrega su filtro y orden
+    private static final String SELECT_LISTADO = """
+            SELECT
+              n.id_notificacion, n.fecha_envio, n.tipo, n.mensaje, n.leida, n.id_prestamo,
+              p.id_prestamo AS p_id_prestamo, p.fecha_prestamo, p.fecha_vencimiento, p.estado AS p_estado, p.dias_prestamo,
+              s.id_socio, s.id_usuario AS s_id_usuario, s.numero_socio, s.fecha_vencimiento_carnet AS s_fecha_vencimiento_carnet,
+              s.estado AS s_estado, s.tiene_sanciones, s.tiene_atrasos, s.categoria AS s_categoria,
+              u_s.nombre AS s_nombre, u_s.apellido AS s_apellido, u_s.dni AS s_dni, u_s.email AS s_email, u_s.telefono AS s_telefono,
+              u_s.fecha_registro AS s_fecha_registro, u_s.username AS s_username, u_s.password AS s_password, u_s.tipo_usuario AS s_tipo,
+              e.id_ejemplar, e.codigo_ejemplar, e.estado AS e_estado, e.ubicacion,
+              l.id_libro, l.titulo, l.isbn, l.categoria AS l_categoria, l.anio_publicacion,
+              l.id_autor, a.nombre_completo AS nombre_autor, a.nacionalidad, a.fecha_nacimiento,
+              l.id_editorial, ed.nombre AS nombre_editorial, ed.pais,
+              b.id_bibliotecario, b.legajo, b.turno,
+              u_b.id_usuario AS b_id_usuario, u_b.nombre AS b_nombre, u_b.apellido AS b_apellido,
+              u_b.dni AS b_dni, u_b.username AS b_username, u_b.password AS b_password,
+              u_b.email AS b_email, u_b.telefono AS b_telefono, u_b.fecha_registro AS b_fecha_registro
+            FROM Notificacion n
+            INNER JOIN Prestamo p ON n.id_prestamo = p.id_prestamo
+            INNER JOIN Socio s ON p.id_socio = s.id_socio
+            INNER JOIN Usuario u_s ON s.id_usuario = u_s.id_usuario
+            INNER JOIN Ejemplar e ON p.id_ejemplar = e.id_ejemplar
+            INNER JOIN Libro l ON e.id_libro = l.id_libro
+            INNER JOIN Autor a ON l.id_autor = a.id_autor
+            INNER JOIN Editorial ed ON l.id_editorial = ed.id_editorial
+            LEFT JOIN Bibliotecario b ON p.id_bibliotecario = b.id_bibliotecario
+            LEFT JOIN Usuario u_b ON b.id_usuario = u_b.id_usuario
+            """;
+
     @Override
     public void insertar(Notificacion notificacion) throws DAOException {
         String sql = """
@@ -95,11 +125,7 @@ public class NotificacionesDAO implements DAO<Notificacion> {
 
             ps.setInt(1, id);
             try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return mapearNotificacion(rs);
-                } else {
-                    return null;
-                }
+                return MAPEADOR.primero(rs);
             }
 
         } catch (SQLException e) {
@@ -107,45 +133,23 @@ public class NotificacionesDAO implements DAO<Notificacion> {
         }
     }
 
+    @Override
+    public Map<Integer, Notificacion> buscarPorIds(Collection<Integer> ids) throws DAOException {
+        String sql = SELECT_LISTADO + "WHERE n.id_notificacion IN (%s)";
+        return BusquedaPorIds.buscar(ids, sql, MAPEADOR::listar, Notificacion::getIdNotificacion,
+                "Error al buscar notificaciones por ID");
+    }
+
     @Override
     public List<Notificacion> listarTodos() throws DAOException {
-        String sql = """
-                SELECT
-                  n.id_notificacion, n.fecha_envio, n.tipo, n.mensaje, n.leida, n.id_prestamo,
-                  p.id_prestamo AS p_id_prestamo, p.fecha_prestamo, p.fecha_vencimiento, p.estado AS p_estado, p.dias_prestamo,
-                  s.id_socio, s.id_usuario AS s_id_usuario, s.numero_socio, s.fecha_vencimiento_carnet AS s_fecha_vencimiento_carnet,
-                  s.estado AS s_estado, s.tiene_sanciones, s.tiene_atrasos, s.categoria AS s_categoria,
-                  u_s.nombre AS s_nombre, u_s.apellido AS s_apellido, u_s.dni AS s_dni, u_s.email AS s_email, u_s.telefono AS s_telefono,
-                  u_s.fecha_registro AS s_fecha_registro, u_s.username AS s_username, u_s.password AS s_password, u_s.tipo_usuario AS s_tipo,
-                  e.id_ejemplar, e.codigo_ejemplar, e.estado AS e_estado, e.ubicacion,
-                  l.id_libro, l.titulo, l.isbn, l.categoria AS l_categoria, l.anio_publicacion,
-                  l.id_autor, a.nombre_completo AS nombre_autor, a.nacionalidad, a.fecha_nacimiento,
-                  l.id_editorial, ed.nombre AS nombre_editorial, ed.pais,
-                  b.id_bibliotecario, b.legajo, b.turno,
-                  u_b.id_usuario AS b_id_usuario, u_b.nombre AS b_nombre, u_b.apellido AS b_apellido, 
-                  u_b.dni AS b_dni, u_b.username AS b_username, u_b.password AS b_password, 
-                  u_b.email AS b_email, u_b.telefono AS b_telefono, u_b.fecha_registro AS b_fecha_registro
-                FROM Notificacion n
-                INNER JOIN Prestamo p ON n.id_prestamo = p.id_prestamo
-                INNER JOIN Socio s ON p.id_socio = s.id_socio
-                INNER JOIN Usuario u_s ON s.id_usuario = u_s.id_usuario
-                INNER JOIN Ejemplar e ON p.id_ejemplar = e.id_ejemplar
-                INNER JOIN Libro l ON e.id_libro = l.id_libro
-                INNER JOIN Autor a ON l.id_autor = a.id_autor
-                INNER JOIN Editorial ed ON l.id_editorial = ed.id_editorial
-                LEFT JOIN Bibliotecario b ON p.id_bibliotecario = b.id_bibliotecario
-                LEFT JOIN Usuario u_b ON b.id_usuario = u_b.id_usuario
-                ORDER BY n.fecha_envio DESC
-                """;
+        String sql = SELECT_LISTADO + "ORDER BY n.fecha_envio DESC";
         List<Notificacion> lista = new ArrayList<>();
 
-        try (Connection conn = ConexionBD.getConexion();
+        try (Connection conn = ConexionBD.getConexionLectura();
              PreparedStatement ps = conn.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
 
-            while (rs.next()) {
-                lista.add(mapearNotificacion(rs));
-            }
+            lista.addAll(MAPEADOR.listar(rs));
 
         } catch (SQLException e) {
             throw new DAOException("Error al listar notificaciones", e);
@@ -233,9 +237,7 @@ public class NotificacionesDAO implements DAO<Notificacion> {
              PreparedStatement ps = conn.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
 
-            while (rs.next()) {
-                lista.add(mapearNotificacion(rs));
-            }
+            lista.addAll(MAPEADOR.listar(rs));
 
         } catch (SQLException e) {
             throw new DAOException("Error al listar notificaciones no leídas", e);
@@ -280,9 +282,7 @@ public class NotificacionesDAO implements DAO<Notificacion> {
 
             ps.setInt(1, idPrestamo);
             try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    lista.add(mapearNotificacion(rs));
-                }
+                lista.addAll(MAPEADOR.listar(rs));
             }
 
         } catch (SQLException e) {
@@ -291,132 +291,79 @@ public class NotificacionesDAO implements DAO<Notificacion> {
         return lista;
     }
 
-    // === Métodos auxiliares ===
-
-    private Notificacion mapearNotificacion(ResultSet rs) throws SQLException {
-        int id = rs.getInt("id_notificacion");
-
-        // fecha_envio es DATETIME en la BD
-        Timestamp timestamp = rs.getTimestamp("fecha_envio");
-        LocalDateTime fechaHora = timestamp != null
-                ? timestamp.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime()
-                : LocalDateTime.now();
+    /**
+     * Mensajes ya registrados para un préstamo; alcanza para evitar duplicados sin leer las notificaciones completas.
+     */
+    public List<String> listarMensajesPorPrestamo(int idPrestamo) throws DAOException {
+        String sql = "SELECT mensaje FROM Notificacion WHERE id_prestamo = ?";
+        List<String> mensajes = new ArrayList<>();
 
-        String mensaje = rs.getString("mensaje");
-        boolean leida = rs.getBoolean("leida");
+        try (Connection conn = ConexionBD.getConexion();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
 
-        // Reconstruir Prestamo completo usando los mismos métodos de mapeo que PrestamoDAO
-        Prestamo prestamo = mapearPrestamo(rs);
+            ps.setInt(1, idPrestamo);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    mensajes.add(rs.getString(1));
+                }
+            }
 
-        return new Notificacion(id, mensaje, fechaHora, prestamo, leida);
+        } catch (SQLException e) {
+            throw new DAOException("Error al listar mensajes de notificaciones por préstamo", e);
+        }
+        return mensajes;
     }
 
     /**
-     * Mapea un registro SQL a un objeto Prestamo.
-     * Reutiliza la lógica de PrestamoDAO para mantener consistencia.
+     * Página de notificaciones de la más reciente a la más antigua; el id desempata envíos con la misma fecha.
+     * @param token   token devuelto por la página anterior, o null para la primera
+     * @param tamanio cantidad máxima de elementos (se recorta a Pagina.TAMANIO_MAXIMO)
      */
-    private Prestamo mapearPrestamo(ResultSet rs) throws SQLException {
-        int id = rs.getInt("p_id_prestamo");
-
-        Timestamp timestamp = rs.getTimestamp("fecha_prestamo");
-        java.time.LocalDate fechaPrestamo = timestamp != null
-                ? timestamp.toInstant().atZone(ZoneId.systemDefault()).toLocalDate()
-                : java.time.LocalDate.now();
-
-        java.time.LocalDate fechaVencimiento = rs.getDate("fecha_vencimiento").toLocalDate();
-        String estado = rs.getString("p_estado");
-        int diasPrestamo = rs.getInt("dias_prestamo");
-
-        Socio socio = mapearSocio(rs);
-        Ejemplar ejemplar = mapearEjemplar(rs);
-        Bibliotecario bibliotecario = mapearBibliotecario(rs);
-
-        // El constructor alternativo no incluye bibliotecario, se asigna después
-        Prestamo prestamo = new Prestamo(id, fechaPrestamo, fechaVencimiento, estado, diasPrestamo, socio, ejemplar, null);
-        prestamo.setBibliotecario(bibliotecario);
-        return prestamo;
-    }
-
-    private Socio mapearSocio(ResultSet rs) throws SQLException {
-        int idSocio = rs.getInt("id_socio");
-        int idUsuario = rs.getInt("s_id_usuario");
-        String nombre = rs.getString("s_nombre");
-        String apellido = rs.getString("s_apellido");
-        String dni = rs.getString("s_dni");
-        String email = rs.getString("s_email");
-        String telefono = rs.getString("s_telefono");
-        java.time.LocalDate fechaRegistro = rs.getDate("s_fecha_registro").toLocalDate();
-        String username = rs.getString("s_username");
-        String password = rs.getString("s_password");
-        TipoUsuario tipo = TipoUsuario.valueOf(rs.getString("s_tipo").toUpperCase());
-
-        String numeroSocio = rs.getString("numero_socio");
-        java.time.LocalDate vencCarnet = rs.getDate("s_fecha_vencimiento_carnet") != null
-                ? rs.getDate("s_fecha_vencimiento_carnet").toLocalDate() : null;
-        String estado = rs.getString("s_estado");
-        boolean sanciones = rs.getBoolean("tiene_sanciones");
-        boolean atrasos = rs.getBoolean("tiene_atrasos");
-        String categoria = rs.getString("s_categoria");
-        if (categoria == null || categoria.isBlank()) {
-            categoria = "Estándar";
-        }
-
-        Socio socio = new Socio(idUsuario, nombre, apellido, dni, email, telefono, fechaRegistro, tipo,
-                username, password, numeroSocio, vencCarnet, estado, sanciones, atrasos, categoria);
-        socio.setIdSocio(idSocio);
-        return socio;
-    }
+    public Pagina<Notificacion> listarPagina(String token, int tamanio) throws DAOException {
+        int limite = Pagina.validarTamanio(tamanio);
+        CursorPagina cursor = CursorPagina.leerConFecha("Notificacion", token);
+        String sql = SELECT_LISTADO
+                + (cursor != null ? "WHERE (n.fecha_envio < ? OR (n.fecha_envio = ? AND n.id_notificacion < ?)) " : "")
+                + "ORDER BY n.fecha_envio DESC, n.id_notificacion DESC LIMIT ?";
+
+        try (Connection conn = ConexionBD.getConexionLectura();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
 
-    private Ejemplar mapearEjemplar(ResultSet rs) throws SQLException {
-        int idEj = rs.getInt("id_ejemplar");
-        String cod = rs.getString("codigo_ejemplar");
-        String estado = rs.getString("e_estado");
-        String ubicacion = rs.getString("ubicacion");
-        Libro libro = mapearLibro(rs);
-        return new Ejemplar(idEj, cod, estado, ubicacion, libro);
-    }
+            int indice = 1;
+            if (cursor != null) {
+                Timestamp fecha = Timestamp.valueOf(cursor.getFecha());
+                ps.setTimestamp(indice++, fecha);
+                ps.setTimestamp(indice++, fecha);
+                ps.setInt(indice++, cursor.getId());
+            }
+            ps.setInt(indice, limite + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                return Pagina.de(MAPEADOR.listar(rs), limite, n -> CursorPagina.token("Notificacion", n.getFechaHora(), n.getIdNotificacion()));
+            }
 
-    private Libro mapearLibro(ResultSet rs) throws SQLException {
-        Libro libro = new Libro(
-                rs.getInt("id_libro"),
-                rs.getString("titulo"),
-                rs.getString("nombre_autor"),
-                rs.getString("isbn"),
-                rs.getString("l_categoria"),
-                rs.getString("nombre_editorial"),
-                rs.getInt("anio_publicacion")
-        );
-        libro.setIdAutor(rs.getInt("id_autor"));
-        libro.setIdEditorial(rs.getInt("id_editorial"));
-        return libro;
+        } catch (SQLException e) {
+            throw new DAOException("Error al listar página de notificaciones", e);
+        }
     }
 
-    private Bibliotecario mapearBibliotecario(ResultSet rs) throws SQLException {
-        int idBibliotecario = rs.getInt("id_bibliotecario");
-        if (rs.wasNull()) {
-            return null;
-        }
+    // === Métodos auxiliares ===
 
-        int idUsuario = rs.getInt("b_id_usuario");
-        String nombre = rs.getString("b_nombre");
-        String apellido = rs.getString("b_apellido");
-        String dni = rs.getString("b_dni");
-        String email = rs.getString("b_email");
-        String telefono = rs.getString("b_telefono");
-        java.time.LocalDate fechaRegistro = rs.getDate("b_fecha_registro").toLocalDate();
-        String username = rs.getString("b_username");
-        String password = rs.getString("b_password");
-        String legajo = rs.getString("legajo");
-        String turno = rs.getString("turno");
-
-        Bibliotecario bibliotecario = new Bibliotecario(
-                idUsuario, nombre, apellido, dni, email, telefono, fechaRegistro,
-                TipoUsuario.BIBLIOTECARIO, username, password, legajo, turno
-        );
-        bibliotecario.setIdBibliotecario(idBibliotecario);
-        return bibliotecario;
+    private static MapeadorFilas<Notificacion> mapeadorNotificacion() {
+        return c -> {
+            int id = c.indice("id_notificacion");
+            int fechaEnvio = c.indice("fecha_envio");
+            int mensaje = c.indice("mensaje");
+            int leida = c.indice("leida");
+            LectorFila<Prestamo> prestamo = Mapeadores.prestamoRelacionado().enlazar(c);
+
+            return rs -> {
+                // fecha_envio es DATETIME en la BD
+                LocalDateTime fechaHora = Mapeadores.fechaHora(rs.getTimestamp(fechaEnvio));
+                return new Notificacion(rs.getInt(id), rs.getString(mensaje),
+                        fechaHora != null ? fechaHora : LocalDateTime.now(), prestamo.leer(rs), rs.getBoolean(leida));
+            };
+        };
     }
-
     /**
      * Infiere el tipo de notificación según el contenido del mensaje.
      */
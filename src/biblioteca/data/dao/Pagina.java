@@ -0,0 +1,63 @@
+package biblioteca.data.dao;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de un listado paginado por clave (keyset): en lugar de OFFSET, cada página continúa
+ * a partir de la última fila de la anterior, de modo que el costo de pedir una página no crece con la tabla.
+ * El token de continuación es opaco para el llamador: se pasa tal cual a listarPagina para obtener la siguiente
+ * y es null en la última página.
+ */
+public final class Pagina<T> {
+
+    public static final int TAMANIO_POR_DEFECTO = 50;
+    public static final int TAMANIO_MAXIMO = 500;
+
+    private final List<T> elementos;
+    private final String siguiente;
+
+    private Pagina(List<T> elementos, String siguiente) {
+        this.elementos = Collections.unmodifiableList(elementos);
+        this.siguiente = siguiente;
+    }
+
+    /**
+     * Arma la página a partir de las filas leídas con LIMIT tamanio + 1: si vino la fila extra hay más páginas,
+     * y el token se genera con la última fila que sí se devuelve.
+     */
+    static <T> Pagina<T> de(List<T> filas, int tamanio, Function<T, String> token) {
+        if (filas.size() <= tamanio) {
+            return new Pagina<>(filas, null);
+        }
+        List<T> elementos = filas.subList(0, tamanio);
+        return new Pagina<>(elementos, token.apply(elementos.get(tamanio - 1)));
+    }
+
+    /**
+     * Valida el tamaño pedido; por encima de TAMANIO_MAXIMO se recorta en lugar de fallar.
+     * @throws IllegalArgumentException si el tamaño no es positivo
+     */
+    static int validarTamanio(int tamanio) {
+        if (tamanio < 1) {
+            throw new IllegalArgumentException("El tamaño de página debe ser positivo: " + tamanio);
+        }
+        return Math.min(tamanio, TAMANIO_MAXIMO);
+    }
+
+    public List<T> getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Token para pedir la página siguiente, o null si ésta es la última.
+     */
+    public String getSiguiente() {
+        return siguiente;
+    }
+
+    public boolean hayMas() {
+        return siguiente != null;
+    }
+}
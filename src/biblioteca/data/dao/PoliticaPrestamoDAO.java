@@ -6,7 +6,9 @@ import biblioteca.entities.prestamos.PoliticaPrestamo;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * DAO para gestionar la persistencia de políticas de préstamo en la base de datos.
@@ -68,6 +70,17 @@ public class PoliticaPrestamoDAO implements DAO<PoliticaPrestamo> {
         }
     }
 
+    @Override
+    public Map<Integer, PoliticaPrestamo> buscarPorIds(Collection<Integer> ids) throws DAOException {
+        String sql = """
+                SELECT id_politica, categoria, dias_prestamo, max_prestamos_simultaneos, multa_por_dia
+                FROM PoliticaPrestamo
+                WHERE id_politica IN (%s)
+                """;
+        return BusquedaPorIds.buscar(ids, sql, BusquedaPorIds.porFila(this::mapearPolitica), PoliticaPrestamo::getIdPolitica,
+                "Error al buscar políticas por ID");
+    }
+
     @Override
     public List<PoliticaPrestamo> listarTodos() throws DAOException {
         String sql = """
@@ -1,27 +1,75 @@
 package biblioteca.data.dao;
 
 import biblioteca.data.db.ConexionBD;
+import biblioteca.data.db.UnidadDeTrabajo;
 import biblioteca.data.interfaces.DAO;
-import biblioteca.entities.inventario.Ejemplar;
-import biblioteca.entities.inventario.Libro;
-import biblioteca.entities.usuarios.Socio;
-import biblioteca.entities.usuarios.Bibliotecario;
-import biblioteca.entities.usuarios.TipoUsuario;
+import biblioteca.data.mapeo.CursorFilas;
+import biblioteca.data.mapeo.MapeadorFilas;
+import biblioteca.data.mapeo.Mapeadores;
+import biblioteca.entities.prestamos.EstadoPrestamo;
 import biblioteca.entities.prestamos.Prestamo;
-import biblioteca.entities.prestamos.PoliticaPrestamo;
+import biblioteca.entities.reportes.PrestamoResumen;
 
 import java.sql.*;
 import java.time.LocalDate;
-import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * DAO para gestionar la persistencia de préstamos en la base de datos.
  * Maneja las operaciones CRUD sobre la tabla Prestamo, incluyendo JOINs completos con Socio, Ejemplar, Libro, Autor, Editorial y Bibliotecario.
+ * Los listados y consultas de reporte usan el lado de lectura de ConexionBD (réplica, si está configurada).
  */
 public class PrestamoDAO implements DAO<Prestamo> {
 
+    private static final MapeadorFilas<Prestamo> MAPEADOR = Mapeadores.prestamo("id_prestamo", "estado", false,
+            Mapeadores.socio(), Mapeadores.ejemplar(Mapeadores.libro("id_libro", false), false), Mapeadores.bibliotecario());
+
+    private static final MapeadorFilas<PrestamoResumen> MAPEADOR_RESUMEN = Mapeadores.prestamoResumen();
+
+    // Consulta completa de las búsquedas y listados de préstamos; cada uno agrega su filtro y orden
+    private static final String SELECT_LISTADO = """
+            SELECT
+              p.id_prestamo, p.fecha_prestamo, p.fecha_vencimiento, p.estado, p.dias_prestamo,
+              s.id_socio, s.id_usuario AS s_id_usuario, s.numero_socio, s.fecha_vencimiento_carnet AS s_fecha_vencimiento_carnet,
+              s.estado AS s_estado, s.tiene_sanciones, s.tiene_atrasos, s.categoria AS s_categoria,
+              u_s.nombre AS s_nombre, u_s.apellido AS s_apellido, u_s.dni AS s_dni, u_s.email AS s_email, u_s.telefono AS s_telefono,
+              u_s.fecha_registro AS s_fecha_registro, u_s.username AS s_username, u_s.password AS s_password, u_s.tipo_usuario AS s_tipo,
+              e.id_ejemplar, e.codigo_ejemplar, e.estado AS e_estado, e.ubicacion,
+              l.id_libro, l.titulo, l.isbn, l.categoria AS l_categoria, l.anio_publicacion,
+              l.id_autor, a.nombre_completo AS nombre_autor, a.nacionalidad, a.fecha_nacimiento,
+              l.id_editorial, ed.nombre AS nombre_editorial, ed.pais,
+              b.id_bibliotecario, b.legajo, b.turno,
+              u_b.id_usuario AS b_id_usuario, u_b.nombre AS b_nombre, u_b.apellido AS b_apellido,
+              u_b.dni AS b_dni, u_b.username AS b_username, u_b.password AS b_password,
+              u_b.email AS b_email, u_b.telefono AS b_telefono, u_b.fecha_registro AS b_fecha_registro
+            FROM Prestamo p
+            INNER JOIN Socio s ON p.id_socio = s.id_socio
+            INNER JOIN Usuario u_s ON s.id_usuario = u_s.id_usuario
+            INNER JOIN Ejemplar e ON p.id_ejemplar = e.id_ejemplar
+            INNER JOIN Libro l ON e.id_libro = l.id_libro
+            INNER JOIN Autor a ON l.id_autor = a.id_autor
+            INNER JOIN Editorial ed ON l.id_editorial = ed.id_editorial
+            LEFT JOIN Bibliotecario b ON p.id_bibliotecario = b.id_bibliotecario
+            LEFT JOIN Usuario u_b ON b.id_usuario = u_b.id_usuario
+            """;
+
+    // Proyección de los reportes: sólo las columnas que se muestran, sin datos de acceso de los usuarios
+    private static final String SELECT_RESUMEN = """
+            SELECT
+              p.id_prestamo, p.fecha_prestamo, p.fecha_vencimiento, p.estado,
+              u_s.nombre AS s_nombre, u_s.apellido AS s_apellido, u_s.dni AS s_dni,
+              e.codigo_ejemplar, l.titulo
+            FROM Prestamo p
+            INNER JOIN Socio s ON p.id_socio = s.id_socio
+            INNER JOIN Usuario u_s ON s.id_usuario = u_s.id_usuario
+            INNER JOIN Ejemplar e ON p.id_ejemplar = e.id_ejemplar
+            INNER JOIN Libro l ON e.id_libro = l.id_libro
+            """;
+
     @Override
     public void insertar(Prestamo p) throws DAOException {
         String sqlInsert = """
@@ -34,7 +82,7 @@ public class PrestamoDAO implements DAO<Prestamo> {
 
             ps.setTimestamp(1, Timestamp.valueOf(p.getFechaPrestamo().atStartOfDay()));
             ps.setDate(2, Date.valueOf(p.getFechaVencimiento()));
-            ps.setString(3, p.getEstado() != null ? p.getEstado().toUpperCase() : "ACTIVO");
+            ps.setInt(3, (p.getEstado() != null ? p.getEstado() : EstadoPrestamo.ACTIVO).getCodigo());
             ps.setInt(4, p.getDiasPrestamo());
             ps.setInt(5, p.getSocio().getIdSocio());
             ps.setInt(6, p.getEjemplar().getIdEjemplar());
@@ -57,42 +105,14 @@ public class PrestamoDAO implements DAO<Prestamo> {
 
     @Override
     public Prestamo buscarPorId(int id) throws DAOException {
-        String sql = """
-                SELECT
-                  p.id_prestamo, p.fecha_prestamo, p.fecha_vencimiento, p.estado, p.dias_prestamo,
-                  s.id_socio, s.id_usuario AS s_id_usuario, s.numero_socio, s.fecha_vencimiento_carnet AS s_fecha_vencimiento_carnet,
-                  s.estado AS s_estado, s.tiene_sanciones, s.tiene_atrasos, s.categoria AS s_categoria,
-                  u_s.nombre AS s_nombre, u_s.apellido AS s_apellido, u_s.dni AS s_dni, u_s.email AS s_email, u_s.telefono AS s_telefono, 
-                  u_s.fecha_registro AS s_fecha_registro, u_s.username AS s_username, u_s.password AS s_password, u_s.tipo_usuario AS s_tipo,
-                  e.id_ejemplar, e.codigo_ejemplar, e.estado AS e_estado, e.ubicacion,
-                  l.id_libro, l.titulo, l.isbn, l.categoria AS l_categoria, l.anio_publicacion,
-                  l.id_autor, a.nombre_completo AS nombre_autor, a.nacionalidad, a.fecha_nacimiento,
-                  l.id_editorial, ed.nombre AS nombre_editorial, ed.pais,
-                  b.id_bibliotecario, b.legajo, b.turno,
-                  u_b.id_usuario AS b_id_usuario, u_b.nombre AS b_nombre, u_b.apellido AS b_apellido, 
-                  u_b.dni AS b_dni, u_b.username AS b_username, u_b.password AS b_password, 
-                  u_b.email AS b_email, u_b.telefono AS b_telefono, u_b.fecha_registro AS b_fecha_registro
-                FROM Prestamo p
-                INNER JOIN Socio s ON p.id_socio = s.id_socio
-                INNER JOIN Usuario u_s ON s.id_usuario = u_s.id_usuario
-                INNER JOIN Ejemplar e ON p.id_ejemplar = e.id_ejemplar
-                INNER JOIN Libro l ON e.id_libro = l.id_libro
-                INNER JOIN Autor a ON l.id_autor = a.id_autor
-                INNER JOIN Editorial ed ON l.id_editorial = ed.id_editorial
-                LEFT JOIN Bibliotecario b ON p.id_bibliotecario = b.id_bibliotecario
-                LEFT JOIN Usuario u_b ON b.id_usuario = u_b.id_usuario
-                WHERE p.id_prestamo = ?
-                """;
+        String sql = SELECT_LISTADO + "WHERE p.id_prestamo = ?";
 
         try (Connection conn = ConexionBD.getConexion();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, id);
             try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return mapearPrestamo(rs);
-                }
-                return null;
+                return MAPEADOR.primero(rs);
             }
 
         } catch (SQLException e) {
@@ -100,43 +120,23 @@ public class PrestamoDAO implements DAO<Prestamo> {
         }
     }
 
+    @Override
+    public Map<Integer, Prestamo> buscarPorIds(Collection<Integer> ids) throws DAOException {
+        String sql = SELECT_LISTADO + "WHERE p.id_prestamo IN (%s)";
+        return BusquedaPorIds.buscar(ids, sql, MAPEADOR::listar, Prestamo::getId,
+                "Error al buscar préstamos por ID");
+    }
+
     @Override
     public List<Prestamo> listarTodos() throws DAOException {
-        String sql = """
-                SELECT
-                  p.id_prestamo, p.fecha_prestamo, p.fecha_vencimiento, p.estado, p.dias_prestamo,
-                  s.id_socio, s.id_usuario AS s_id_usuario, s.numero_socio, s.fecha_vencimiento_carnet AS s_fecha_vencimiento_carnet,
-                  s.estado AS s_estado, s.tiene_sanciones, s.tiene_atrasos, s.categoria AS s_categoria,
-                  u_s.nombre AS s_nombre, u_s.apellido AS s_apellido, u_s.dni AS s_dni, u_s.email AS s_email, u_s.telefono AS s_telefono,
-                  u_s.fecha_registro AS s_fecha_registro, u_s.username AS s_username, u_s.password AS s_password, u_s.tipo_usuario AS s_tipo,
-                  e.id_ejemplar, e.codigo_ejemplar, e.estado AS e_estado, e.ubicacion,
-                  l.id_libro, l.titulo, l.isbn, l.categoria AS l_categoria, l.anio_publicacion,
-                  l.id_autor, a.nombre_completo AS nombre_autor, a.nacionalidad, a.fecha_nacimiento,
-                  l.id_editorial, ed.nombre AS nombre_editorial, ed.pais,
-                  b.id_bibliotecario, b.legajo, b.turno,
-                  u_b.id_usuario AS b_id_usuario, u_b.nombre AS b_nombre, u_b.apellido AS b_apellido, 
-                  u_b.dni AS b_dni, u_b.username AS b_username, u_b.password AS b_password, 
-                  u_b.email AS b_email, u_b.telefono AS b_telefono, u_b.fecha_registro AS b_fecha_registro
-                FROM Prestamo p
-                INNER JOIN Socio s ON p.id_socio = s.id_socio
-                INNER JOIN Usuario u_s ON s.id_usuario = u_s.id_usuario
-                INNER JOIN Ejemplar e ON p.id_ejemplar = e.id_ejemplar
-                INNER JOIN Libro l ON e.id_libro = l.id_libro
-                INNER JOIN Autor a ON l.id_autor = a.id_autor
-                INNER JOIN Editorial ed ON l.id_editorial = ed.id_editorial
-                LEFT JOIN Bibliotecario b ON p.id_bibliotecario = b.id_bibliotecario
-                LEFT JOIN Usuario u_b ON b.id_usuario = u_b.id_usuario
-                ORDER BY p.id_prestamo
-                """;
+        String sql = SELECT_LISTADO + "ORDER BY p.id_prestamo";
 
         List<Prestamo> lista = new ArrayList<>();
-        try (Connection conn = ConexionBD.getConexion();
+        try (Connection conn = ConexionBD.getConexionLectura();
              PreparedStatement ps = conn.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
 
-            while (rs.next()) {
-                lista.add(mapearPrestamo(rs));
-            }
+            lista.addAll(MAPEADOR.listar(rs));
             return lista;
 
         } catch (SQLException e) {
@@ -145,45 +145,17 @@ public class PrestamoDAO implements DAO<Prestamo> {
     }
 
     public List<Prestamo> obtenerPorDniSocio(String dniSocio) throws DAOException {
-        String sql = """
-                SELECT
-                  p.id_prestamo, p.fecha_prestamo, p.fecha_vencimiento, p.estado, p.dias_prestamo,
-                  s.id_socio, s.id_usuario AS s_id_usuario, s.numero_socio, s.fecha_vencimiento_carnet AS s_fecha_vencimiento_carnet,
-                  s.estado AS s_estado, s.tiene_sanciones, s.tiene_atrasos, s.categoria AS s_categoria,
-                  u_s.nombre AS s_nombre, u_s.apellido AS s_apellido, u_s.dni AS s_dni, u_s.email AS s_email, u_s.telefono AS s_telefono,
-                  u_s.fecha_registro AS s_fecha_registro, u_s.username AS s_username, u_s.password AS s_password, u_s.tipo_usuario AS s_tipo,
-                  e.id_ejemplar, e.codigo_ejemplar, e.estado AS e_estado, e.ubicacion,
-                  l.id_libro, l.titulo, l.isbn, l.categoria AS l_categoria, l.anio_publicacion,
-                  l.id_autor, a.nombre_completo AS nombre_autor, a.nacionalidad, a.fecha_nacimiento,
-                  l.id_editorial, ed.nombre AS nombre_editorial, ed.pais,
-                  b.id_bibliotecario, b.legajo, b.turno,
-                  u_b.id_usuario AS b_id_usuario, u_b.nombre AS b_nombre, u_b.apellido AS b_apellido, 
-                  u_b.dni AS b_dni, u_b.username AS b_username, u_b.password AS b_password, 
-                  u_b.email AS b_email, u_b.telefono AS b_telefono, u_b.fecha_registro AS b_fecha_registro
-                FROM Prestamo p
-                INNER JOIN Socio s ON p.id_socio = s.id_socio
-                INNER JOIN Usuario u_s ON s.id_usuario = u_s.id_usuario
-                INNER JOIN Ejemplar e ON p.id_ejemplar = e.id_ejemplar
-                INNER JOIN Libro l ON e.id_libro = l.id_libro
-                INNER JOIN Autor a ON l.id_autor = a.id_autor
-                INNER JOIN Editorial ed ON l.id_editorial = ed.id_editorial
-                LEFT JOIN Bibliotecario b ON p.id_bibliotecario = b.id_bibliotecario
-                LEFT JOIN Usuario u_b ON b.id_usuario = u_b.id_usuario
-                WHERE u_s.dni = ?
-                ORDER BY p.id_prestamo
-                """;
+        String sql = SELECT_LISTADO + "WHERE u_s.dni = ? ORDER BY p.id_prestamo";
 
         List<Prestamo> lista = new ArrayList<>();
 
-        try (Connection conn = ConexionBD.getConexion();
+        try (Connection conn = ConexionBD.getConexionLectura();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setString(1, dniSocio);
 
             try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    lista.add(mapearPrestamo(rs));
-                }
+                lista.addAll(MAPEADOR.listar(rs));
             }
         } catch (SQLException e) {
             throw new DAOException("Error al obtener préstamos por DNI de socio", e);
@@ -200,7 +172,7 @@ public class PrestamoDAO implements DAO<Prestamo> {
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setDate(1, Date.valueOf(p.getFechaVencimiento()));
-            ps.setString(2, p.getEstado() != null ? p.getEstado().toUpperCase() : "ACTIVO");
+            ps.setInt(2, (p.getEstado() != null ? p.getEstado() : EstadoPrestamo.ACTIVO).getCodigo());
             ps.setInt(3, p.getDiasPrestamo());
             ps.setInt(4, p.getId());
 
@@ -226,46 +198,17 @@ public class PrestamoDAO implements DAO<Prestamo> {
     }
 
     public List<Prestamo> listarPorSocio(int idSocio) throws DAOException {
-        String sql = """
-            SELECT
-              p.id_prestamo, p.fecha_prestamo, p.fecha_vencimiento, p.estado, p.dias_prestamo,
-              s.id_socio, s.id_usuario AS s_id_usuario, s.numero_socio, s.fecha_vencimiento_carnet AS s_fecha_vencimiento_carnet,
-              s.estado AS s_estado, s.tiene_sanciones, s.tiene_atrasos, s.categoria AS s_categoria,
-              u_s.nombre AS s_nombre, u_s.apellido AS s_apellido, u_s.dni AS s_dni, 
-              u_s.email AS s_email, u_s.telefono AS s_telefono, u_s.fecha_registro AS s_fecha_registro, 
-              u_s.username AS s_username, u_s.password AS s_password, u_s.tipo_usuario AS s_tipo,
-              e.id_ejemplar, e.codigo_ejemplar, e.estado AS e_estado, e.ubicacion,
-              l.id_libro, l.titulo, l.isbn, l.categoria AS l_categoria, l.anio_publicacion,
-              l.id_autor, a.nombre_completo AS nombre_autor, a.nacionalidad, a.fecha_nacimiento,
-              l.id_editorial, ed.nombre AS nombre_editorial, ed.pais,
-              b.id_bibliotecario, b.legajo, b.turno,
-              u_b.id_usuario AS b_id_usuario, u_b.nombre AS b_nombre, u_b.apellido AS b_apellido, 
-              u_b.dni AS b_dni, u_b.username AS b_username, u_b.password AS b_password, 
-              u_b.email AS b_email, u_b.telefono AS b_telefono, u_b.fecha_registro AS b_fecha_registro
-            FROM Prestamo p
-            INNER JOIN Socio s ON p.id_socio = s.id_socio
-            INNER JOIN Usuario u_s ON s.id_usuario = u_s.id_usuario
-            INNER JOIN Ejemplar e ON p.id_ejemplar = e.id_ejemplar
-            INNER JOIN Libro l ON e.id_libro = l.id_libro
-            INNER JOIN Autor a ON l.id_autor = a.id_autor
-            INNER JOIN Editorial ed ON l.id_editorial = ed.id_editorial
-            LEFT JOIN Bibliotecario b ON p.id_bibliotecario = b.id_bibliotecario
-            LEFT JOIN Usuario u_b ON b.id_usuario = u_b.id_usuario
-            WHERE s.id_socio = ?
-            ORDER BY p.fecha_prestamo DESC
-        """;
+        String sql = SELECT_LISTADO + "WHERE s.id_socio = ? ORDER BY p.fecha_prestamo DESC";
 
         List<Prestamo> lista = new ArrayList<>();
 
-        try (Connection conn = ConexionBD.getConexion();
+        try (Connection conn = ConexionBD.getConexionLectura();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, idSocio);
 
             try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    lista.add(mapearPrestamo(rs));
-                }
+                lista.addAll(MAPEADOR.listar(rs));
             }
 
         } catch (SQLException e) {
@@ -276,46 +219,17 @@ public class PrestamoDAO implements DAO<Prestamo> {
     }
 
     public List<Prestamo> listarPorISBN(String isbn) throws DAOException {
-        String sql = """
-            SELECT
-              p.id_prestamo, p.fecha_prestamo, p.fecha_vencimiento, p.estado, p.dias_prestamo,
-              s.id_socio, s.id_usuario AS s_id_usuario, s.numero_socio, s.fecha_vencimiento_carnet AS s_fecha_vencimiento_carnet,
-              s.estado AS s_estado, s.tiene_sanciones, s.tiene_atrasos, s.categoria AS s_categoria,
-              u_s.nombre AS s_nombre, u_s.apellido AS s_apellido, u_s.dni AS s_dni, 
-              u_s.email AS s_email, u_s.telefono AS s_telefono, u_s.fecha_registro AS s_fecha_registro, 
-              u_s.username AS s_username, u_s.password AS s_password, u_s.tipo_usuario AS s_tipo,
-              e.id_ejemplar, e.codigo_ejemplar, e.estado AS e_estado, e.ubicacion,
-              l.id_libro, l.titulo, l.isbn, l.categoria AS l_categoria, l.anio_publicacion,
-              l.id_autor, a.nombre_completo AS nombre_autor, a.nacionalidad, a.fecha_nacimiento,
-              l.id_editorial, ed.nombre AS nombre_editorial, ed.pais,
-              b.id_bibliotecario, b.legajo, b.turno,
-              u_b.id_usuario AS b_id_usuario, u_b.nombre AS b_nombre, u_b.apellido AS b_apellido, 
-              u_b.dni AS b_dni, u_b.username AS b_username, u_b.password AS b_password, 
-              u_b.email AS b_email, u_b.telefono AS b_telefono, u_b.fecha_registro AS b_fecha_registro
-            FROM Prestamo p
-            INNER JOIN Socio s ON p.id_socio = s.id_socio
-            INNER JOIN Usuario u_s ON s.id_usuario = u_s.id_usuario
-            INNER JOIN Ejemplar e ON p.id_ejemplar = e.id_ejemplar
-            INNER JOIN Libro l ON e.id_libro = l.id_libro
-            INNER JOIN Autor a ON l.id_autor = a.id_autor
-            INNER JOIN Editorial ed ON l.id_editorial = ed.id_editorial
-            LEFT JOIN Bibliotecario b ON p.id_bibliotecario = b.id_bibliotecario
-            LEFT JOIN Usuario u_b ON b.id_usuario = u_b.id_usuario
-            WHERE l.isbn = ?
-            ORDER BY p.fecha_prestamo DESC
-        """;
+        String sql = SELECT_LISTADO + "WHERE l.isbn = ? ORDER BY p.fecha_prestamo DESC";
 
         List<Prestamo> lista = new ArrayList<>();
 
-        try (Connection conn = ConexionBD.getConexion();
+        try (Connection conn = ConexionBD.getConexionLectura();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setString(1, isbn);
 
             try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    lista.add(mapearPrestamo(rs));
-                }
+                lista.addAll(MAPEADOR.listar(rs));
             }
 
         } catch (SQLException e) {
@@ -325,110 +239,215 @@ public class PrestamoDAO implements DAO<Prestamo> {
         return lista;
     }
 
-    private Prestamo mapearPrestamo(ResultSet rs) throws SQLException {
-        int id = rs.getInt("id_prestamo");
-
-        Timestamp timestamp = rs.getTimestamp("fecha_prestamo");
-        LocalDate fechaPrestamo = timestamp != null
-                ? timestamp.toInstant().atZone(ZoneId.systemDefault()).toLocalDate()
-                : LocalDate.now();
+    /**
+     * Resumen de todos los préstamos para el reporte general, ordenado por id.
+     */
+    public List<PrestamoResumen> listarResumen() throws DAOException {
+        return listarResumen("ORDER BY p.id_prestamo", null, "Error al listar resumen de préstamos");
+    }
 
-        LocalDate fechaVencimiento = rs.getDate("fecha_vencimiento").toLocalDate();
-        String estado = rs.getString("estado");
-        int diasPrestamo = rs.getInt("dias_prestamo");
+    /**
+     * Resumen de los préstamos de un socio, del más reciente al más antiguo.
+     */
+    public List<PrestamoResumen> listarResumenPorDniSocio(String dniSocio) throws DAOException {
+        return listarResumen("WHERE u_s.dni = ? ORDER BY p.fecha_prestamo DESC", dniSocio,
+                "Error al listar resumen de préstamos por DNI de socio");
+    }
 
-        Socio socio = mapearSocio(rs);
-        Ejemplar ejemplar = mapearEjemplar(rs);
-        Bibliotecario bibliotecario = mapearBibliotecario(rs);
+    /**
+     * Resumen de los préstamos de los ejemplares de un libro, del más reciente al más antiguo.
+     */
+    public List<PrestamoResumen> listarResumenPorISBN(String isbn) throws DAOException {
+        return listarResumen("WHERE l.isbn = ? ORDER BY p.fecha_prestamo DESC", isbn,
+                "Error al listar resumen de préstamos por ISBN");
+    }
 
-        // La política no está en la tabla Prestamo, se obtiene desde el servicio
-        // Por ahora se pasa null y se asigna desde el servicio si es necesario
-        PoliticaPrestamo politica = null;
+    /**
+     * Recorre todos los préstamos sin cargarlos juntos en memoria; el Stream debe cerrarse para liberar la conexión.
+     */
+    public Stream<Prestamo> recorrerTodos() throws DAOException {
+        try {
+            return CursorFilas.abrir(ConexionBD.getConexionLectura(), SELECT_LISTADO + "ORDER BY p.id_prestamo", MAPEADOR);
+        } catch (SQLException e) {
+            throw new DAOException("Error al recorrer préstamos", e);
+        }
+    }
 
-        // El constructor alternativo no incluye bibliotecario, se asigna después
-        Prestamo prestamo = new Prestamo(id, fechaPrestamo, fechaVencimiento, estado, diasPrestamo, socio, ejemplar, politica);
-        prestamo.setBibliotecario(bibliotecario);
-        return prestamo;
+    /**
+     * Recorre el resumen de los préstamos en un estado; el Stream debe cerrarse para liberar la conexión.
+     */
+    public Stream<PrestamoResumen> recorrerResumenPorEstado(EstadoPrestamo estado) throws DAOException {
+        try {
+            return CursorFilas.abrir(ConexionBD.getConexionLectura(),
+                    SELECT_RESUMEN + "WHERE p.estado = ? ORDER BY p.id_prestamo", MAPEADOR_RESUMEN, estado.getCodigo());
+        } catch (SQLException e) {
+            throw new DAOException("Error al recorrer resumen de préstamos por estado", e);
+        }
     }
 
-    private Socio mapearSocio(ResultSet rs) throws SQLException {
-        int idSocio = rs.getInt("id_socio");
-        int idUsuario = rs.getInt("s_id_usuario");
-        String nombre = rs.getString("s_nombre");
-        String apellido = rs.getString("s_apellido");
-        String dni = rs.getString("s_dni");
-        String email = rs.getString("s_email");
-        String telefono = rs.getString("s_telefono");
-        LocalDate fechaRegistro = rs.getDate("s_fecha_registro").toLocalDate();
-        String username = rs.getString("s_username");
-        String password = rs.getString("s_password");
-        TipoUsuario tipo = TipoUsuario.valueOf(rs.getString("s_tipo").toUpperCase());
-
-        String numeroSocio = rs.getString("numero_socio");
-        LocalDate vencCarnet = rs.getDate("s_fecha_vencimiento_carnet") != null
-                ? rs.getDate("s_fecha_vencimiento_carnet").toLocalDate() : null;
-        String estado = rs.getString("s_estado");
-        boolean sanciones = rs.getBoolean("tiene_sanciones");
-        boolean atrasos = rs.getBoolean("tiene_atrasos");
-        String categoria = rs.getString("s_categoria");
-        if (categoria == null || categoria.isBlank()) {
-            categoria = "Estándar";
+    /**
+     * Recorre el resumen de los préstamos activos que vencen exactamente en la fecha dada;
+     * el Stream debe cerrarse para liberar la conexión.
+     */
+    public Stream<PrestamoResumen> recorrerResumenActivosQueVencen(LocalDate fecha) throws DAOException {
+        try {
+            return CursorFilas.abrir(ConexionBD.getConexionLectura(),
+                    SELECT_RESUMEN + "WHERE p.estado = ? AND p.fecha_vencimiento = ? ORDER BY p.id_prestamo",
+                    MAPEADOR_RESUMEN, EstadoPrestamo.ACTIVO.getCodigo(), Date.valueOf(fecha));
+        } catch (SQLException e) {
+            throw new DAOException("Error al recorrer resumen de préstamos que vencen el " + fecha, e);
         }
+    }
 
-        Socio socio = new Socio(idUsuario, nombre, apellido, dni, email, telefono, fechaRegistro, tipo,
-                username, password, numeroSocio, vencCarnet, estado, sanciones, atrasos, categoria);
-        socio.setIdSocio(idSocio);
-        return socio;
+    /**
+     * Ids de los préstamos en el estado dado que todavía no tienen una notificación con ese mensaje
+     * (sin distinguir mayúsculas), resueltos en la base con NOT EXISTS.
+     */
+    public List<Integer> listarIdsSinNotificacionPorEstado(EstadoPrestamo estado, String mensaje) throws DAOException {
+        return listarIdsSinNotificacion("p.estado = ?", mensaje, estado.getCodigo());
     }
 
-    private Ejemplar mapearEjemplar(ResultSet rs) throws SQLException {
-        int idEj = rs.getInt("id_ejemplar");
-        String cod = rs.getString("codigo_ejemplar");
-        String estado = rs.getString("e_estado");
-        String ubicacion = rs.getString("ubicacion");
-        Libro libro = mapearLibro(rs);
-        return new Ejemplar(idEj, cod, estado, ubicacion, libro);
+    /**
+     * Ids de los préstamos activos que vencen exactamente en la fecha dada y todavía no tienen una notificación
+     * con ese mensaje (sin distinguir mayúsculas).
+     */
+    public List<Integer> listarIdsActivosQueVencenSinNotificacion(LocalDate fecha, String mensaje) throws DAOException {
+        return listarIdsSinNotificacion("p.estado = ? AND p.fecha_vencimiento = ?", mensaje,
+                EstadoPrestamo.ACTIVO.getCodigo(), Date.valueOf(fecha));
     }
 
-    private Libro mapearLibro(ResultSet rs) throws SQLException {
-        Libro libro = new Libro(
-                rs.getInt("id_libro"),
-                rs.getString("titulo"),
-                rs.getString("nombre_autor"), // nombre del autor para compatibilidad
-                rs.getString("isbn"),
-                rs.getString("l_categoria"),
-                rs.getString("nombre_editorial"), // nombre de la editorial para compatibilidad
-                rs.getInt("anio_publicacion")
-        );
-        // Asignar IDs de Autor y Editorial
-        libro.setIdAutor(rs.getInt("id_autor"));
-        libro.setIdEditorial(rs.getInt("id_editorial"));
-        return libro;
+    /**
+     * Pasa a VENCIDO, con un único UPDATE, todos los préstamos ACTIVO cuyo vencimiento es anterior a hoy,
+     * y devuelve sus ids. Las filas se bloquean primero (SELECT ... FOR UPDATE) dentro de la misma transacción,
+     * así los ids devueltos son exactamente los que modificó el UPDATE aunque haya devoluciones concurrentes.
+     */
+    public List<Integer> marcarVencidos() throws DAOException {
+        return marcarVencidos(LocalDate.now());
     }
 
-    private Bibliotecario mapearBibliotecario(ResultSet rs) throws SQLException {
-        int idBibliotecario = rs.getInt("id_bibliotecario");
-        if (rs.wasNull()) {
-            return null; // LEFT JOIN puede retornar null
+    public List<Integer> marcarVencidos(LocalDate hoy) throws DAOException {
+        String sqlBloqueo = """
+                SELECT id_prestamo FROM Prestamo
+                WHERE estado = ? AND fecha_vencimiento < ?
+                ORDER BY id_prestamo
+                FOR UPDATE
+                """;
+        String sqlActualizacion = "UPDATE Prestamo SET estado = ? WHERE estado = ? AND fecha_vencimiento < ?";
+
+        return UnidadDeTrabajo.ejecutar(() -> {
+            List<Integer> ids = new ArrayList<>();
+            try (Connection conn = ConexionBD.getConexion()) {
+
+                try (PreparedStatement ps = conn.prepareStatement(sqlBloqueo)) {
+                    ps.setInt(1, EstadoPrestamo.ACTIVO.getCodigo());
+                    ps.setDate(2, Date.valueOf(hoy));
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            ids.add(rs.getInt(1));
+                        }
+                    }
+                }
+                if (ids.isEmpty()) {
+                    return ids;
+                }
+
+                try (PreparedStatement ps = conn.prepareStatement(sqlActualizacion)) {
+                    ps.setInt(1, EstadoPrestamo.VENCIDO.getCodigo());
+                    ps.setInt(2, EstadoPrestamo.ACTIVO.getCodigo());
+                    ps.setDate(3, Date.valueOf(hoy));
+                    int filas = ps.executeUpdate();
+                    if (filas != ids.size()) {
+                        throw new DAOException("Se esperaban " + ids.size() + " préstamos vencidos y se actualizaron " + filas + ".");
+                    }
+                }
+                return ids;
+
+            } catch (SQLException e) {
+                throw new DAOException("Error al marcar préstamos vencidos", e);
+            }
+        });
+    }
+
+    //Lee de la primaria, no de la réplica: se llama justo después de marcarVencidos y de insertar notificaciones,
+    //y con retraso de réplica se saltearía los préstamos recién vencidos o repetiría avisos ya insertados.
+    private List<Integer> listarIdsSinNotificacion(String filtro, String mensaje, Object... parametros)
+            throws DAOException {
+        String sql = """
+                SELECT p.id_prestamo
+                FROM Prestamo p
+                WHERE %s
+                  AND NOT EXISTS (
+                      SELECT 1 FROM Notificacion n
+                      WHERE n.id_prestamo = p.id_prestamo AND UPPER(n.mensaje) = UPPER(?)
+                  )
+                ORDER BY p.id_prestamo
+                """.formatted(filtro);
+
+        List<Integer> ids = new ArrayList<>();
+        try (Connection conn = ConexionBD.getConexion();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            for (int i = 0; i < parametros.length; i++) {
+                ps.setObject(i + 1, parametros[i]);
+            }
+            ps.setString(parametros.length + 1, mensaje);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+            return ids;
+
+        } catch (SQLException e) {
+            throw new DAOException("Error al listar préstamos sin notificación", e);
         }
+    }
 
-        int idUsuario = rs.getInt("b_id_usuario");
-        String nombre = rs.getString("b_nombre");
-        String apellido = rs.getString("b_apellido");
-        String dni = rs.getString("b_dni");
-        String email = rs.getString("b_email");
-        String telefono = rs.getString("b_telefono");
-        LocalDate fechaRegistro = rs.getDate("b_fecha_registro").toLocalDate();
-        String username = rs.getString("b_username");
-        String password = rs.getString("b_password");
-        String legajo = rs.getString("legajo");
-        String turno = rs.getString("turno");
-
-        Bibliotecario bibliotecario = new Bibliotecario(
-                idUsuario, nombre, apellido, dni, email, telefono, fechaRegistro,
-                TipoUsuario.BIBLIOTECARIO, username, password, legajo, turno
-        );
-        bibliotecario.setIdBibliotecario(idBibliotecario);
-        return bibliotecario;
+    private List<PrestamoResumen> listarResumen(String filtro, String parametro, String mensajeError) throws DAOException {
+        String sql = SELECT_RESUMEN + filtro;
+
+        try (Connection conn = ConexionBD.getConexionLectura();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            if (parametro != null) {
+                ps.setString(1, parametro);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                return MAPEADOR_RESUMEN.listar(rs);
+            }
+
+        } catch (SQLException e) {
+            throw new DAOException(mensajeError, e);
+        }
+    }
+
+    /**
+     * Página de préstamos ordenada por id, continuando después del último de la página anterior.
+     * @param token   token devuelto por la página anterior, o null para la primera
+     * @param tamanio cantidad máxima de elementos (se recorta a Pagina.TAMANIO_MAXIMO)
+     */
+    public Pagina<Prestamo> listarPagina(String token, int tamanio) throws DAOException {
+        int limite = Pagina.validarTamanio(tamanio);
+        CursorPagina cursor = CursorPagina.leer("Prestamo", token);
+        String sql = SELECT_LISTADO
+                + (cursor != null ? "WHERE p.id_prestamo > ? " : "")
+                + "ORDER BY p.id_prestamo LIMIT ?";
+
+        try (Connection conn = ConexionBD.getConexionLectura();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            int indice = 1;
+            if (cursor != null) {
+                ps.setInt(indice++, cursor.getId());
+            }
+            ps.setInt(indice, limite + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                return Pagina.de(MAPEADOR.listar(rs), limite, p -> CursorPagina.token("Prestamo", p.getId()));
+            }
+
+        } catch (SQLException e) {
+            throw new DAOException("Error al listar página de préstamos", e);
+        }
     }
+
 }
@@ -2,12 +2,16 @@ package biblioteca.data.dao;
 
 import biblioteca.data.db.ConexionBD;
 import biblioteca.data.interfaces.DAO;
+import biblioteca.data.mapeo.MapeadorFilas;
+import biblioteca.data.mapeo.Mapeadores;
+import biblioteca.entities.usuarios.EstadoSocio;
 import biblioteca.entities.usuarios.Socio;
 import biblioteca.entities.usuarios.TipoUsuario;
 
 import java.sql.*;
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * DAO para gestionar la persistencia de socios en la base de datos.
@@ -15,6 +19,20 @@ import java.util.List;
  */
 public class SocioDAO implements DAO<Socio> {
 
+    private static final MapeadorFilas<Socio> MAPEADOR = Mapeadores.socio();
+
+    // Consulta completa de las búsquedas y listados de socios, con los alias s_* de Mapeadores.socio;
+    // cada uno agrega su filtro y orden
+    private static final String SELECT_LISTADO = """
+            SELECT
+                s.id_socio, s.id_usuario AS s_id_usuario, s.numero_socio, s.fecha_vencimiento_carnet AS s_fecha_vencimiento_carnet,
+                s.estado AS s_estado, s.tiene_sanciones, s.tiene_atrasos, s.categoria AS s_categoria,
+                u.nombre AS s_nombre, u.apellido AS s_apellido, u.dni AS s_dni, u.email AS s_email, u.telefono AS s_telefono,
+                u.fecha_registro AS s_fecha_registro, u.username AS s_username, u.password AS s_password, u.tipo_usuario AS s_tipo
+            FROM Usuario u
+            INNER JOIN Socio s ON u.id_usuario = s.id_usuario
+            """;
+
     public SocioDAO() throws DAOException {
     }
 
@@ -67,7 +85,7 @@ public class SocioDAO implements DAO<Socio> {
                     psSocio.setInt(1, idUsuario);
                     psSocio.setString(2, socio.getNumeroSocio());
                     psSocio.setDate(3, Date.valueOf(socio.getFechaVencimientoCarnet()));
-                    psSocio.setString(4, socio.getEstado());
+                    psSocio.setInt(4, (socio.getEstado() != null ? socio.getEstado() : EstadoSocio.ACTIVO).getCodigo());
                     psSocio.setBoolean(5, socio.isTieneSanciones());
                     psSocio.setBoolean(6, socio.isTieneAtrasos());
                     String categoria = socio.getCategoria();
@@ -102,16 +120,7 @@ public class SocioDAO implements DAO<Socio> {
 
     @Override
     public Socio buscarPorId(int id) throws DAOException {
-        String sql = """
-            SELECT 
-                u.id_usuario, u.nombre, u.apellido, u.dni, u.email, u.telefono, 
-                u.fecha_registro, u.tipo_usuario, u.username, u.password,
-                s.id_socio, s.numero_socio, s.fecha_vencimiento_carnet, s.estado, 
-                s.tiene_sanciones, s.tiene_atrasos, s.categoria
-            FROM Usuario u 
-            INNER JOIN Socio s ON u.id_usuario = s.id_usuario 
-            WHERE u.id_usuario = ?
-        """;
+        String sql = SELECT_LISTADO + "WHERE u.id_usuario = ?";
 
         try (Connection conexion = ConexionBD.getConexion();
              PreparedStatement ps = conexion.prepareStatement(sql)) {
@@ -119,26 +128,23 @@ public class SocioDAO implements DAO<Socio> {
             ps.setInt(1, id);
 
             try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) return mapearSocio(rs);
+                return MAPEADOR.primero(rs);
             }
 
         } catch (SQLException e) {
             throw new DAOException("Error al buscar socio por ID", e);
         }
-        return null;
+    }
+
+    @Override
+    public Map<Integer, Socio> buscarPorIds(Collection<Integer> ids) throws DAOException {
+        String sql = SELECT_LISTADO + "WHERE u.id_usuario IN (%s)";
+        return BusquedaPorIds.buscar(ids, sql, MAPEADOR::listar, Socio::getIdUsuario,
+                "Error al buscar socios por ID");
     }
 
     public Socio buscarPorIdSocio(int idSocio) throws DAOException {
-        String sql = """
-            SELECT 
-                u.id_usuario, u.nombre, u.apellido, u.dni, u.email, u.telefono, 
-                u.fecha_registro, u.tipo_usuario, u.username, u.password,
-                s.id_socio, s.numero_socio, s.fecha_vencimiento_carnet, s.estado, 
-                s.tiene_sanciones, s.tiene_atrasos, s.categoria
-            FROM Usuario u 
-            INNER JOIN Socio s ON u.id_usuario = s.id_usuario 
-            WHERE s.id_socio = ?
-        """;
+        String sql = SELECT_LISTADO + "WHERE s.id_socio = ?";
 
         try (Connection conexion = ConexionBD.getConexion();
              PreparedStatement ps = conexion.prepareStatement(sql)) {
@@ -146,54 +152,60 @@ public class SocioDAO implements DAO<Socio> {
             ps.setInt(1, idSocio);
 
             try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) return mapearSocio(rs);
+                return MAPEADOR.primero(rs);
             }
 
         } catch (SQLException e) {
             throw new DAOException("Error al buscar socio por id_socio", e);
         }
-        return null;
     }
 
     @Override
     public List<Socio> listarTodos() throws DAOException {
-        List<Socio> socios = new ArrayList<>();
-
-        String sql = """
-            SELECT 
-                u.id_usuario, u.nombre, u.apellido, u.dni, u.email, u.telefono, 
-                u.fecha_registro, u.tipo_usuario, u.username, u.password,
-                s.id_socio, s.numero_socio, s.fecha_vencimiento_carnet, s.estado, 
-                s.tiene_sanciones, s.tiene_atrasos, s.categoria
-            FROM Usuario u 
-            INNER JOIN Socio s ON u.id_usuario = s.id_usuario
-            ORDER BY s.id_socio
-        """;
+        String sql = SELECT_LISTADO + "ORDER BY s.id_socio";
 
         try (Connection conexion = ConexionBD.getConexion();
              PreparedStatement ps = conexion.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
 
-            while (rs.next()) socios.add(mapearSocio(rs));
+            return MAPEADOR.listar(rs);
 
         } catch (SQLException e) {
             throw new DAOException("Error al listar socios", e);
         }
+    }
 
-        return socios;
+    /**
+     * Página de socios ordenada por id_socio, continuando después del último de la página anterior.
+     * @param token   token devuelto por la página anterior, o null para la primera
+     * @param tamanio cantidad máxima de elementos (se recorta a Pagina.TAMANIO_MAXIMO)
+     */
+    public Pagina<Socio> listarPagina(String token, int tamanio) throws DAOException {
+        int limite = Pagina.validarTamanio(tamanio);
+        CursorPagina cursor = CursorPagina.leer("Socio", token);
+        String sql = SELECT_LISTADO
+                + (cursor != null ? "WHERE s.id_socio > ? " : "")
+                + "ORDER BY s.id_socio LIMIT ?";
+
+        try (Connection conn = ConexionBD.getConexion();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            int indice = 1;
+            if (cursor != null) {
+                ps.setInt(indice++, cursor.getId());
+            }
+            ps.setInt(indice, limite + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                return Pagina.de(MAPEADOR.listar(rs), limite, s -> CursorPagina.token("Socio", s.getIdSocio()));
+            }
+
+        } catch (SQLException e) {
+            throw new DAOException("Error al listar página de socios", e);
+        }
     }
 
     public Socio buscarPorDni(String dni) throws DAOException {
-        String sql = """
-            SELECT 
-                u.id_usuario, u.nombre, u.apellido, u.dni, u.email, u.telefono,
-                u.fecha_registro, u.tipo_usuario, u.username, u.password,
-                s.id_socio, s.numero_socio, s.fecha_vencimiento_carnet, s.estado,
-                s.tiene_sanciones, s.tiene_atrasos, s.categoria
-            FROM Usuario u
-            INNER JOIN Socio s ON u.id_usuario = s.id_usuario
-            WHERE u.dni = ?
-        """;
+        String sql = SELECT_LISTADO + "WHERE u.dni = ?";
 
         try (Connection conexion = ConexionBD.getConexion();
              PreparedStatement ps = conexion.prepareStatement(sql)) {
@@ -201,27 +213,16 @@ public class SocioDAO implements DAO<Socio> {
             ps.setString(1, dni);
 
             try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) return mapearSocio(rs);
+                return MAPEADOR.primero(rs);
             }
 
         } catch (SQLException e) {
             throw new DAOException("Error al buscar socio por DNI", e);
         }
-
-        return null;
     }
 
     public Socio buscarPorUsername(String username) throws DAOException {
-        String sql = """
-        SELECT 
-            u.id_usuario, u.nombre, u.apellido, u.dni, u.email, u.telefono,
-            u.fecha_registro, u.tipo_usuario, u.username, u.password,
-            s.id_socio, s.numero_socio, s.fecha_vencimiento_carnet, s.estado,
-            s.tiene_sanciones, s.tiene_atrasos, s.categoria
-        FROM Usuario u
-        INNER JOIN Socio s ON u.id_usuario = s.id_usuario
-        WHERE u.username = ?
-    """;
+        String sql = SELECT_LISTADO + "WHERE u.username = ?";
 
         try (Connection conexion = ConexionBD.getConexion();
              PreparedStatement ps = conexion.prepareStatement(sql)) {
@@ -229,14 +230,12 @@ public class SocioDAO implements DAO<Socio> {
             ps.setString(1, username);
 
             try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) return mapearSocio(rs);
+                return MAPEADOR.primero(rs);
             }
 
         } catch (SQLException e) {
             throw new DAOException("Error al buscar socio por username", e);
         }
-
-        return null;
     }
 
     @Override
@@ -257,7 +256,7 @@ public class SocioDAO implements DAO<Socio> {
             ps.setString(2, socio.getApellido());
             ps.setString(3, socio.getEmail());
             ps.setString(4, socio.getTelefono());
-            ps.setString(5, socio.getEstado());
+            ps.setInt(5, (socio.getEstado() != null ? socio.getEstado() : EstadoSocio.ACTIVO).getCodigo());
             ps.setBoolean(6, socio.isTieneSanciones());
             ps.setBoolean(7, socio.isTieneAtrasos());
             String categoria = socio.getCategoria();
@@ -313,36 +312,4 @@ public class SocioDAO implements DAO<Socio> {
             throw new DAOException("Error al eliminar socio", e);
         }
     }
-
-    private Socio mapearSocio(ResultSet rs) throws SQLException {
-        int idUsuario = rs.getInt("id_usuario");
-        int idSocio = rs.getInt("id_socio");
-
-        String categoria = rs.getString("categoria");
-        if (categoria == null || categoria.isBlank()) {
-            categoria = "Estándar";
-        }
-
-        Socio socio = new Socio(
-                idUsuario,
-                rs.getString("nombre"),
-                rs.getString("apellido"),
-                rs.getString("dni"),
-                rs.getString("email"),
-                rs.getString("telefono"),
-                rs.getDate("fecha_registro").toLocalDate(),
-                TipoUsuario.SOCIO,
-                rs.getString("username"),
-                rs.getString("password"),
-                rs.getString("numero_socio"),
-                rs.getDate("fecha_vencimiento_carnet").toLocalDate(),
-                rs.getString("estado"),
-                rs.getBoolean("tiene_sanciones"),
-                rs.getBoolean("tiene_atrasos"),
-                categoria
-        );
-
-        socio.setIdSocio(idSocio);
-        return socio;
-    }
-}
\ No newline at end of file
+}
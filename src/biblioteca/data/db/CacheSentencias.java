@@ -0,0 +1,152 @@
+package biblioteca.data.db;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+//Caché LRU de PreparedStatement de una conexión física, indexada por el texto SQL.
+//Los DAOs siguen cerrando sus sentencias con try-with-resources: el cierre limpia los parámetros y vuelve
+//fetch size y maxRows a los valores por defecto, y deja la sentencia lista para la próxima vez que se prepare
+//el mismo SQL en esta conexión. Sólo se cachean prepareStatement(sql) y prepareStatement(sql, claves).
+final class CacheSentencias {
+
+    private final Connection conexion;
+    private final int capacidad;
+    private final LongAdder aciertos;
+    private final LongAdder fallos;
+    private final LinkedHashMap<String, Entrada> entradas = new LinkedHashMap<>(16, 0.75f, true);
+
+    CacheSentencias(Connection conexion, int capacidad, LongAdder aciertos, LongAdder fallos) {
+        this.conexion = conexion;
+        this.capacidad = capacidad;
+        this.aciertos = aciertos;
+        this.fallos = fallos;
+    }
+
+    //Devuelve la sentencia cacheada para el SQL, preparándola en el servidor la primera vez.
+    //Si la misma sentencia ya está en uso (consultas anidadas) se prepara una nueva sin cachear.
+    PreparedStatement preparar(String sql, int clavesGeneradas) throws SQLException {
+        String clave = clavesGeneradas == Statement.RETURN_GENERATED_KEYS ? "K:" + sql : "N:" + sql;
+
+        Entrada entrada = entradas.get(clave);
+        if (entrada != null && !entrada.enUso) {
+            aciertos.increment();
+            entrada.enUso = true;
+            return envolver(entrada);
+        }
+
+        fallos.increment();
+        PreparedStatement real = clavesGeneradas == Statement.RETURN_GENERATED_KEYS
+                ? conexion.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                : conexion.prepareStatement(sql);
+        if (entrada != null) {
+            return real;
+        }
+
+        entrada = new Entrada(real);
+        entrada.enUso = true;
+        entradas.put(clave, entrada);
+        desalojarExcedentes();
+        return envolver(entrada);
+    }
+
+    int tamanio() {
+        return entradas.size();
+    }
+
+    //Cierra todas las sentencias cacheadas (al descartar la conexión física).
+    void cerrarTodas() {
+        for (Entrada entrada : entradas.values()) {
+            cerrarReal(entrada.real);
+        }
+        entradas.clear();
+    }
+
+    private void desalojarExcedentes() {
+        Iterator<Entrada> it = entradas.values().iterator();
+        List<Entrada> desalojadas = new ArrayList<>();
+        while (entradas.size() - desalojadas.size() > capacidad && it.hasNext()) {
+            Entrada candidata = it.next();
+            if (!candidata.enUso) {
+                desalojadas.add(candidata);
+                it.remove();
+            }
+        }
+        for (Entrada entrada : desalojadas) {
+            cerrarReal(entrada.real);
+        }
+    }
+
+    private void liberar(Entrada entrada) {
+        try {
+            entrada.real.clearParameters();
+            entrada.real.clearBatch();
+            entrada.real.setFetchSize(0);
+            entrada.real.setMaxRows(0);
+            entrada.enUso = false;
+        } catch (SQLException e) {
+            entradas.values().remove(entrada);
+            cerrarReal(entrada.real);
+        }
+    }
+
+    private static void cerrarReal(PreparedStatement ps) {
+        try {
+            ps.close();
+        } catch (SQLException e) {
+            System.err.println("Error al cerrar una sentencia cacheada: " + e.getMessage());
+        }
+    }
+
+    private PreparedStatement envolver(Entrada entrada) {
+        boolean[] cerrada = {false};
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                (proxy, metodo, args) -> {
+                    switch (metodo.getName()) {
+                        case "close":
+                            if (!cerrada[0]) {
+                                cerrada[0] = true;
+                                liberar(entrada);
+                            }
+                            return null;
+                        case "isClosed":
+                            return cerrada[0];
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return entrada.real.toString();
+                        default:
+                            break;
+                    }
+                    if (cerrada[0]) {
+                        throw new SQLException("La sentencia ya fue cerrada.");
+                    }
+                    try {
+                        return metodo.invoke(entrada.real, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private static final class Entrada {
+        private final PreparedStatement real;
+        private boolean enUso;
+
+        private Entrada(PreparedStatement real) {
+            this.real = real;
+        }
+    }
+}
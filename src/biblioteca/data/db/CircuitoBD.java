@@ -0,0 +1,130 @@
+package biblioteca.data.db;
+
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+//Interruptor de circuito para la base de datos.
+//Tras varios fallos consecutivos de conectividad o timeouts se abre y las operaciones fallan de inmediato,
+//en lugar de colgar cada acción del menú. Mientras está abierto, una sonda en segundo plano prueba la base
+//periódicamente y lo cierra en cuanto vuelve a responder.
+public class CircuitoBD {
+
+    public enum Estado { CERRADO, ABIERTO, SEMIABIERTO }
+
+    private int umbralFallos;
+    private long esperaSondaMs;
+    private final Callable<Boolean> sonda;
+    private final ScheduledExecutorService planificador;
+
+    private Estado estado = Estado.CERRADO;
+    private int fallosConsecutivos;
+    private long abiertoDesde;
+
+    public CircuitoBD(int umbralFallos, long esperaSondaMs, Callable<Boolean> sonda, ScheduledExecutorService planificador) {
+        this.umbralFallos = umbralFallos;
+        this.esperaSondaMs = esperaSondaMs;
+        this.sonda = sonda;
+        this.planificador = planificador;
+    }
+
+    //Cambia los parámetros al recargar la configuración; no altera el estado actual del circuito.
+    public synchronized void ajustar(int umbralFallos, long esperaSondaMs) {
+        this.umbralFallos = umbralFallos;
+        this.esperaSondaMs = esperaSondaMs;
+    }
+
+    //Lanza una excepción sin tocar la base si el circuito está abierto.
+    public synchronized void verificar() throws SQLException {
+        if (estado != Estado.CERRADO) {
+            long segundos = Math.max(1, (esperaSondaMs - (System.currentTimeMillis() - abiertoDesde)) / 1000);
+            throw new SQLTransientConnectionException(
+                    "La base de datos no está disponible (circuito abierto tras " + umbralFallos
+                            + " fallos). Se reintentará automáticamente en ~" + segundos + " s.", "08001");
+        }
+    }
+
+    public synchronized void registrarExito() {
+        fallosConsecutivos = 0;
+    }
+
+    //Sólo cuentan los errores de conectividad y los timeouts; una violación de restricción no abre el circuito.
+    public void registrarFallo(SQLException e) {
+        if (!esFalloDeDisponibilidad(e)) return;
+
+        boolean abrir;
+        synchronized (this) {
+            fallosConsecutivos++;
+            abrir = estado == Estado.CERRADO && fallosConsecutivos >= umbralFallos;
+            if (abrir) {
+                estado = Estado.ABIERTO;
+                abiertoDesde = System.currentTimeMillis();
+            }
+        }
+        if (abrir) {
+            System.err.println("Circuito de base de datos ABIERTO: " + e.getMessage());
+            programarSonda();
+        }
+    }
+
+    public synchronized Estado getEstado() {
+        return estado;
+    }
+
+    private void programarSonda() {
+        long espera;
+        synchronized (this) {
+            espera = esperaSondaMs;
+        }
+        try {
+            planificador.schedule(this::sondear, espera, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            // El planificador ya fue cerrado junto con el pool
+        }
+    }
+
+    private void sondear() {
+        synchronized (this) {
+            estado = Estado.SEMIABIERTO;
+        }
+
+        boolean disponible;
+        try {
+            disponible = Boolean.TRUE.equals(sonda.call());
+        } catch (Exception e) {
+            disponible = false;
+        }
+
+        synchronized (this) {
+            if (disponible) {
+                estado = Estado.CERRADO;
+                fallosConsecutivos = 0;
+            } else {
+                estado = Estado.ABIERTO;
+                abiertoDesde = System.currentTimeMillis();
+            }
+        }
+
+        if (disponible) {
+            System.out.println("Circuito de base de datos CERRADO: la base volvió a responder.");
+        } else {
+            programarSonda();
+        }
+    }
+
+    static boolean esFalloDeDisponibilidad(SQLException e) {
+        if (e instanceof SQLTimeoutException
+                || e instanceof SQLTransientConnectionException
+                || e instanceof SQLNonTransientConnectionException
+                || e instanceof SQLRecoverableException) {
+            return true;
+        }
+        String sqlState = e.getSQLState();
+        return sqlState != null && (sqlState.startsWith("08") || sqlState.equals("HYT00") || sqlState.equals("HYT01"));
+    }
+}
@@ -1,47 +1,220 @@
 package biblioteca.data.db;
 
-import biblioteca.data.db.ConfigBD;
-
+import javax.sql.DataSource;
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 //Clase de conexión centralizada para la base de datos MySQL.
+//Las conexiones salen de un pool: cerrarlas (try-with-resources en los DAOs) las devuelve al pool.
+//Hay dos lados: escritura (primaria) y lectura (réplica). Si no se configura réplica, ambos son la primaria.
+//Cada pool tiene su interruptor de circuito: ante una caída de la base las operaciones fallan rápido.
+//Al recargarse la configuración, los pools y sus circuitos adoptan los nuevos tiempos sin reiniciar.
+//Con el perfil embebido cada base se crea en memoria y se carga desde el script inicial al abrir su pool.
+//Al abrir el pool de escritura se aplican las migraciones versionadas pendientes (ver MigradorEsquema).
 public class ConexionBD {
 
-    public static Connection conexion;
+    private static volatile PoolConexiones pool;
+    private static volatile PoolConexiones poolLectura;
+
+    private static final ScheduledExecutorService SONDAS = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "circuito-bd-sonda");
+        t.setDaemon(true);
+        return t;
+    });
+
+    //Un único oyente de recarga para toda la vida de la clase: ajusta los pools vigentes en ese momento, así los
+    //pools cerrados por cerrarConexion no quedan referenciados ni se registra un oyente más por cada pool creado.
+    static {
+        ConfigBD.alRecargar(ConexionBD::ajustarPools);
+    }
 
-    //Devuelve una conexión válida a la base de datos. Si no existe o está cerrada, la crea.
+    //Devuelve una conexión válida del pool de escritura. El pool se crea en el primer uso.
+    //Dentro de una UnidadDeTrabajo devuelve la conexión de la transacción en curso.
     public static Connection getConexion() throws SQLException {
-        if (conexion == null || conexion.isClosed()) {
-            try {
-                Class.forName(ConfigBD.DRIVER);
-                conexion = DriverManager.getConnection(
-                        ConfigBD.URL,
-                        ConfigBD.USUARIO,
-                        ConfigBD.CONTRASENA
-                );
-                System.out.println("Conexión a la base de datos establecida correctamente.");
-            } catch (ClassNotFoundException e) {
-                throw new SQLException("Error: no se encontró el driver JDBC (" + ConfigBD.DRIVER + ")", e);
-            } catch (SQLException e) {
-                throw new SQLException("Error al conectar a la base de datos: " + e.getMessage(), e);
+        Connection enCurso = UnidadDeTrabajo.conexionEnCurso();
+        if (enCurso != null) {
+            return enCurso;
+        }
+        return getPool().getConnection();
+    }
+
+    //Devuelve una conexión del lado de lectura, para listados y reportes.
+    //Dentro de una UnidadDeTrabajo se usa la conexión de la transacción para leer lo propio ya escrito.
+    public static Connection getConexionLectura() throws SQLException {
+        Connection enCurso = UnidadDeTrabajo.conexionEnCurso();
+        if (enCurso != null) {
+            return enCurso;
+        }
+        return getPoolLectura().getConnection();
+    }
+
+    public static DataSource getDataSourceEscritura() throws SQLException {
+        return getPool();
+    }
+
+    public static DataSource getDataSourceLectura() throws SQLException {
+        return getPoolLectura();
+    }
+
+    public static boolean hayReplicaLectura() {
+        return !ConfigBD.actual().getUrlLectura().isBlank();
+    }
+
+    //Devuelve el pool de escritura, inicializándolo si todavía no existe.
+    public static PoolConexiones getPool() throws SQLException {
+        PoolConexiones actual = pool;
+        if (actual != null) {
+            return actual;
+        }
+
+        synchronized (ConexionBD.class) {
+            if (pool == null) {
+                ConfigBD config = ConfigBD.actual();
+                pool = crearPool("escritura", config, config.getUrl(), config.getUsuario(), config.getContrasena(), true);
+                ConfigBD.vigilarArchivo();
+                Metricas.iniciarReporte(config.getMetricasIntervaloReporteMs());
+                System.out.println("Pool de conexiones a la base de datos inicializado correctamente.");
             }
+            return pool;
         }
-        return conexion;
     }
 
-    //Cierra la conexión activa si existe.
-    public static void cerrarConexion() {
-        if (conexion != null) {
-            try {
-                if (!conexion.isClosed()) {
-                    conexion.close();
-                    System.out.println("Conexión a la base de datos cerrada correctamente.");
+    //Devuelve el pool de lectura; sin réplica configurada es el mismo pool de escritura.
+    public static PoolConexiones getPoolLectura() throws SQLException {
+        if (!hayReplicaLectura()) {
+            return getPool();
+        }
+
+        PoolConexiones actual = poolLectura;
+        if (actual != null) {
+            return actual;
+        }
+
+        synchronized (ConexionBD.class) {
+            if (poolLectura == null) {
+                ConfigBD config = ConfigBD.actual();
+                poolLectura = crearPool("lectura", config, config.getUrlLectura(), config.getUsuarioLectura(), config.getContrasenaLectura(), false);
+                System.out.println("Pool de conexiones a la réplica de lectura inicializado correctamente.");
+            }
+            return poolLectura;
+        }
+    }
+
+    //Sólo el pool de escritura migra el esquema: la réplica recibe los cambios por replicación.
+    private static PoolConexiones crearPool(String nombre, ConfigBD config, String url, String usuario, String contrasena,
+                                            boolean migrar) throws SQLException {
+        try {
+            Class.forName(config.getDriver());
+            DriverManager.setLoginTimeout(config.getTimeoutConexionSeg());
+            CircuitoBD circuito = new CircuitoBD(
+                    config.getCircuitoUmbralFallos(),
+                    config.getCircuitoEsperaSondaMs(),
+                    () -> sondear(url, usuario, contrasena),
+                    SONDAS
+            );
+            PoolConexiones nuevo = new PoolConexiones(
+                    nombre,
+                    url,
+                    usuario,
+                    contrasena,
+                    config.getPoolMinimo(),
+                    config.getPoolMaximo(),
+                    config.getPoolTimeoutEsperaMs(),
+                    config.getPoolTiempoMaxInactivaMs(),
+                    config.getPoolIntervaloLimpiezaMs(),
+                    config.getPoolTimeoutValidacionSeg(),
+                    config.getCacheSentenciasPorConexion(),
+                    circuito
+            );
+            if (config.isEmbebido()) {
+                inicializarEmbebida(nuevo, config.getScriptInicial());
+            }
+            if (migrar) {
+                migrarEsquema(nuevo, config);
+            }
+            return nuevo;
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("Error: no se encontró el driver JDBC (" + config.getDriver() + ")", e);
+        } catch (SQLException e) {
+            throw new SQLException("Error al conectar a la base de datos: " + e.getMessage(), e);
+        }
+    }
+
+    //Los pools y sus circuitos adoptan los tiempos de la configuración recargada; el tamaño no cambia.
+    private static void ajustarPools(ConfigBD nueva) {
+        DriverManager.setLoginTimeout(nueva.getTimeoutConexionSeg());
+        for (PoolConexiones actual : new PoolConexiones[]{pool, poolLectura}) {
+            if (actual == null) continue;
+            actual.ajustar(nueva.getPoolTimeoutEsperaMs(), nueva.getPoolTiempoMaxInactivaMs(), nueva.getPoolTimeoutValidacionSeg());
+            CircuitoBD circuito = actual.getCircuito();
+            if (circuito != null) {
+                circuito.ajustar(nueva.getCircuitoUmbralFallos(), nueva.getCircuitoEsperaSondaMs());
+            }
+        }
+    }
+
+    //Sonda del circuito: abre una conexión física nueva, fuera del pool, y comprueba que responda.
+    private static boolean sondear(String url, String usuario, String contrasena) throws SQLException {
+        ConfigBD config = ConfigBD.actual();
+        try (Connection conn = DriverManager.getConnection(url, config.propiedadesConexion(url, usuario, contrasena))) {
+            return conn.isValid(config.getTimeoutConexionSeg());
+        }
+    }
+
+    //Aplica las migraciones pendientes del directorio configurado; sin directorio no hace nada.
+    private static void migrarEsquema(PoolConexiones nuevo, ConfigBD config) throws SQLException {
+        String directorio = config.getDirectorioMigraciones();
+        if (directorio.isBlank()) return;
+
+        try (Connection conn = nuevo.getConnection()) {
+            MigradorEsquema.migrar(conn, Path.of(config.getScriptInicial()), Path.of(directorio));
+        } catch (SQLException e) {
+            nuevo.cerrar();
+            throw e;
+        }
+    }
+
+    //Aplica el esquema y los datos iniciales si la base embebida todavía está vacía.
+    private static void inicializarEmbebida(PoolConexiones nuevo, String script) throws SQLException {
+        try (Connection conn = nuevo.getConnection()) {
+            boolean existe;
+            try (ResultSet rs = conn.getMetaData().getTables(null, null, "%", new String[]{"TABLE"})) {
+                existe = false;
+                while (rs.next()) {
+                    if ("Usuario".equalsIgnoreCase(rs.getString("TABLE_NAME"))) {
+                        existe = true;
+                        break;
+                    }
                 }
-            } catch (SQLException e) {
-                System.err.println("Error al cerrar la conexión: " + e.getMessage());
+            }
+            if (existe) return;
+
+            int sentencias = EjecutorScript.ejecutar(conn, Path.of(script), ConfigBD.SCRIPT_MARCADOR_FIN);
+            System.out.println("Base embebida inicializada desde " + script + " (" + sentencias + " sentencias).");
+        } catch (SQLException e) {
+            nuevo.cerrar();
+            throw e;
+        }
+    }
+
+    //Cierra los pools y todas sus conexiones físicas, si existen.
+    public static void cerrarConexion() {
+        synchronized (ConexionBD.class) {
+            if (poolLectura != null) {
+                poolLectura.cerrar();
+                poolLectura = null;
+            }
+            if (pool != null) {
+                pool.cerrar();
+                pool = null;
+                Metricas.detenerReporte();
+                System.out.println("Conexiones a la base de datos cerradas correctamente.");
             }
         }
     }
-}
\ No newline at end of file
+}
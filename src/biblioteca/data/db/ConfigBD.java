@@ -1,9 +1,583 @@
 package biblioteca.data.db;
 
-public class ConfigBD {
-    public static final String URL = "jdbc:mysql://localhost:3306/biblioteca_db";
-    public static final String USUARIO = "root";
-    public static final String CONTRASENA = "root1234";
-    public static final String DRIVER = "com.mysql.cj.jdbc.Driver";
-}
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+//Configuración de la base de datos, del pool y de los ajustes de rendimiento.
+//Cada clave se resuelve, de menor a mayor prioridad, desde: el valor por defecto, el archivo biblioteca.properties
+//(otro con -Dbiblioteca.config o BIBLIOTECA_CONFIG), la variable de entorno (pool.maximo -> BIBLIOTECA_POOL_MAXIMO)
+//y la propiedad del sistema (-Dbiblioteca.pool.maximo=20).
+//Cada instancia es una foto inmutable y validada; ConfigBD.actual() devuelve la vigente.
+//Los ajustes de rendimiento (timeouts, circuito, fetch size, tamaño de lote, umbral de lentitud) se recargan en caliente cuando cambia
+//el archivo; los estructurales (perfil, URLs, credenciales, driver, tamaños de pool y caché) requieren reiniciar.
+public final class ConfigBD {
+
+    // La carga del script inicial se detiene en la sección de consultas de ejemplo
+    public static final String SCRIPT_MARCADOR_FIN = "Consultas";
+
+    private static final String URL_MYSQL = "jdbc:mysql://localhost:3306/biblioteca_db";
+    private static final String URL_EMBEBIDA = "jdbc:h2:mem:biblioteca_db;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private static volatile ConfigBD actual;
+    private static final List<Consumer<ConfigBD>> OYENTES = new CopyOnWriteArrayList<>();
+    private static ScheduledExecutorService vigilante;
+    private static long ultimaModificacion;
+
+    // Estructurales: se leen una vez al arrancar
+    private final Path archivo;
+    private final String perfil;
+    private final boolean embebido;
+    private final String url;
+    private final String usuario;
+    private final String contrasena;
+    private final String driver;
+    private final String urlLectura;
+    private final String usuarioLectura;
+    private final String contrasenaLectura;
+    private final String scriptInicial;
+    private final String directorioMigraciones;
+    private final int poolMinimo;
+    private final int poolMaximo;
+    private final long poolIntervaloLimpiezaMs;
+    private final int cacheSentenciasPorConexion;
+    private final long intervaloRecargaMs;
+    private final long metricasIntervaloReporteMs;
+    private final String consultasLentasArchivo;
+    private final long vencimientosIntervaloMs;
+    private final long disponibilidadReconciliacionIntervaloMs;
+    private final long historialArchivoIntervaloMs;
+    private final int historialMesesActivos;
+    private final int historialArchivoRetencionMeses;
+
+    // Ajustes de rendimiento: se pueden recargar en caliente
+    private final long poolTimeoutEsperaMs;
+    private final long poolTiempoMaxInactivaMs;
+    private final int poolTimeoutValidacionSeg;
+    private final int timeoutConexionSeg;
+    private final int timeoutConsultaSeg;
+    private final Map<String, Integer> timeoutsPorOperacion;
+    private final int circuitoUmbralFallos;
+    private final long circuitoEsperaSondaMs;
+    private final int tamanioFetch;
+    private final int tamanioFetchCursor;
+    private final int tamanioLote;
+    private final int tamanioListaIn;
+    private final long consultasLentasUmbralMs;
+
+    private ConfigBD(Path archivo, Properties archivoProps) {
+        Lector l = new Lector(archivoProps);
+        this.archivo = archivo;
+
+        this.perfil = l.texto("perfil", "mysql");
+        this.embebido = "embebido".equalsIgnoreCase(perfil);
+        if (!embebido && !"mysql".equalsIgnoreCase(perfil)) {
+            l.errores.add("perfil: se espera 'mysql' o 'embebido' y se recibió '" + perfil + "'");
+        }
+
+        // Parámetros del driver MySQL que se agregan a las URLs
+        boolean sentenciasEnServidor = l.booleano("mysql.useServerPrepStmts", true);
+        boolean lotesReescritos = l.booleano("mysql.rewriteBatchedStatements", true);
+
+        // Filas por viaje en los recorridos con Stream; -1 = fila por fila (Integer.MIN_VALUE, streaming de MySQL).
+        // Un valor positivo necesita useCursorFetch=true en la URL: sin eso Connector/J trae todo el resultado
+        this.tamanioFetchCursor = l.entero("cursor.fetch.size", 500, -1);
+        boolean cursorEnServidor = tamanioFetchCursor > 0;
+
+        this.timeoutConexionSeg = l.entero("timeout.conexion.seg", 5, 0);
+        this.url = parametrosMysql(l.texto("url", embebido ? URL_EMBEBIDA : URL_MYSQL), sentenciasEnServidor, lotesReescritos,
+                cursorEnServidor);
+        this.usuario = l.texto("usuario", embebido ? "sa" : "root");
+        this.contrasena = l.texto("contrasena", embebido ? "" : "root1234");
+        this.driver = l.texto("driver", embebido ? "org.h2.Driver" : "com.mysql.cj.jdbc.Driver");
+        if (url.isBlank()) l.errores.add("url: no puede estar vacía");
+        if (driver.isBlank()) l.errores.add("driver: no puede estar vacío");
+
+        // Réplica de lectura para listados y reportes; vacío = se lee de la primaria
+        this.urlLectura = parametrosMysql(l.texto("url.lectura", ""), sentenciasEnServidor, lotesReescritos,
+                cursorEnServidor);
+        this.usuarioLectura = l.texto("usuario.lectura", usuario);
+        this.contrasenaLectura = l.texto("contrasena.lectura", contrasena);
+
+        // Script con esquema y datos iniciales que se aplica al arrancar una base embebida
+        this.scriptInicial = l.texto("script", "db_biblioteca.sql");
+
+        // Migraciones versionadas (V002__descripcion.sql, ...) que se aplican al abrir el pool de escritura; vacío = ninguna
+        this.directorioMigraciones = l.texto("migraciones.directorio", "migraciones");
+
+        this.poolMinimo = l.entero("pool.minimo", 2, 0);
+        this.poolMaximo = l.entero("pool.maximo", 10, 1);
+        if (poolMinimo > poolMaximo) {
+            l.errores.add("pool.minimo (" + poolMinimo + ") no puede superar a pool.maximo (" + poolMaximo + ")");
+        }
+        this.poolIntervaloLimpiezaMs = l.largo("pool.intervalo.limpieza.ms", 60_000, 1);
+        this.poolTimeoutEsperaMs = l.largo("pool.timeout.espera.ms", 5_000, 1);
+        this.poolTiempoMaxInactivaMs = l.largo("pool.tiempo.max.inactiva.ms", 300_000, 0);
+        this.poolTimeoutValidacionSeg = l.entero("pool.timeout.validacion.seg", 2, 0);
+
+        // Sentencias preparadas cacheadas por conexión física (LRU); 0 desactiva la caché
+        this.cacheSentenciasPorConexion = l.entero("cache.sentencias.por.conexion", 64, 0);
+
+        // Timeout por consulta y presupuestos propios por operación DAO ("ClaseDAO.metodo=segundos,...")
+        this.timeoutConsultaSeg = l.entero("timeout.consulta.seg", 10, 0);
+        Map<String, Integer> porOperacion = Map.of();
+        String definicion = l.texto("timeouts.por.operacion",
+                "PrestamoDAO.listarTodos=30,HistorialDAO.listarTodos=30,NotificacionesDAO.listarTodos=30");
+        try {
+            porOperacion = Map.copyOf(TiemposEspera.parsear(definicion));
+        } catch (IllegalArgumentException e) {
+            l.errores.add("timeouts.por.operacion: " + e.getMessage());
+        }
+        this.timeoutsPorOperacion = porOperacion;
+
+        // Interruptor de circuito: fallos consecutivos para abrirlo y espera entre sondas de recuperación
+        this.circuitoUmbralFallos = l.entero("circuito.umbral.fallos", 3, 1);
+        this.circuitoEsperaSondaMs = l.largo("circuito.espera.sonda.ms", 10_000, 1);
+
+        // Filas por viaje al leer resultados (0 = lo que decida el driver) y sentencias por lote en inserciones masivas
+        this.tamanioFetch = l.entero("consulta.fetch.size", 0, 0);
+        this.tamanioLote = l.entero("lote.tamanio", 100, 1);
+
+        // Ids por consulta en las búsquedas masivas por clave (IN (?, ?, ...)); más ids se parten en varias consultas
+        this.tamanioListaIn = l.entero("consulta.in.tamanio", 500, 1);
+
+        // Cada cuánto se revisa si cambió el archivo; 0 desactiva la recarga en caliente
+        this.intervaloRecargaMs = l.largo("config.intervalo.recarga.ms", 5_000, 0);
+
+        // Cada cuánto se escriben las métricas en el log "biblioteca.metricas"; 0 no las reporta
+        this.metricasIntervaloReporteMs = l.largo("metricas.intervalo.reporte.ms", 0, 0);
+
+        // Log de consultas lentas: umbral (0 lo desactiva) y archivo de destino
+        this.consultasLentasUmbralMs = l.largo("consultas.lentas.umbral.ms", 500, 0);
+        this.consultasLentasArchivo = l.texto("consultas.lentas.archivo", "consultas-lentas.log");
+
+        // Cada cuánto la tarea de vencimientos pasa a VENCIDO los préstamos atrasados; 0 no la programa
+        this.vencimientosIntervaloMs = l.largo("vencimientos.intervalo.ms", 3_600_000, 0);
+
+        // Cada cuánto se comparan los contadores de disponibilidad con los ejemplares y se corrigen; 0 no la programa
+        this.disponibilidadReconciliacionIntervaloMs = l.largo("disponibilidad.reconciliacion.intervalo.ms", 86_400_000, 0);
+
+        // Archivo del historial: cada cuánto corre (0 no la programa), meses cerrados que quedan en Historial
+        // y meses que se conservan en HistorialArchivo antes de borrarse (0 = sin límite)
+        this.historialArchivoIntervaloMs = l.largo("historial.archivo.intervalo.ms", 86_400_000, 0);
+        this.historialMesesActivos = l.entero("historial.meses.activos", 12, 0);
+        this.historialArchivoRetencionMeses = l.entero("historial.archivo.retencion.meses", 0, 0);
+        if (historialArchivoRetencionMeses > 0 && historialArchivoRetencionMeses <= historialMesesActivos) {
+            l.errores.add("historial.archivo.retencion.meses: debe ser mayor que historial.meses.activos ("
+                    + historialMesesActivos + ") o 0");
+        }
+
+        if (!l.errores.isEmpty()) {
+            throw new IllegalStateException("Configuración de base de datos inválida ("
+                    + archivo + "):\n  - " + String.join("\n  - ", l.errores));
+        }
+    }
+
+    //Copia los valores estructurales de base y los ajustes de rendimiento de nueva.
+    private ConfigBD(ConfigBD base, ConfigBD nueva) {
+        this.archivo = base.archivo;
+        this.perfil = base.perfil;
+        this.embebido = base.embebido;
+        this.url = base.url;
+        this.usuario = base.usuario;
+        this.contrasena = base.contrasena;
+        this.driver = base.driver;
+        this.urlLectura = base.urlLectura;
+        this.usuarioLectura = base.usuarioLectura;
+        this.contrasenaLectura = base.contrasenaLectura;
+        this.scriptInicial = base.scriptInicial;
+        this.directorioMigraciones = base.directorioMigraciones;
+        this.poolMinimo = base.poolMinimo;
+        this.poolMaximo = base.poolMaximo;
+        this.poolIntervaloLimpiezaMs = base.poolIntervaloLimpiezaMs;
+        this.cacheSentenciasPorConexion = base.cacheSentenciasPorConexion;
+        this.intervaloRecargaMs = base.intervaloRecargaMs;
+        this.metricasIntervaloReporteMs = base.metricasIntervaloReporteMs;
+        this.consultasLentasArchivo = base.consultasLentasArchivo;
+        this.vencimientosIntervaloMs = base.vencimientosIntervaloMs;
+        this.disponibilidadReconciliacionIntervaloMs = base.disponibilidadReconciliacionIntervaloMs;
+        this.historialArchivoIntervaloMs = base.historialArchivoIntervaloMs;
+        this.historialMesesActivos = base.historialMesesActivos;
+        this.historialArchivoRetencionMeses = base.historialArchivoRetencionMeses;
+
+        this.poolTimeoutEsperaMs = nueva.poolTimeoutEsperaMs;
+        this.poolTiempoMaxInactivaMs = nueva.poolTiempoMaxInactivaMs;
+        this.poolTimeoutValidacionSeg = nueva.poolTimeoutValidacionSeg;
+        this.timeoutConexionSeg = nueva.timeoutConexionSeg;
+        this.timeoutConsultaSeg = nueva.timeoutConsultaSeg;
+        this.timeoutsPorOperacion = nueva.timeoutsPorOperacion;
+        this.circuitoUmbralFallos = nueva.circuitoUmbralFallos;
+        this.circuitoEsperaSondaMs = nueva.circuitoEsperaSondaMs;
+        this.tamanioFetch = nueva.tamanioFetch;
+        // Pasar de tandas a fila por fila (o al revés) cambia useCursorFetch en la URL: eso espera al reinicio
+        this.tamanioFetchCursor = (nueva.tamanioFetchCursor > 0) == (base.tamanioFetchCursor > 0)
+                ? nueva.tamanioFetchCursor : base.tamanioFetchCursor;
+        this.tamanioLote = nueva.tamanioLote;
+        this.tamanioListaIn = nueva.tamanioListaIn;
+        this.consultasLentasUmbralMs = nueva.consultasLentasUmbralMs;
+    }
+
+    //Configuración vigente. La primera llamada la carga y valida; si es inválida lanza IllegalStateException.
+    public static ConfigBD actual() {
+        ConfigBD config = actual;
+        if (config != null) {
+            return config;
+        }
+        synchronized (ConfigBD.class) {
+            if (actual == null) {
+                Path archivo = archivoConfiguracion();
+                actual = new ConfigBD(archivo, leerArchivo(archivo));
+                ultimaModificacion = modificacion(archivo);
+            }
+            return actual;
+        }
+    }
+
+    //Vuelve a leer la configuración y aplica sólo los ajustes de rendimiento.
+    //Si los valores nuevos son inválidos se informa y se conserva la configuración vigente.
+    public static ConfigBD recargar() {
+        ConfigBD anterior = actual();
+        ConfigBD leida;
+        try {
+            leida = new ConfigBD(anterior.archivo, leerArchivo(anterior.archivo));
+        } catch (IllegalStateException e) {
+            System.err.println("No se aplicó la recarga de configuración. " + e.getMessage());
+            return anterior;
+        }
+
+        List<String> ignoradas = anterior.diferenciasEstructurales(leida);
+        if (!ignoradas.isEmpty()) {
+            System.err.println("Cambios de configuración que requieren reiniciar (se ignoran por ahora): "
+                    + String.join(", ", ignoradas));
+        }
+
+        ConfigBD nueva = new ConfigBD(anterior, leida);
+        synchronized (ConfigBD.class) {
+            actual = nueva;
+        }
+        for (Consumer<ConfigBD> oyente : OYENTES) {
+            oyente.accept(nueva);
+        }
+        System.out.println("Configuración de base de datos recargada desde " + anterior.archivo + ".");
+        return nueva;
+    }
+
+    //Registra una acción a ejecutar con cada configuración recargada (por ejemplo, ajustar un pool en uso).
+    public static void alRecargar(Consumer<ConfigBD> oyente) {
+        OYENTES.add(oyente);
+    }
+
+    //Revisa periódicamente el archivo de configuración y lo recarga cuando cambia. Es idempotente.
+    public static synchronized void vigilarArchivo() {
+        ConfigBD config = actual();
+        if (vigilante != null || config.intervaloRecargaMs == 0) {
+            return;
+        }
+        vigilante = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "config-bd-recarga");
+            t.setDaemon(true);
+            return t;
+        });
+        vigilante.scheduleWithFixedDelay(() -> {
+            long modificacion = modificacion(config.archivo);
+            if (modificacion != ultimaModificacion) {
+                ultimaModificacion = modificacion;
+                recargar();
+            }
+        }, config.intervaloRecargaMs, config.intervaloRecargaMs, TimeUnit.MILLISECONDS);
+    }
+
+    private List<String> diferenciasEstructurales(ConfigBD otra) {
+        List<String> claves = new ArrayList<>();
+        if (!perfil.equalsIgnoreCase(otra.perfil)) claves.add("perfil");
+        if ((tamanioFetchCursor > 0) != (otra.tamanioFetchCursor > 0)) claves.add("cursor.fetch.size");
+        if (!url.equals(otra.url)) claves.add("url");
+        if (!usuario.equals(otra.usuario) || !contrasena.equals(otra.contrasena)) claves.add("credenciales");
+        if (!driver.equals(otra.driver)) claves.add("driver");
+        if (!urlLectura.equals(otra.urlLectura)) claves.add("url.lectura");
+        if (!usuarioLectura.equals(otra.usuarioLectura) || !contrasenaLectura.equals(otra.contrasenaLectura)) {
+            claves.add("credenciales de lectura");
+        }
+        if (!scriptInicial.equals(otra.scriptInicial)) claves.add("script");
+        if (!directorioMigraciones.equals(otra.directorioMigraciones)) claves.add("migraciones.directorio");
+        if (poolMinimo != otra.poolMinimo) claves.add("pool.minimo");
+        if (poolMaximo != otra.poolMaximo) claves.add("pool.maximo");
+        if (poolIntervaloLimpiezaMs != otra.poolIntervaloLimpiezaMs) claves.add("pool.intervalo.limpieza.ms");
+        if (cacheSentenciasPorConexion != otra.cacheSentenciasPorConexion) claves.add("cache.sentencias.por.conexion");
+        if (intervaloRecargaMs != otra.intervaloRecargaMs) claves.add("config.intervalo.recarga.ms");
+        if (metricasIntervaloReporteMs != otra.metricasIntervaloReporteMs) claves.add("metricas.intervalo.reporte.ms");
+        if (!consultasLentasArchivo.equals(otra.consultasLentasArchivo)) claves.add("consultas.lentas.archivo");
+        if (vencimientosIntervaloMs != otra.vencimientosIntervaloMs) claves.add("vencimientos.intervalo.ms");
+        if (disponibilidadReconciliacionIntervaloMs != otra.disponibilidadReconciliacionIntervaloMs) {
+            claves.add("disponibilidad.reconciliacion.intervalo.ms");
+        }
+        if (historialArchivoIntervaloMs != otra.historialArchivoIntervaloMs) claves.add("historial.archivo.intervalo.ms");
+        if (historialMesesActivos != otra.historialMesesActivos) claves.add("historial.meses.activos");
+        if (historialArchivoRetencionMeses != otra.historialArchivoRetencionMeses) {
+            claves.add("historial.archivo.retencion.meses");
+        }
+        return claves;
+    }
+
+    private static Path archivoConfiguracion() {
+        String ruta = System.getProperty("biblioteca.config", System.getenv("BIBLIOTECA_CONFIG"));
+        return Path.of(ruta != null && !ruta.isBlank() ? ruta : "biblioteca.properties");
+    }
+
+    private static Properties leerArchivo(Path archivo) {
+        Properties props = new Properties();
+        if (!Files.exists(archivo)) {
+            return props;
+        }
+        try (Reader lector = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            props.load(lector);
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo leer la configuración " + archivo + ": " + e.getMessage(), e);
+        }
+        return props;
+    }
+
+    private static long modificacion(Path archivo) {
+        try {
+            return Files.exists(archivo) ? Files.getLastModifiedTime(archivo).toMillis() : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    //Agrega a una URL de MySQL los parámetros del driver que no traiga ya definidos.
+    private String parametrosMysql(String base, boolean sentenciasEnServidor, boolean lotesReescritos,
+                                   boolean cursorEnServidor) {
+        if (!base.startsWith("jdbc:mysql:")) {
+            return base;
+        }
+        String resultado = agregarParametro(base, "useServerPrepStmts", String.valueOf(sentenciasEnServidor));
+        resultado = agregarParametro(resultado, "rewriteBatchedStatements", String.valueOf(lotesReescritos));
+        if (cursorEnServidor) {
+            resultado = agregarParametro(resultado, "useCursorFetch", "true");
+        }
+        return resultado;
+    }
+
+    //Propiedades para abrir una conexión física a la URL dada. timeout.conexion.seg se recarga en caliente, así que
+    //no va en la URL (cambiarla exige reiniciar) sino acá: con MySQL como connectTimeout, que Connector/J usa en
+    //lugar de DriverManager.setLoginTimeout; los demás drivers toman el de DriverManager.
+    public Properties propiedadesConexion(String url, String usuario, String contrasena) {
+        Properties propiedades = new Properties();
+        propiedades.setProperty("user", usuario);
+        propiedades.setProperty("password", contrasena);
+        if (url.startsWith("jdbc:mysql:")) {
+            propiedades.setProperty("connectTimeout", String.valueOf(timeoutConexionSeg * 1000));
+        }
+        return propiedades;
+    }
+
+    private static String agregarParametro(String url, String nombre, String valor) {
+        if (url.contains("?" + nombre + "=") || url.contains("&" + nombre + "=")) {
+            return url;
+        }
+        return url + (url.contains("?") ? "&" : "?") + nombre + "=" + valor;
+    }
 
+    public Path getArchivo() {
+        return archivo;
+    }
+
+    public String getPerfil() {
+        return perfil;
+    }
+
+    public boolean isEmbebido() {
+        return embebido;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getUsuario() {
+        return usuario;
+    }
+
+    public String getContrasena() {
+        return contrasena;
+    }
+
+    public String getDriver() {
+        return driver;
+    }
+
+    public String getUrlLectura() {
+        return urlLectura;
+    }
+
+    public String getUsuarioLectura() {
+        return usuarioLectura;
+    }
+
+    public String getContrasenaLectura() {
+        return contrasenaLectura;
+    }
+
+    public String getScriptInicial() {
+        return scriptInicial;
+    }
+
+    public String getDirectorioMigraciones() {
+        return directorioMigraciones;
+    }
+
+    public int getPoolMinimo() {
+        return poolMinimo;
+    }
+
+    public int getPoolMaximo() {
+        return poolMaximo;
+    }
+
+    public long getPoolIntervaloLimpiezaMs() {
+        return poolIntervaloLimpiezaMs;
+    }
+
+    public int getCacheSentenciasPorConexion() {
+        return cacheSentenciasPorConexion;
+    }
+
+    public long getMetricasIntervaloReporteMs() {
+        return metricasIntervaloReporteMs;
+    }
+
+    public String getConsultasLentasArchivo() {
+        return consultasLentasArchivo;
+    }
+
+    public long getVencimientosIntervaloMs() {
+        return vencimientosIntervaloMs;
+    }
+
+    public long getDisponibilidadReconciliacionIntervaloMs() {
+        return disponibilidadReconciliacionIntervaloMs;
+    }
+
+    public long getHistorialArchivoIntervaloMs() {
+        return historialArchivoIntervaloMs;
+    }
+
+    public int getHistorialMesesActivos() {
+        return historialMesesActivos;
+    }
+
+    public int getHistorialArchivoRetencionMeses() {
+        return historialArchivoRetencionMeses;
+    }
+
+    public long getPoolTimeoutEsperaMs() {
+        return poolTimeoutEsperaMs;
+    }
+
+    public long getPoolTiempoMaxInactivaMs() {
+        return poolTiempoMaxInactivaMs;
+    }
+
+    public int getPoolTimeoutValidacionSeg() {
+        return poolTimeoutValidacionSeg;
+    }
+
+    public int getTimeoutConexionSeg() {
+        return timeoutConexionSeg;
+    }
+
+    public int getTimeoutConsultaSeg() {
+        return timeoutConsultaSeg;
+    }
+
+    public Map<String, Integer> getTimeoutsPorOperacion() {
+        return timeoutsPorOperacion;
+    }
+
+    public int getCircuitoUmbralFallos() {
+        return circuitoUmbralFallos;
+    }
+
+    public long getCircuitoEsperaSondaMs() {
+        return circuitoEsperaSondaMs;
+    }
+
+    public int getTamanioFetch() {
+        return tamanioFetch;
+    }
+
+    public int getTamanioFetchCursor() {
+        return tamanioFetchCursor;
+    }
+
+    public int getTamanioLote() {
+        return tamanioLote;
+    }
+
+    public int getTamanioListaIn() {
+        return tamanioListaIn;
+    }
+
+    public long getConsultasLentasUmbralMs() {
+        return consultasLentasUmbralMs;
+    }
+
+    //Resuelve cada clave según la prioridad descripta arriba y acumula los errores de validación.
+    private static final class Lector {
+        private final Properties archivo;
+        private final List<String> errores = new ArrayList<>();
+
+        private Lector(Properties archivo) {
+            this.archivo = archivo;
+        }
+
+        private String texto(String clave, String porDefecto) {
+            String valor = System.getProperty("biblioteca." + clave);
+            if (valor == null) valor = System.getenv("BIBLIOTECA_" + clave.toUpperCase().replace('.', '_'));
+            if (valor == null) valor = archivo.getProperty(clave);
+            return valor != null ? valor.strip() : porDefecto;
+        }
+
+        private int entero(String clave, int porDefecto, int minimo) {
+            return (int) largo(clave, porDefecto, minimo);
+        }
+
+        private long largo(String clave, long porDefecto, long minimo) {
+            String valor = texto(clave, null);
+            if (valor == null) return porDefecto;
+            try {
+                long numero = Long.parseLong(valor.replace("_", ""));
+                if (numero < minimo) {
+                    errores.add(clave + ": debe ser mayor o igual a " + minimo + " y se recibió " + numero);
+                    return porDefecto;
+                }
+                return numero;
+            } catch (NumberFormatException e) {
+                errores.add(clave + ": se esperaba un número y se recibió '" + valor + "'");
+                return porDefecto;
+            }
+        }
+
+        private boolean booleano(String clave, boolean porDefecto) {
+            String valor = texto(clave, null);
+            if (valor == null) return porDefecto;
+            if (!valor.equalsIgnoreCase("true") && !valor.equalsIgnoreCase("false")) {
+                errores.add(clave + ": se esperaba true o false y se recibió '" + valor + "'");
+                return porDefecto;
+            }
+            return Boolean.parseBoolean(valor);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package biblioteca.data.db;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+//Ejecuta scripts SQL (como db_biblioteca.sql) sentencia por sentencia sobre una conexión.
+public class EjecutorScript {
+
+    //Sentencias propias de la sesión de MySQL que no aplican a una base embebida ya seleccionada.
+    private static final List<String> PREFIJOS_OMITIDOS = List.of("CREATE DATABASE", "USE ", "SET SQL_SAFE_UPDATES");
+
+    //Lee el script y lo divide en sentencias, ignorando comentarios "--" y respetando literales entre comillas.
+    //Si marcadorFin no es null, la lectura se detiene en la primera línea de comentario que lo contenga.
+    public static List<String> leerSentencias(Path script, String marcadorFin) throws IOException {
+        List<String> sentencias = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean enComillas = false;
+
+        for (String linea : Files.readAllLines(script, StandardCharsets.UTF_8)) {
+            String recortada = linea.strip();
+            if (!enComillas && recortada.startsWith("--")) {
+                if (marcadorFin != null && recortada.contains(marcadorFin)) break;
+                continue;
+            }
+
+            for (int i = 0; i < linea.length(); i++) {
+                char c = linea.charAt(i);
+                if (c == '\'') {
+                    enComillas = !enComillas;
+                } else if (!enComillas && c == '-' && i + 1 < linea.length() && linea.charAt(i + 1) == '-') {
+                    break;
+                } else if (!enComillas && c == ';') {
+                    agregar(sentencias, actual);
+                    actual.setLength(0);
+                    continue;
+                }
+                actual.append(c);
+            }
+            actual.append('\n');
+        }
+        agregar(sentencias, actual);
+        return sentencias;
+    }
+
+    //Ejecuta las sentencias del script en orden, omitiendo las de selección de base de datos.
+    public static int ejecutar(Connection conn, Path script, String marcadorFin) throws SQLException {
+        List<String> sentencias;
+        try {
+            sentencias = leerSentencias(script, marcadorFin);
+        } catch (IOException e) {
+            throw new SQLException("No se pudo leer el script " + script + ": " + e.getMessage(), e);
+        }
+
+        int ejecutadas = 0;
+        try (Statement st = conn.createStatement()) {
+            for (String sql : sentencias) {
+                if (esOmitida(sql)) continue;
+                try {
+                    st.execute(sql);
+                    ejecutadas++;
+                } catch (SQLException e) {
+                    throw new SQLException("Error en la sentencia del script " + script.getFileName()
+                            + ": " + e.getMessage() + "\n" + sql, e.getSQLState(), e);
+                }
+            }
+        }
+        return ejecutadas;
+    }
+
+    private static boolean esOmitida(String sql) {
+        String normalizada = sql.toUpperCase(Locale.ROOT);
+        for (String prefijo : PREFIJOS_OMITIDOS) {
+            if (normalizada.startsWith(prefijo)) return true;
+        }
+        return false;
+    }
+
+    private static void agregar(List<String> sentencias, StringBuilder actual) {
+        String sql = actual.toString().strip();
+        if (!sql.isEmpty()) sentencias.add(sql);
+    }
+}
@@ -0,0 +1,96 @@
+package biblioteca.data.db;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+//Utilidades para registrar SQL sin exponer datos: huella normalizada de la sentencia
+//y enmascarado de los valores enlazados a columnas con datos personales.
+public final class HuellaSQL {
+
+    private static final Pattern LITERAL_TEXTO = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern LITERAL_NUMERO = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+    private static final Pattern LISTA_IN = Pattern.compile("in \\( ?\\?(?: ?, ?\\?)* ?\\)");
+    private static final Pattern INSERT = Pattern.compile(
+            "(?is)insert\\s+into\\s+[\\w.]+\\s*\\(([^)]*)\\)\\s*values\\s*\\((.*)\\)");
+    private static final Pattern COLUMNA_ANTES = Pattern.compile(
+            "(?is)([\\w.]+)\\s*(?:=|<>|!=|<=|>=|<|>|like|in\\s*\\((?:\\s*\\?\\s*,)*)\\s*$");
+    private static final Pattern EMAIL = Pattern.compile("[^@\\s]+@[^@\\s]+\\.[^@\\s]+");
+    private static final Pattern DNI = Pattern.compile("\\d{7,8}");
+
+    // Columnas cuyos valores nunca se escriben en los logs
+    private static final List<String> COLUMNAS_SENSIBLES = List.of("dni", "email", "password", "contrasena");
+    private static final String OCULTO = "***";
+
+    private static final Map<String, String> HUELLAS = new ConcurrentHashMap<>();
+    private static final Map<String, List<String>> COLUMNAS = new ConcurrentHashMap<>();
+
+    private HuellaSQL() {
+    }
+
+    //Sentencia en minúsculas, con los espacios colapsados, los literales como ? y las listas IN como (?+).
+    public static String huella(String sql) {
+        return HUELLAS.computeIfAbsent(sql, HuellaSQL::normalizar);
+    }
+
+    //Texto "[1:valor, 2:***]" con los parámetros enlazados, ocultando los datos personales.
+    public static String parametros(String sql, Map<Integer, Object> valores) {
+        List<String> columnas = COLUMNAS.computeIfAbsent(sql, HuellaSQL::columnasDeParametros);
+        StringBuilder sb = new StringBuilder("[");
+        valores.forEach((indice, valor) -> {
+            if (sb.length() > 1) sb.append(", ");
+            String columna = indice - 1 < columnas.size() ? columnas.get(indice - 1) : null;
+            sb.append(indice).append(':').append(enmascarar(columna, valor));
+        });
+        return sb.append(']').toString();
+    }
+
+    static String enmascarar(String columna, Object valor) {
+        if (valor == null) return "NULL";
+        if (columna != null && COLUMNAS_SENSIBLES.contains(columna)) return OCULTO;
+        String texto = valor.toString();
+        if (EMAIL.matcher(texto).matches() || DNI.matcher(texto).matches()) return OCULTO;
+        return valor instanceof CharSequence ? "'" + texto + "'" : texto;
+    }
+
+    private static String normalizar(String sql) {
+        String resultado = LITERAL_TEXTO.matcher(sql).replaceAll("?");
+        resultado = LITERAL_NUMERO.matcher(resultado).replaceAll("?");
+        resultado = ESPACIOS.matcher(resultado).replaceAll(" ").strip().toLowerCase();
+        return LISTA_IN.matcher(resultado).replaceAll("in (?+)");
+    }
+
+    //Columna asociada a cada '?' en orden (null si no se pudo deducir), sin el alias de tabla.
+    static List<String> columnasDeParametros(String sql) {
+        List<String> columnas = new ArrayList<>();
+        String sinLiterales = LITERAL_TEXTO.matcher(sql).replaceAll("''");
+
+        Matcher insert = INSERT.matcher(sinLiterales);
+        if (insert.find()) {
+            String[] nombres = insert.group(1).split(",");
+            String[] valores = insert.group(2).split(",");
+            for (int i = 0; i < valores.length; i++) {
+                if (valores[i].contains("?")) {
+                    columnas.add(i < nombres.length ? sinAlias(nombres[i]) : null);
+                }
+            }
+            return columnas;
+        }
+
+        for (int i = 0; i < sinLiterales.length(); i++) {
+            if (sinLiterales.charAt(i) != '?') continue;
+            Matcher anterior = COLUMNA_ANTES.matcher(sinLiterales.substring(Math.max(0, i - 200), i));
+            columnas.add(anterior.find() ? sinAlias(anterior.group(1)) : null);
+        }
+        return columnas;
+    }
+
+    private static String sinAlias(String columna) {
+        String limpia = columna.strip().toLowerCase();
+        return limpia.substring(limpia.lastIndexOf('.') + 1);
+    }
+}
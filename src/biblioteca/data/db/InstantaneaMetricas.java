@@ -0,0 +1,100 @@
+package biblioteca.data.db;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+//Foto inmutable de las métricas en un momento dado.
+public final class InstantaneaMetricas {
+
+    private final long tomadaEn;
+    private final Map<String, Resumen> duraciones;
+    private final Map<String, Resumen> valores;
+    private final Map<String, Long> medidores;
+
+    public InstantaneaMetricas(long tomadaEn, Map<String, Resumen> duraciones,
+                               Map<String, Resumen> valores, Map<String, Long> medidores) {
+        this.tomadaEn = tomadaEn;
+        this.duraciones = Map.copyOf(duraciones);
+        this.valores = Map.copyOf(valores);
+        this.medidores = Map.copyOf(medidores);
+    }
+
+    public long getTomadaEn() {
+        return tomadaEn;
+    }
+
+    //Histogramas de duraciones; los valores están en nanosegundos.
+    public Map<String, Resumen> getDuraciones() {
+        return duraciones;
+    }
+
+    public Map<String, Resumen> getValores() {
+        return valores;
+    }
+
+    public Map<String, Long> getMedidores() {
+        return medidores;
+    }
+
+    //Texto de varias líneas, ordenado por nombre, con las duraciones en milisegundos.
+    public String formatear() {
+        StringBuilder sb = new StringBuilder();
+        new TreeMap<>(medidores).forEach((nombre, valor) ->
+                sb.append(String.format("%-45s %d%n", nombre, valor)));
+        new TreeMap<>(duraciones).forEach((nombre, r) ->
+                sb.append(String.format("%-45s n=%d media=%.2fms p50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms%n",
+                        nombre, r.getCantidad(), r.getMedia() / 1e6, r.getP50() / 1e6,
+                        r.getP95() / 1e6, r.getP99() / 1e6, r.getMaximo() / 1e6)));
+        new TreeMap<>(valores).forEach((nombre, r) ->
+                sb.append(String.format("%-45s n=%d media=%.1f p50=%d p95=%d p99=%d max=%d%n",
+                        nombre, r.getCantidad(), r.getMedia(), r.getP50(), r.getP95(), r.getP99(), r.getMaximo())));
+        return sb.toString();
+    }
+
+    //Resumen de un histograma. Los percentiles son aproximados (límite superior del intervalo que los contiene).
+    public static final class Resumen {
+        private final long cantidad;
+        private final long suma;
+        private final long maximo;
+        private final long p50;
+        private final long p95;
+        private final long p99;
+
+        public Resumen(long cantidad, long suma, long maximo, long p50, long p95, long p99) {
+            this.cantidad = cantidad;
+            this.suma = suma;
+            this.maximo = maximo;
+            this.p50 = p50;
+            this.p95 = p95;
+            this.p99 = p99;
+        }
+
+        public long getCantidad() {
+            return cantidad;
+        }
+
+        public long getSuma() {
+            return suma;
+        }
+
+        public double getMedia() {
+            return cantidad == 0 ? 0 : (double) suma / cantidad;
+        }
+
+        public long getMaximo() {
+            return maximo;
+        }
+
+        public long getP50() {
+            return p50;
+        }
+
+        public long getP95() {
+            return p95;
+        }
+
+        public long getP99() {
+            return p99;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package biblioteca.data.db;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+//Acceso global al registro de métricas de la capa de datos y reporte periódico al log "biblioteca.metricas".
+//Nombres que se registran:
+//  db.pool.<lado>.espera               duración de la espera por una conexión (histograma)
+//  db.pool.<lado>.activas/inactivas/pendientes/totales   estado del pool (medidores)
+//  db.sql.<ClaseDAO.metodo>            duración de cada ejecución (histograma)
+//  db.sql.<ClaseDAO.metodo>.filas      filas leídas o modificadas por ejecución (histograma)
+public final class Metricas {
+
+    private static final Logger LOG = Logger.getLogger("biblioteca.metricas");
+
+    private static volatile RegistroMetricas registro = new MetricasEnMemoria();
+    private static ScheduledExecutorService reportero;
+
+    private Metricas() {
+    }
+
+    public static RegistroMetricas registro() {
+        return registro;
+    }
+
+    //Reemplaza el registro. Conviene hacerlo antes de abrir los pools para que los medidores se registren allí.
+    public static void usar(RegistroMetricas nuevo) {
+        if (nuevo == null) throw new IllegalArgumentException("El registro de métricas no puede ser null.");
+        registro = nuevo;
+    }
+
+    public static InstantaneaMetricas instantanea() {
+        return registro.instantanea();
+    }
+
+    //Escribe una instantánea en el log cada intervaloMs; 0 no programa nada. Es idempotente.
+    public static synchronized void iniciarReporte(long intervaloMs) {
+        if (reportero != null || intervaloMs <= 0) {
+            return;
+        }
+        reportero = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metricas-reporte");
+            t.setDaemon(true);
+            return t;
+        });
+        reportero.scheduleAtFixedRate(Metricas::reportar, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+    }
+
+    public static synchronized void detenerReporte() {
+        if (reportero != null) {
+            reportero.shutdownNow();
+            reportero = null;
+        }
+    }
+
+    private static void reportar() {
+        try {
+            LOG.info("Métricas de la base de datos:\n" + instantanea().formatear());
+        } catch (RuntimeException e) {
+            LOG.warning("No se pudieron reportar las métricas: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package biblioteca.data.db;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+//Registro de métricas por defecto: histogramas en memoria con intervalos de potencias de 2.
+//Registrar un dato no bloquea (LongAdder por intervalo), así que se puede usar en cada consulta.
+public class MetricasEnMemoria implements RegistroMetricas {
+
+    private final Map<String, Histograma> duraciones = new ConcurrentHashMap<>();
+    private final Map<String, Histograma> valores = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> medidores = new ConcurrentHashMap<>();
+
+    @Override
+    public void registrarDuracion(String nombre, long nanos) {
+        duraciones.computeIfAbsent(nombre, n -> new Histograma()).registrar(nanos);
+    }
+
+    @Override
+    public void registrarValor(String nombre, long valor) {
+        valores.computeIfAbsent(nombre, n -> new Histograma()).registrar(valor);
+    }
+
+    @Override
+    public void registrarMedidor(String nombre, LongSupplier medidor) {
+        medidores.put(nombre, medidor);
+    }
+
+    @Override
+    public InstantaneaMetricas instantanea() {
+        Map<String, InstantaneaMetricas.Resumen> resumenDuraciones = new HashMap<>();
+        duraciones.forEach((nombre, h) -> resumenDuraciones.put(nombre, h.resumir()));
+        Map<String, InstantaneaMetricas.Resumen> resumenValores = new HashMap<>();
+        valores.forEach((nombre, h) -> resumenValores.put(nombre, h.resumir()));
+        Map<String, Long> lecturas = new HashMap<>();
+        medidores.forEach((nombre, m) -> lecturas.put(nombre, m.getAsLong()));
+        return new InstantaneaMetricas(System.currentTimeMillis(), resumenDuraciones, resumenValores, lecturas);
+    }
+
+    //El intervalo i cuenta los valores v con 2^(i-1) <= v < 2^i; el 0 cuenta los ceros y negativos.
+    private static final class Histograma {
+        private static final int INTERVALOS = 64;
+
+        private final LongAdder[] cuentas = new LongAdder[INTERVALOS];
+        private final LongAdder suma = new LongAdder();
+        private final LongAccumulator maximo = new LongAccumulator(Math::max, 0);
+
+        private Histograma() {
+            for (int i = 0; i < INTERVALOS; i++) {
+                cuentas[i] = new LongAdder();
+            }
+        }
+
+        private void registrar(long valor) {
+            int intervalo = valor <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(valor);
+            cuentas[Math.min(intervalo, INTERVALOS - 1)].increment();
+            suma.add(Math.max(valor, 0));
+            maximo.accumulate(valor);
+        }
+
+        private InstantaneaMetricas.Resumen resumir() {
+            long[] copia = new long[INTERVALOS];
+            long total = 0;
+            for (int i = 0; i < INTERVALOS; i++) {
+                copia[i] = cuentas[i].sum();
+                total += copia[i];
+            }
+            long max = maximo.get();
+            return new InstantaneaMetricas.Resumen(total, suma.sum(), max,
+                    percentil(copia, total, 0.50, max),
+                    percentil(copia, total, 0.95, max),
+                    percentil(copia, total, 0.99, max));
+        }
+
+        private static long percentil(long[] cuentas, long total, double q, long max) {
+            if (total == 0) return 0;
+            long objetivo = (long) Math.ceil(total * q);
+            long acumulado = 0;
+            for (int i = 0; i < cuentas.length; i++) {
+                acumulado += cuentas[i];
+                if (acumulado >= objetivo) {
+                    long limite = i == 0 ? 0 : (i >= 63 ? Long.MAX_VALUE : (1L << i) - 1);
+                    return Math.min(limite, max);
+                }
+            }
+            return max;
+        }
+    }
+}
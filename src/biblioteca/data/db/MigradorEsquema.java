@@ -0,0 +1,294 @@
+package biblioteca.data.db;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+//Aplica las migraciones versionadas del esquema y las registra en la tabla MigracionEsquema.
+//V001 es el esquema base (el script inicial, db_biblioteca.sql): no se ejecuta desde acá, se registra como línea base
+//la primera vez que el migrador encuentra la base ya creada. Las demás son archivos V<número>__<descripción>.sql del
+//directorio de migraciones y se aplican en orden de versión, cada una una sola vez.
+//De cada migración se guarda el checksum (SHA-256 de sus sentencias, sin comentarios): si un archivo ya aplicado
+//cambia, o aparece una versión nueva menor que la última aplicada, el arranque falla antes de tocar nada.
+//En MySQL los CREATE/DROP INDEX se ejecutan con ALGORITHM=INPLACE LOCK=NONE para no bloquear escrituras durante
+//la construcción, y un GET_LOCK evita que dos instancias migren a la vez. Como MySQL confirma cada sentencia DDL
+//por separado, conviene una sentencia DDL por migración: si una falla a mitad, lo ya hecho queda aplicado.
+//Una SELECT dentro de una migración es una precondición: si devuelve filas, la migración se detiene ahí, antes
+//de la sentencia siguiente, y el error muestra las primeras filas encontradas.
+public final class MigradorEsquema {
+
+    static final String TABLA = "MigracionEsquema";
+
+    private static final Pattern ARCHIVO = Pattern.compile("V(\\d+)__(.+)\\.sql");
+    private static final Pattern INDICE = Pattern.compile("^(CREATE\\s+(UNIQUE\\s+)?INDEX|DROP\\s+INDEX)\\b.*",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern VERIFICACION = Pattern.compile("^SELECT\\b.*", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final int FILAS_INFORMADAS = 5;
+    private static final String BLOQUEO = "biblioteca_migraciones";
+    private static final int ESPERA_BLOQUEO_SEG = 60;
+
+    record Migracion(int version, String descripcion, List<String> sentencias, String checksum) {
+    }
+
+    private MigradorEsquema() {
+    }
+
+    //Valida y aplica las migraciones pendientes sobre la conexión. Devuelve cuántas se aplicaron.
+    public static int migrar(Connection conn, Path scriptBase, Path directorio) throws SQLException {
+        List<Migracion> migraciones = leerMigraciones(scriptBase, directorio);
+        boolean mysql = esMysql(conn);
+
+        if (mysql) bloquear(conn);
+        try {
+            crearTablaHistorial(conn);
+            Map<Integer, String> aplicadas = leerAplicadas(conn);
+            if (aplicadas.isEmpty()) {
+                registrarLineaBase(conn, migraciones.get(0));
+                aplicadas.put(1, migraciones.get(0).checksum());
+            }
+
+            List<Migracion> pendientes = validar(migraciones, aplicadas);
+            for (Migracion m : pendientes) {
+                aplicar(conn, m, mysql);
+            }
+            return pendientes.size();
+        } finally {
+            if (mysql) liberar(conn);
+        }
+    }
+
+    //V001 desde el script base y luego los archivos del directorio (si existe), ordenados por versión.
+    static List<Migracion> leerMigraciones(Path scriptBase, Path directorio) throws SQLException {
+        List<Migracion> migraciones = new ArrayList<>();
+        migraciones.add(crear(1, "esquema base (" + scriptBase.getFileName() + ")", scriptBase, ConfigBD.SCRIPT_MARCADOR_FIN));
+
+        if (directorio == null || !Files.isDirectory(directorio)) {
+            return migraciones;
+        }
+        List<Path> archivos;
+        try (Stream<Path> listado = Files.list(directorio)) {
+            archivos = listado.filter(p -> p.getFileName().toString().endsWith(".sql")).toList();
+        } catch (IOException e) {
+            throw new SQLException("No se pudo leer el directorio de migraciones " + directorio + ": " + e.getMessage(), e);
+        }
+
+        for (Path archivo : archivos) {
+            Matcher m = ARCHIVO.matcher(archivo.getFileName().toString());
+            if (!m.matches()) {
+                throw new SQLException("Nombre de migración inválido: " + archivo.getFileName() + " (se espera V<número>__<descripción>.sql)");
+            }
+            int version = Integer.parseInt(m.group(1));
+            if (version == 1) {
+                throw new SQLException("La versión 1 está reservada para el esquema base: " + archivo.getFileName());
+            }
+            migraciones.add(crear(version, m.group(2).replace('_', ' '), archivo, null));
+        }
+
+        migraciones.sort(Comparator.comparingInt(Migracion::version));
+        for (int i = 1; i < migraciones.size(); i++) {
+            if (migraciones.get(i).version() == migraciones.get(i - 1).version()) {
+                throw new SQLException("Hay dos migraciones con la versión " + migraciones.get(i).version());
+            }
+        }
+        return migraciones;
+    }
+
+    //Compara lo aplicado con los archivos y devuelve lo pendiente; falla si algo aplicado cambió o quedó fuera de orden.
+    static List<Migracion> validar(List<Migracion> migraciones, Map<Integer, String> aplicadas) throws SQLException {
+        int ultimaAplicada = aplicadas.keySet().stream().max(Integer::compare).orElse(0);
+        List<Migracion> pendientes = new ArrayList<>();
+
+        for (Migracion m : migraciones) {
+            String checksum = aplicadas.get(m.version());
+            if (checksum == null) {
+                if (m.version() < ultimaAplicada) {
+                    throw new SQLException("La migración V" + m.version() + " es anterior a la última aplicada (V"
+                            + ultimaAplicada + "): renombrarla con una versión mayor.");
+                }
+                pendientes.add(m);
+            } else if (!checksum.equals(m.checksum())) {
+                throw new SQLException("La migración V" + m.version() + " (" + m.descripcion()
+                        + ") cambió después de aplicarse: checksum registrado " + checksum + ", actual " + m.checksum());
+            }
+        }
+        for (int version : aplicadas.keySet()) {
+            if (migraciones.stream().noneMatch(m -> m.version() == version)) {
+                System.err.println("Advertencia: la migración V" + version + " figura aplicada pero no se encontró su archivo.");
+            }
+        }
+        return pendientes;
+    }
+
+    //En MySQL, CREATE/DROP INDEX sin algoritmo explícito se construyen en línea, sin bloquear la tabla.
+    static String paraServidor(String sql, boolean mysql) {
+        if (!mysql || !INDICE.matcher(sql).matches() || sql.toUpperCase(Locale.ROOT).contains("ALGORITHM")) {
+            return sql;
+        }
+        return sql + " ALGORITHM=INPLACE LOCK=NONE";
+    }
+
+    private static Migracion crear(int version, String descripcion, Path archivo, String marcadorFin) throws SQLException {
+        List<String> sentencias;
+        try {
+            sentencias = EjecutorScript.leerSentencias(archivo, marcadorFin);
+        } catch (IOException e) {
+            throw new SQLException("No se pudo leer la migración " + archivo + ": " + e.getMessage(), e);
+        }
+        return new Migracion(version, descripcion, sentencias, checksum(sentencias));
+    }
+
+    private static String checksum(List<String> sentencias) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            for (String sql : sentencias) {
+                sha.update(sql.replace("\r\n", "\n").getBytes(StandardCharsets.UTF_8));
+                sha.update((byte) ';');
+            }
+            return HexFormat.of().formatHex(sha.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private static boolean esMysql(Connection conn) throws SQLException {
+        String producto = conn.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+        return producto.contains("mysql") || producto.contains("mariadb");
+    }
+
+    private static void crearTablaHistorial(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("""
+                    CREATE TABLE IF NOT EXISTS %s (
+                        version INT PRIMARY KEY,
+                        descripcion VARCHAR(200) NOT NULL,
+                        checksum CHAR(64) NOT NULL,
+                        aplicada_en DATETIME NOT NULL,
+                        duracion_ms BIGINT NOT NULL
+                    )""".formatted(TABLA));
+        }
+    }
+
+    private static Map<Integer, String> leerAplicadas(Connection conn) throws SQLException {
+        Map<Integer, String> aplicadas = new TreeMap<>();
+        try (PreparedStatement ps = conn.prepareStatement("SELECT version, checksum FROM " + TABLA);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                aplicadas.put(rs.getInt("version"), rs.getString("checksum"));
+            }
+        }
+        return aplicadas;
+    }
+
+    //La línea base sólo se registra sobre una base que ya tiene el esquema del script inicial.
+    private static void registrarLineaBase(Connection conn, Migracion base) throws SQLException {
+        boolean existe = false;
+        try (ResultSet rs = conn.getMetaData().getTables(conn.getCatalog(), null, "%", new String[]{"TABLE"})) {
+            while (rs.next() && !existe) {
+                existe = "Usuario".equalsIgnoreCase(rs.getString("TABLE_NAME"));
+            }
+        }
+        if (!existe) {
+            throw new SQLException("La base no tiene el esquema base: aplicar primero " + base.descripcion() + ".");
+        }
+        registrar(conn, base, 0);
+        System.out.println("Esquema base registrado como migración V1.");
+    }
+
+    private static void aplicar(Connection conn, Migracion m, boolean mysql) throws SQLException {
+        long inicio = System.nanoTime();
+        try (Statement st = conn.createStatement()) {
+            for (String sql : m.sentencias()) {
+                try {
+                    if (VERIFICACION.matcher(sql).matches()) {
+                        verificar(st, sql);
+                    } else {
+                        st.execute(paraServidor(sql, mysql));
+                    }
+                } catch (SQLException e) {
+                    throw new SQLException("Error en la migración V" + m.version() + " (" + m.descripcion() + "): "
+                            + e.getMessage() + "\n" + sql, e.getSQLState(), e);
+                }
+            }
+        }
+        long duracionMs = (System.nanoTime() - inicio) / 1_000_000;
+        registrar(conn, m, duracionMs);
+        System.out.println("Migración V" + m.version() + " aplicada (" + m.descripcion() + ", "
+                + m.sentencias().size() + " sentencias, " + duracionMs + " ms).");
+    }
+
+    //Falla si la consulta de precondición devuelve alguna fila.
+    private static void verificar(Statement st, String sql) throws SQLException {
+        List<String> ejemplos = new ArrayList<>();
+        int total = 0;
+        try (ResultSet rs = st.executeQuery(sql)) {
+            ResultSetMetaData meta = rs.getMetaData();
+            while (rs.next()) {
+                total++;
+                if (ejemplos.size() < FILAS_INFORMADAS) {
+                    StringJoiner fila = new StringJoiner(", ", "(", ")");
+                    for (int i = 1; i <= meta.getColumnCount(); i++) {
+                        fila.add(meta.getColumnLabel(i) + "=" + rs.getString(i));
+                    }
+                    ejemplos.add(fila.toString());
+                }
+            }
+        }
+        if (total > 0) {
+            throw new SQLException("Precondición no cumplida, " + total + " fila(s) la violan: " + String.join(" ", ejemplos));
+        }
+    }
+
+    private static void registrar(Connection conn, Migracion m, long duracionMs) throws SQLException {
+        String sql = "INSERT INTO " + TABLA + " (version, descripcion, checksum, aplicada_en, duracion_ms) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, m.version());
+            ps.setString(2, m.descripcion());
+            ps.setString(3, m.checksum());
+            ps.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
+            ps.setLong(5, duracionMs);
+            ps.executeUpdate();
+        }
+    }
+
+    private static void bloquear(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            ps.setString(1, BLOQUEO);
+            ps.setInt(2, ESPERA_BLOQUEO_SEG);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Otra instancia está migrando el esquema; no se obtuvo el bloqueo en "
+                            + ESPERA_BLOQUEO_SEG + " s.");
+                }
+            }
+        }
+    }
+
+    private static void liberar(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            ps.setString(1, BLOQUEO);
+            ps.executeQuery().close();
+        }
+    }
+}
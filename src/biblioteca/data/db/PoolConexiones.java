@@ -0,0 +1,408 @@
+package biblioteca.data.db;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+//Pool acotado de conexiones JDBC.
+//Las conexiones entregadas son proxies: al cerrarlas vuelven al pool en lugar de cerrar la conexión física.
+//Cada conexión física mantiene su propia caché de sentencias preparadas (ver CacheSentencias).
+//Si se le asigna un CircuitoBD, deja de entregar conexiones mientras el circuito esté abierto.
+//Publica su estado y la espera por conexión en Metricas bajo "db.pool.<nombre>".
+public class PoolConexiones implements DataSource {
+
+    private final String nombre;
+    private final String url;
+    private final String usuario;
+    private final String contrasena;
+    private final int minimo;
+    private final int maximo;
+    private volatile long timeoutEsperaMs;
+    private volatile long tiempoMaxInactivaMs;
+    private volatile int timeoutValidacionSeg;
+    private final int capacidadCacheSentencias;
+    private final CircuitoBD circuito;
+
+    //Conexiones libres; se reutiliza primero la más reciente para que las viejas envejezcan y se desalojen.
+    private final LinkedBlockingDeque<ConexionFisica> libres = new LinkedBlockingDeque<>();
+    private final Semaphore permisos;
+    private final AtomicInteger totales = new AtomicInteger();
+    private final ScheduledExecutorService limpiador;
+    private final LongAdder aciertosCache = new LongAdder();
+    private final LongAdder fallosCache = new LongAdder();
+    private volatile boolean cerrado;
+
+    public PoolConexiones(String nombre, String url, String usuario, String contrasena,
+                          int minimo, int maximo,
+                          long timeoutEsperaMs, long tiempoMaxInactivaMs,
+                          long intervaloLimpiezaMs, int timeoutValidacionSeg,
+                          int capacidadCacheSentencias, CircuitoBD circuito) throws SQLException {
+        if (minimo < 0 || maximo <= 0 || minimo > maximo) {
+            throw new IllegalArgumentException("Tamaños de pool inválidos: mínimo=" + minimo + ", máximo=" + maximo);
+        }
+        this.nombre = nombre;
+        this.url = url;
+        this.usuario = usuario;
+        this.contrasena = contrasena;
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.timeoutEsperaMs = timeoutEsperaMs;
+        this.tiempoMaxInactivaMs = tiempoMaxInactivaMs;
+        this.timeoutValidacionSeg = timeoutValidacionSeg;
+        this.capacidadCacheSentencias = capacidadCacheSentencias;
+        this.circuito = circuito;
+        this.permisos = new Semaphore(maximo, true);
+
+        //Si falla una conexión del mínimo se cierran las ya creadas: el pool no llega a existir.
+        try {
+            for (int i = 0; i < minimo; i++) {
+                libres.offerLast(crear());
+            }
+        } catch (SQLException | RuntimeException e) {
+            ConexionFisica fisica;
+            while ((fisica = libres.pollFirst()) != null) {
+                descartar(fisica);
+            }
+            throw e;
+        }
+
+        this.limpiador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "pool-conexiones-limpieza");
+            t.setDaemon(true);
+            return t;
+        });
+        limpiador.scheduleWithFixedDelay(this::limpiar, intervaloLimpiezaMs, intervaloLimpiezaMs, TimeUnit.MILLISECONDS);
+
+        RegistroMetricas registro = Metricas.registro();
+        registro.registrarMedidor("db.pool." + nombre + ".activas", this::getActivas);
+        registro.registrarMedidor("db.pool." + nombre + ".inactivas", this::getInactivas);
+        registro.registrarMedidor("db.pool." + nombre + ".pendientes", this::getPendientes);
+        registro.registrarMedidor("db.pool." + nombre + ".totales", this::getTotales);
+    }
+
+    //Presta una conexión validada. Espera como máximo timeoutEsperaMs si el pool está saturado.
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (cerrado) {
+            throw new SQLException("El pool de conexiones está cerrado.");
+        }
+        if (circuito != null) {
+            circuito.verificar();
+        }
+
+        long espera = timeoutEsperaMs;
+        long inicio = System.nanoTime();
+        boolean obtenido;
+        try {
+            obtenido = permisos.tryAcquire(espera, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrumpido mientras se esperaba una conexión del pool.", e);
+        }
+        if (!obtenido) {
+            throw new SQLTimeoutException("Tiempo de espera agotado (" + espera
+                    + " ms) al obtener una conexión del pool (máximo " + maximo + ").");
+        }
+
+        try {
+            Connection conexion = prestar(tomarValida());
+            Metricas.registro().registrarDuracion("db.pool." + nombre + ".espera", System.nanoTime() - inicio);
+            return conexion;
+        } catch (SQLException | RuntimeException e) {
+            permisos.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String usuario, String contrasena) throws SQLException {
+        throw new SQLFeatureNotSupportedException("El pool sólo entrega conexiones con las credenciales configuradas.");
+    }
+
+    //Cambia los tiempos del pool en uso (recarga de configuración); el tamaño no se modifica.
+    public void ajustar(long timeoutEsperaMs, long tiempoMaxInactivaMs, int timeoutValidacionSeg) {
+        this.timeoutEsperaMs = timeoutEsperaMs;
+        this.tiempoMaxInactivaMs = tiempoMaxInactivaMs;
+        this.timeoutValidacionSeg = timeoutValidacionSeg;
+    }
+
+    //Cierra el pool: las conexiones libres se cierran ya, las prestadas al devolverse.
+    public void cerrar() {
+        cerrado = true;
+        limpiador.shutdownNow();
+        ConexionFisica fisica;
+        while ((fisica = libres.pollFirst()) != null) {
+            descartar(fisica);
+        }
+    }
+
+    public int getActivas() {
+        return maximo - permisos.availablePermits();
+    }
+
+    public int getInactivas() {
+        return libres.size();
+    }
+
+    public int getPendientes() {
+        return permisos.getQueueLength();
+    }
+
+    public int getTotales() {
+        return totales.get();
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public int getMaximo() {
+        return maximo;
+    }
+
+    //Circuito del pool (null si no tiene); ConexionBD lo ajusta al recargarse la configuración.
+    CircuitoBD getCircuito() {
+        return circuito;
+    }
+
+    //Sentencias preparadas reutilizadas desde la caché de alguna conexión.
+    public long getAciertosCacheSentencias() {
+        return aciertosCache.sum();
+    }
+
+    //Sentencias que hubo que preparar porque no estaban (o estaban en uso) en la caché.
+    public long getFallosCacheSentencias() {
+        return fallosCache.sum();
+    }
+
+    private ConexionFisica tomarValida() throws SQLException {
+        ConexionFisica fisica;
+        while ((fisica = libres.pollFirst()) != null) {
+            if (esValida(fisica)) {
+                return fisica;
+            }
+            descartar(fisica);
+        }
+        return crear();
+    }
+
+    private boolean esValida(ConexionFisica fisica) {
+        try {
+            return fisica.real.isValid(timeoutValidacionSeg);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private ConexionFisica crear() throws SQLException {
+        Connection real;
+        try {
+            real = DriverManager.getConnection(url, ConfigBD.actual().propiedadesConexion(url, usuario, contrasena));
+        } catch (SQLException e) {
+            if (circuito != null) circuito.registrarFallo(e);
+            throw e;
+        }
+        totales.incrementAndGet();
+        return new ConexionFisica(real, capacidadCacheSentencias > 0
+                ? new CacheSentencias(real, capacidadCacheSentencias, aciertosCache, fallosCache)
+                : null);
+    }
+
+    private void descartar(ConexionFisica fisica) {
+        totales.decrementAndGet();
+        try {
+            if (fisica.cache != null) {
+                fisica.cache.cerrarTodas();
+            }
+            fisica.real.close();
+        } catch (SQLException e) {
+            System.err.println("Error al cerrar una conexión del pool: " + e.getMessage());
+        }
+    }
+
+    //Restaura el estado de la conexión y la deja disponible para el siguiente préstamo.
+    private void devolver(ConexionFisica fisica) {
+        try {
+            if (!fisica.real.getAutoCommit()) {
+                fisica.real.rollback();
+                fisica.real.setAutoCommit(true);
+            }
+            fisica.real.clearWarnings();
+        } catch (SQLException e) {
+            descartar(fisica);
+            permisos.release();
+            return;
+        }
+
+        if (cerrado) {
+            descartar(fisica);
+        } else {
+            fisica.ultimoUso = System.currentTimeMillis();
+            libres.offerFirst(fisica);
+        }
+        permisos.release();
+    }
+
+    //Desaloja conexiones inactivas por encima del mínimo y repone hasta el mínimo.
+    private void limpiar() {
+        long ahora = System.currentTimeMillis();
+        for (ConexionFisica fisica : libres) {
+            if (totales.get() <= minimo) break;
+            if (ahora - fisica.ultimoUso > tiempoMaxInactivaMs && libres.remove(fisica)) {
+                descartar(fisica);
+            }
+        }
+
+        try {
+            while (!cerrado && totales.get() < minimo) {
+                libres.offerLast(crear());
+            }
+        } catch (SQLException e) {
+            System.err.println("No se pudo reponer el mínimo de conexiones del pool: " + e.getMessage());
+        }
+    }
+
+    private Connection prestar(ConexionFisica fisica) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ConexionPrestada(fisica));
+    }
+
+    //prepareStatement(String) y prepareStatement(String, int autoGeneratedKeys) pasan por la caché.
+    private static boolean esPreparacionCacheable(Method metodo) {
+        if (!metodo.getName().equals("prepareStatement")) return false;
+        Class<?>[] tipos = metodo.getParameterTypes();
+        return tipos.length == 1 || (tipos.length == 2 && tipos[1] == int.class);
+    }
+
+    private static final class ConexionFisica {
+        private final Connection real;
+        private final CacheSentencias cache;
+        private volatile long ultimoUso = System.currentTimeMillis();
+
+        private ConexionFisica(Connection real, CacheSentencias cache) {
+            this.real = real;
+            this.cache = cache;
+        }
+    }
+
+    //Proxy de la conexión prestada: close() la devuelve al pool una única vez, aunque se llame desde varios hilos.
+    private final class ConexionPrestada implements InvocationHandler {
+        private final ConexionFisica fisica;
+        private final AtomicBoolean devuelta = new AtomicBoolean();
+
+        private ConexionPrestada(ConexionFisica fisica) {
+            this.fisica = fisica;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            switch (metodo.getName()) {
+                case "close":
+                    if (devuelta.compareAndSet(false, true)) {
+                        devolver(fisica);
+                    }
+                    return null;
+                case "isClosed":
+                    return devuelta.get();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "ConexionPrestada[" + fisica.real + "]";
+                default:
+                    break;
+            }
+
+            if (devuelta.get()) {
+                throw new SQLException("La conexión ya fue devuelta al pool.");
+            }
+            if (metodo.getName().equals("prepareStatement")) {
+                return preparar(metodo, args, (Connection) proxy);
+            }
+            try {
+                return metodo.invoke(fisica.real, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        //Toma la sentencia de la caché cuando se puede y la envuelve con timeout y seguimiento del circuito.
+        private PreparedStatement preparar(Method metodo, Object[] args, Connection proxy) throws Throwable {
+            PreparedStatement sentencia;
+            try {
+                if (fisica.cache != null && esPreparacionCacheable(metodo)) {
+                    int claves = args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+                    sentencia = fisica.cache.preparar((String) args[0], claves);
+                } else {
+                    sentencia = (PreparedStatement) metodo.invoke(fisica.real, args);
+                }
+            } catch (InvocationTargetException e) {
+                if (circuito != null && e.getCause() instanceof SQLException) {
+                    circuito.registrarFallo((SQLException) e.getCause());
+                }
+                throw e.getCause();
+            } catch (SQLException e) {
+                if (circuito != null) circuito.registrarFallo(e);
+                throw e;
+            }
+            return SentenciaObservada.envolver(sentencia, (String) args[0], proxy, circuito, TiemposEspera.operacionDAOActual());
+        }
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        DriverManager.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return DriverManager.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) return iface.cast(this);
+        throw new SQLException("PoolConexiones no implementa " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
@@ -0,0 +1,91 @@
+package biblioteca.data.db;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.FileHandler;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+//Log de consultas lentas (logger "biblioteca.consultas.lentas", archivo consultas.lentas.archivo).
+//Cada ejecución que supera consultas.lentas.umbral.ms deja una línea con la duración, las filas,
+//el método de servicio que la originó, la operación DAO, la huella del SQL y los parámetros enmascarados.
+public final class RegistroConsultasLentas {
+
+    private static final Logger LOG = Logger.getLogger("biblioteca.consultas.lentas");
+    private static final StackWalker WALKER = StackWalker.getInstance();
+    private static final String PAQUETE_SERVICIOS = "biblioteca.services.";
+    private static final String PAQUETE_DATOS = "biblioteca.data.";
+
+    private static volatile boolean configurado;
+
+    private RegistroConsultasLentas() {
+    }
+
+    //Indica si una duración supera el umbral vigente; se consulta antes de armar la entrada.
+    static boolean esLenta(long nanos) {
+        long umbral = ConfigBD.actual().getConsultasLentasUmbralMs();
+        return umbral > 0 && nanos >= umbral * 1_000_000;
+    }
+
+    static void registrar(String sql, Map<Integer, Object> parametros, long filas, long nanos, String operacion) {
+        configurar();
+        LOG.warning(String.format("%d ms | filas=%d | servicio=%s | dao=%s | huella=%s | parametros=%s",
+                nanos / 1_000_000,
+                filas,
+                metodoLlamador(),
+                operacion != null ? operacion : "-",
+                HuellaSQL.huella(sql),
+                HuellaSQL.parametros(sql, parametros)));
+    }
+
+    //Primer método de la capa de servicios en la pila; si no hay (p. ej. un hilo de DAOAsincrono),
+    //el primer método fuera de la capa de datos.
+    private static String metodoLlamador() {
+        Optional<String> servicio = WALKER.walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith(PAQUETE_SERVICIOS))
+                .map(RegistroConsultasLentas::nombre)
+                .findFirst());
+        return servicio.orElseGet(() -> WALKER.walk(frames -> frames
+                .filter(f -> esCodigoDeAplicacion(f.getClassName()))
+                .map(RegistroConsultasLentas::nombre)
+                .findFirst()
+                .orElse("-")));
+    }
+
+    //Descarta la capa de datos, el JDK y las clases generadas para los proxies de conexión y sentencia.
+    private static boolean esCodigoDeAplicacion(String clase) {
+        return !clase.startsWith(PAQUETE_DATOS) && !clase.startsWith("java.") && !clase.startsWith("jdk.")
+                && !clase.startsWith("sun.") && !clase.contains("$Proxy");
+    }
+
+    private static String nombre(StackWalker.StackFrame frame) {
+        String clase = frame.getClassName();
+        return clase.substring(clase.lastIndexOf('.') + 1) + "." + frame.getMethodName();
+    }
+
+    //Abre el archivo en el primer uso; las entradas no se mezclan con la salida de la consola.
+    private static synchronized void configurar() {
+        if (configurado) return;
+        configurado = true;
+
+        String archivo = ConfigBD.actual().getConsultasLentasArchivo();
+        LOG.setUseParentHandlers(false);
+        try {
+            FileHandler manejador = new FileHandler(archivo, true);
+            manejador.setFormatter(new Formatter() {
+                @Override
+                public String format(LogRecord registro) {
+                    return Instant.ofEpochMilli(registro.getMillis()) + " | " + registro.getMessage() + System.lineSeparator();
+                }
+            });
+            LOG.addHandler(manejador);
+        } catch (IOException | SecurityException e) {
+            System.err.println("No se pudo abrir el log de consultas lentas (" + archivo + "): " + e.getMessage());
+            LOG.setLevel(Level.OFF);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package biblioteca.data.db;
+
+import java.util.function.LongSupplier;
+
+//Punto de extensión para las métricas de la capa de datos.
+//La implementación por defecto (MetricasEnMemoria) guarda todo en el proceso; se puede reemplazar con
+//Metricas.usar(...) para enviar los datos a otro sistema.
+public interface RegistroMetricas {
+
+    //Agrega una duración, en nanosegundos, al histograma con ese nombre.
+    void registrarDuracion(String nombre, long nanos);
+
+    //Agrega un valor (por ejemplo, filas devueltas) al histograma con ese nombre.
+    void registrarValor(String nombre, long valor);
+
+    //Registra un valor instantáneo que se lee al tomar cada instantánea (conexiones activas, en espera, ...).
+    void registrarMedidor(String nombre, LongSupplier medidor);
+
+    InstantaneaMetricas instantanea();
+}
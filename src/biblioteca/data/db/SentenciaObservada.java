@@ -0,0 +1,171 @@
+package biblioteca.data.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.TreeMap;
+
+//Envoltorio de las sentencias preparadas que entrega el pool.
+//Aplica el timeout de la operación DAO que la preparó y el fetch size configurado, e informa
+//al circuito el resultado de cada ejecución. También mide cada ejecución y las filas leídas o modificadas,
+//y guarda los parámetros enlazados para el log de consultas lentas (las consultas cuentan hasta cerrar el ResultSet).
+final class SentenciaObservada implements InvocationHandler {
+
+    private final PreparedStatement sentencia;
+    private final String sql;
+    private final Connection propietaria;
+    private final CircuitoBD circuito;
+    private final String operacion;
+    private final String metrica;
+    private final Map<Integer, Object> parametros = new TreeMap<>();
+
+    private SentenciaObservada(PreparedStatement sentencia, String sql, Connection propietaria,
+                               CircuitoBD circuito, String operacion) {
+        this.sentencia = sentencia;
+        this.sql = sql;
+        this.propietaria = propietaria;
+        this.circuito = circuito;
+        this.operacion = operacion;
+        this.metrica = "db.sql." + (operacion != null ? operacion : "otras");
+    }
+
+    static PreparedStatement envolver(PreparedStatement sentencia, String sql, Connection propietaria,
+                                      CircuitoBD circuito, String operacion) throws SQLException {
+        sentencia.setQueryTimeout(TiemposEspera.para(operacion));
+        int fetch = ConfigBD.actual().getTamanioFetch();
+        sentencia.setFetchSize(Math.max(fetch, 0));
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                new SentenciaObservada(sentencia, sql, propietaria, circuito, operacion));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+        switch (metodo.getName()) {
+            case "getConnection":
+                return propietaria;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "clearParameters":
+                parametros.clear();
+                break;
+            default:
+                if (esEnlace(metodo, args)) {
+                    parametros.put((Integer) args[0], metodo.getName().equals("setNull") ? null : args[1]);
+                }
+                break;
+        }
+
+        boolean ejecucion = metodo.getName().startsWith("execute");
+        long inicio = ejecucion ? System.nanoTime() : 0;
+        try {
+            Object resultado = metodo.invoke(sentencia, args);
+            if (ejecucion) {
+                if (circuito != null) circuito.registrarExito();
+                Metricas.registro().registrarDuracion(metrica, System.nanoTime() - inicio);
+                return medirFilas(resultado, (PreparedStatement) proxy, inicio);
+            }
+            return resultado;
+        } catch (InvocationTargetException e) {
+            Throwable causa = e.getCause();
+            if (ejecucion && circuito != null && causa instanceof SQLException) {
+                circuito.registrarFallo((SQLException) causa);
+            }
+            throw causa;
+        }
+    }
+
+    //setInt(1, x), setString(2, y), setNull(3, tipo), ...
+    private static boolean esEnlace(Method metodo, Object[] args) {
+        return metodo.getName().startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer;
+    }
+
+    //Las actualizaciones informan sus filas al momento; las consultas, al cerrar el ResultSet.
+    private Object medirFilas(Object resultado, PreparedStatement proxy, long inicio) {
+        if (resultado instanceof ResultSet) {
+            return ResultadoContado.envolver((ResultSet) resultado, proxy, this, inicio);
+        }
+        long filas = -1;
+        if (resultado instanceof Integer || resultado instanceof Long) {
+            filas = ((Number) resultado).longValue();
+        } else if (resultado instanceof int[]) {
+            filas = 0;
+            for (int n : (int[]) resultado) filas += Math.max(n, 0);
+        }
+        if (filas >= 0) {
+            Metricas.registro().registrarValor(metrica + ".filas", filas);
+        }
+        terminar(Math.max(filas, 0), System.nanoTime() - inicio);
+        return resultado;
+    }
+
+    private void terminar(long filas, long nanos) {
+        if (RegistroConsultasLentas.esLenta(nanos)) {
+            RegistroConsultasLentas.registrar(sql, parametros, filas, nanos, operacion);
+        }
+    }
+
+    //Cuenta las filas recorridas con next() y las registra una única vez al cerrar.
+    private static final class ResultadoContado implements InvocationHandler {
+        private final ResultSet resultado;
+        private final PreparedStatement sentencia;
+        private final SentenciaObservada origen;
+        private final long inicio;
+        private long filas;
+        private boolean registrado;
+
+        private ResultadoContado(ResultSet resultado, PreparedStatement sentencia, SentenciaObservada origen, long inicio) {
+            this.resultado = resultado;
+            this.sentencia = sentencia;
+            this.origen = origen;
+            this.inicio = inicio;
+        }
+
+        private static ResultSet envolver(ResultSet resultado, PreparedStatement sentencia,
+                                          SentenciaObservada origen, long inicio) {
+            return (ResultSet) Proxy.newProxyInstance(
+                    ResultSet.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class},
+                    new ResultadoContado(resultado, sentencia, origen, inicio));
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            switch (metodo.getName()) {
+                case "getStatement":
+                    return sentencia;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "close":
+                    if (!registrado) {
+                        registrado = true;
+                        Metricas.registro().registrarValor(origen.metrica + ".filas", filas);
+                        origen.terminar(filas, System.nanoTime() - inicio);
+                    }
+                    break;
+                default:
+                    break;
+            }
+            try {
+                Object valor = metodo.invoke(resultado, args);
+                if (metodo.getName().equals("next") && Boolean.TRUE.equals(valor)) {
+                    filas++;
+                }
+                return valor;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package biblioteca.data.db;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+//Presupuestos de tiempo (Statement.setQueryTimeout) por operación DAO.
+//La operación se identifica como "ClaseDAO.metodo" (p. ej. "HistorialDAO.listarTodos");
+//Se busca primero lo definido en ejecución, luego timeouts.por.operacion de la configuración vigente
+//y por último timeout.consulta.seg.
+public final class TiemposEspera {
+
+    private static final String PAQUETE_DAO = "biblioteca.data.dao.";
+    private static final StackWalker WALKER = StackWalker.getInstance();
+    private static final Map<String, Integer> DEFINIDOS = new ConcurrentHashMap<>();
+
+    private TiemposEspera() {
+    }
+
+    public static void definir(String operacion, int segundos) {
+        if (segundos < 0) throw new IllegalArgumentException("El timeout no puede ser negativo: " + segundos);
+        DEFINIDOS.put(operacion, segundos);
+    }
+
+    public static int para(String operacion) {
+        ConfigBD config = ConfigBD.actual();
+        if (operacion != null) {
+            Integer segundos = DEFINIDOS.get(operacion);
+            if (segundos == null) segundos = config.getTimeoutsPorOperacion().get(operacion);
+            if (segundos != null) return segundos;
+        }
+        return config.getTimeoutConsultaSeg();
+    }
+
+    //Operación DAO que está ejecutando el hilo actual ("ClaseDAO.metodo"), o null fuera de un DAO.
+    //Los auxiliares del paquete (clases que no terminan en DAO) se saltean: la operación es el DAO que los llamó.
+    public static String operacionDAOActual() {
+        Optional<StackWalker.StackFrame> frame = WALKER.walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith(PAQUETE_DAO) && simple(f.getClassName()).endsWith("DAO"))
+                .findFirst());
+        return frame.map(f -> simple(f.getClassName()) + "." + metodo(f.getMethodName())).orElse(null);
+    }
+
+    //Un lambda dentro de un método DAO ("lambda$insertarLote$0") cuenta como ese método.
+    private static String metodo(String nombre) {
+        if (!nombre.startsWith("lambda$")) return nombre;
+        int fin = nombre.indexOf('$', "lambda$".length());
+        return fin > 0 ? nombre.substring("lambda$".length(), fin) : nombre;
+    }
+
+    private static String simple(String clase) {
+        String nombre = clase.substring(clase.lastIndexOf('.') + 1);
+        int interna = nombre.indexOf('$');
+        return interna > 0 ? nombre.substring(0, interna) : nombre;
+    }
+
+    //Formato "ClaseDAO.metodo=segundos,ClaseDAO.otro=segundos".
+    static Map<String, Integer> parsear(String definicion) {
+        Map<String, Integer> valores = new ConcurrentHashMap<>();
+        if (definicion == null || definicion.isBlank()) return valores;
+
+        for (String par : definicion.split(",")) {
+            String[] partes = par.split("=");
+            if (partes.length != 2) {
+                throw new IllegalArgumentException("Timeout mal definido: '" + par.strip() + "' (se espera Operacion=segundos)");
+            }
+            valores.put(partes[0].strip(), Integer.parseInt(partes[1].strip()));
+        }
+        return valores;
+    }
+}
@@ -0,0 +1,136 @@
+package biblioteca.data.db;
+
+import biblioteca.data.dao.DAOException;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+//Unidad de trabajo: liga una conexión y una transacción al hilo actual.
+//Todos los DAOs invocados dentro de ejecutar() reciben esa conexión desde ConexionBD.getConexion(),
+//de modo que la operación de negocio completa hace un único commit o un rollback atómico.
+public final class UnidadDeTrabajo {
+
+    private static final ThreadLocal<UnidadDeTrabajo> ACTUAL = new ThreadLocal<>();
+
+    private final Connection conexion;
+    private final Connection participante;
+    private boolean soloRollback;
+
+    @FunctionalInterface
+    public interface Operacion<T> {
+        T ejecutar() throws DAOException;
+    }
+
+    private UnidadDeTrabajo(Connection conexion) {
+        this.conexion = conexion;
+        this.participante = crearParticipante();
+    }
+
+    //Ejecuta la operación dentro de una transacción. Si ya hay una en curso en este hilo, se une a ella.
+    public static <T> T ejecutar(Operacion<T> operacion) throws DAOException {
+        if (ACTUAL.get() != null) {
+            return operacion.ejecutar();
+        }
+
+        Connection conexion;
+        try {
+            conexion = ConexionBD.getPool().getConnection();
+            conexion.setAutoCommit(false);
+        } catch (SQLException e) {
+            throw new DAOException("No se pudo iniciar la transacción", e);
+        }
+
+        UnidadDeTrabajo unidad = new UnidadDeTrabajo(conexion);
+        ACTUAL.set(unidad);
+        try {
+            T resultado;
+            try {
+                resultado = operacion.ejecutar();
+            } catch (DAOException | RuntimeException e) {
+                unidad.rollback(e);
+                throw e;
+            }
+
+            if (unidad.soloRollback) {
+                DAOException e = new DAOException("La transacción fue revertida por una operación interna.");
+                unidad.rollback(e);
+                throw e;
+            }
+
+            try {
+                conexion.commit();
+            } catch (SQLException e) {
+                DAOException error = new DAOException("Error al confirmar la transacción", e);
+                unidad.rollback(error);
+                throw error;
+            }
+            return resultado;
+        } finally {
+            ACTUAL.remove();
+            try {
+                conexion.close();
+            } catch (SQLException e) {
+                System.err.println("Error al liberar la conexión de la transacción: " + e.getMessage());
+            }
+        }
+    }
+
+    public static boolean enCurso() {
+        return ACTUAL.get() != null;
+    }
+
+    //Conexión de la transacción en curso en este hilo, o null si no hay ninguna.
+    static Connection conexionEnCurso() {
+        UnidadDeTrabajo unidad = ACTUAL.get();
+        return unidad != null ? unidad.participante : null;
+    }
+
+    private void rollback(Exception causa) {
+        try {
+            conexion.rollback();
+        } catch (SQLException e) {
+            causa.addSuppressed(e);
+        }
+    }
+
+    //Vista de la conexión para los DAOs: no la cierran ni controlan la transacción.
+    //Un rollback() de un DAO marca la unidad para que no se confirme.
+    private Connection crearParticipante() {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, metodo, args) -> {
+                    switch (metodo.getName()) {
+                        case "close":
+                        case "setAutoCommit":
+                        case "commit":
+                            return null;
+                        case "rollback":
+                            if (args == null) {
+                                soloRollback = true;
+                                return null;
+                            }
+                            break;
+                        case "getAutoCommit":
+                            return false;
+                        case "isClosed":
+                            return ACTUAL.get() != this;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return "UnidadDeTrabajo[" + conexion + "]";
+                        default:
+                            break;
+                    }
+                    try {
+                        return metodo.invoke(conexion, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -2,11 +2,15 @@ package biblioteca.data.interfaces;
 
 import biblioteca.data.dao.DAOException;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface DAO<T> {
     void insertar(T t) throws DAOException;
     T buscarPorId(int id) throws DAOException;
+    // Busca varias entidades por la misma clave que buscarPorId; los ids inexistentes no aparecen en el mapa
+    Map<Integer, T> buscarPorIds(Collection<Integer> ids) throws DAOException;
     List<T> listarTodos() throws DAOException;
     void actualizar(T t) throws DAOException;
     void eliminar(int id) throws DAOException;
@@ -0,0 +1,53 @@
+package biblioteca.data.mapeo;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Índices de las columnas de un ResultSet, resueltos una sola vez a partir de su ResultSetMetaData.
+ * Las etiquetas se comparan sin distinguir mayúsculas (MySQL y H2 las informan distinto);
+ * si una etiqueta se repite vale la primera, igual que ResultSet.findColumn.
+ * Lleva además el MapaIdentidad de la consulta, compartido por todos los mapeadores enlazados a ella.
+ */
+public final class Columnas {
+
+    private final Map<String, Integer> indices;
+    private final MapaIdentidad identidades = new MapaIdentidad();
+
+    private Columnas(Map<String, Integer> indices) {
+        this.indices = indices;
+    }
+
+    public static Columnas de(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int cantidad = meta.getColumnCount();
+        Map<String, Integer> indices = new HashMap<>(cantidad * 2);
+        for (int i = 1; i <= cantidad; i++) {
+            indices.putIfAbsent(meta.getColumnLabel(i).toLowerCase(), i);
+        }
+        return new Columnas(indices);
+    }
+
+    /**
+     * Índice (base 1) de la columna con esa etiqueta.
+     * @throws SQLException si la consulta no trae la columna
+     */
+    public int indice(String etiqueta) throws SQLException {
+        Integer indice = indices.get(etiqueta.toLowerCase());
+        if (indice == null) {
+            throw new SQLException("La consulta no incluye la columna '" + etiqueta + "'");
+        }
+        return indice;
+    }
+
+    public MapaIdentidad identidades() {
+        return identidades;
+    }
+
+    public boolean contiene(String etiqueta) {
+        return indices.containsKey(etiqueta.toLowerCase());
+    }
+}
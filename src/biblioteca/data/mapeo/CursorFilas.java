@@ -0,0 +1,150 @@
+package biblioteca.data.mapeo;
+
+import biblioteca.data.db.ConfigBD;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Recorrido perezoso de una consulta como Stream: cada fila se lee y se mapea recién cuando el Stream la pide,
+ * sobre un ResultSet de sólo avance con el fetch size de cursor.fetch.size, de modo que un barrido completo
+ * de la tabla no junta todas las filas en memoria.
+ * La sentencia se prepara fuera de la caché de sentencias del pool (forma de tres argumentos), así el fetch size
+ * de cursor no queda en una sentencia cacheada que después reusa una consulta común con el mismo SQL.
+ * El Stream es dueño del ResultSet, de la sentencia y de la conexión: hay que cerrarlo (try-with-resources)
+ * para devolver la conexión al pool. El MapaIdentidad de la consulta se vacía cada FILAS_POR_TANDA filas: comparte
+ * instancias dentro de una tanda, pero un recorrido de préstamos (un ejemplar distinto por fila) no retiene
+ * una entidad por fila leída.
+ */
+public final class CursorFilas {
+
+    private static final int FILAS_POR_TANDA = 1000;
+
+    private CursorFilas() {
+    }
+
+    /**
+     * Prepara y ejecuta la consulta sobre la conexión dada y devuelve sus filas mapeadas como Stream.
+     * Si algo falla antes de devolver el Stream, la conexión se cierra acá.
+     * Los errores al avanzar se lanzan como RuntimeException con la SQLException como causa.
+     * @param parametros valores para los ? de la consulta, en orden
+     */
+    public static <T> Stream<T> abrir(Connection conexion, String sql, MapeadorFilas<T> mapeador,
+                                      Object... parametros) throws SQLException {
+        return abrirEnSerie(conexion, List.of(sql), mapeador, parametros);
+    }
+
+    /**
+     * Como abrir, con varias consultas que se recorren una detrás de otra sobre la misma conexión: la siguiente
+     * se ejecuta recién cuando se agotan las filas de la anterior, después de cerrar su ResultSet y su sentencia.
+     * Así un recorrido de varias tablas ocupa una sola conexión del pool.
+     * @param parametros valores para los ? de cada consulta, en orden
+     */
+    public static <T> Stream<T> abrirEnSerie(Connection conexion, List<String> consultas, MapeadorFilas<T> mapeador,
+                                             Object... parametros) throws SQLException {
+        Filas<T> filas = new Filas<>(conexion, consultas, mapeador, parametros);
+        try {
+            filas.abrirSiguiente();
+        } catch (SQLException | RuntimeException e) {
+            filas.cerrar();
+            throw e;
+        }
+        return StreamSupport.stream(filas, false).onClose(filas::cerrar);
+    }
+
+    //Cierra en orden inverso al de apertura; un error al cerrar no impide cerrar lo que sigue.
+    private static void cerrar(AutoCloseable... recursos) {
+        RuntimeException primero = null;
+        for (AutoCloseable recurso : recursos) {
+            if (recurso == null) continue;
+            try {
+                recurso.close();
+            } catch (Exception e) {
+                if (primero == null) primero = new RuntimeException("Error al cerrar el cursor", e);
+            }
+        }
+        if (primero != null) throw primero;
+    }
+
+    private static final class Filas<T> extends Spliterators.AbstractSpliterator<T> {
+        private final Connection conexion;
+        private final List<String> consultas;
+        private final MapeadorFilas<T> mapeador;
+        private final Object[] parametros;
+        private int siguiente;
+
+        private PreparedStatement ps;
+        private ResultSet rs;
+        private LectorFila<T> lector;
+        private MapaIdentidad identidades;
+        private int leidasEnTanda;
+
+        private Filas(Connection conexion, List<String> consultas, MapeadorFilas<T> mapeador, Object[] parametros) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED);
+            this.conexion = conexion;
+            this.consultas = consultas;
+            this.mapeador = mapeador;
+            this.parametros = parametros;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> accion) {
+            try {
+                while (rs == null || !rs.next()) {
+                    if (!abrirSiguiente()) return false;
+                }
+                if (++leidasEnTanda > FILAS_POR_TANDA) {
+                    identidades.vaciar();
+                    leidasEnTanda = 1;
+                }
+                accion.accept(lector.leer(rs));
+                return true;
+            } catch (SQLException e) {
+                throw new RuntimeException("Error al leer la siguiente fila del cursor", e);
+            }
+        }
+
+        //Cierra la consulta en curso y ejecuta la siguiente; false si ya no quedan.
+        private boolean abrirSiguiente() throws SQLException {
+            cerrarConsulta();
+            if (siguiente == consultas.size()) return false;
+
+            ps = conexion.prepareStatement(consultas.get(siguiente++), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            int fetch = ConfigBD.actual().getTamanioFetchCursor();
+            ps.setFetchSize(fetch < 0 ? Integer.MIN_VALUE : fetch);
+            for (int i = 0; i < parametros.length; i++) {
+                ps.setObject(i + 1, parametros[i]);
+            }
+            rs = ps.executeQuery();
+            Columnas columnas = Columnas.de(rs);
+            lector = mapeador.enlazar(columnas);
+            identidades = columnas.identidades();
+            leidasEnTanda = 0;
+            return true;
+        }
+
+        private void cerrarConsulta() {
+            ResultSet filas = rs;
+            PreparedStatement sentencia = ps;
+            rs = null;
+            ps = null;
+            CursorFilas.cerrar(filas, sentencia);
+        }
+
+        private void cerrar() {
+            ResultSet filas = rs;
+            PreparedStatement sentencia = ps;
+            rs = null;
+            ps = null;
+            CursorFilas.cerrar(filas, sentencia, conexion);
+        }
+    }
+}
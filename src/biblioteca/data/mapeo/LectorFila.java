@@ -0,0 +1,14 @@
+package biblioteca.data.mapeo;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Lee la fila actual de un ResultSet usando índices de columna ya resueltos.
+ * Se obtiene con MapeadorFilas.enlazar y sólo es válido para el ResultSet con el que se enlazó.
+ */
+@FunctionalInterface
+public interface LectorFila<T> {
+
+    T leer(ResultSet rs) throws SQLException;
+}
@@ -0,0 +1,43 @@
+package biblioteca.data.mapeo;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Mapa de identidad de una consulta: una única instancia por tipo de entidad y clave primaria.
+ * Así un socio con muchos préstamos en un listado se materializa una sola vez y todas las filas lo comparten.
+ * Vive lo que dura el recorrido de un ResultSet (ver Columnas), salvo en los cursores, que lo vacían por tandas;
+ * no es seguro entre hilos.
+ */
+public final class MapaIdentidad {
+
+    private final Map<Class<?>, Map<Integer, Object>> entidades = new HashMap<>();
+
+    /**
+     * Instancia ya leída con esa clave, o null si todavía no apareció en la consulta.
+     */
+    public <T> T buscar(Class<T> tipo, int id) {
+        Map<Integer, Object> porId = entidades.get(tipo);
+        return porId != null ? tipo.cast(porId.get(id)) : null;
+    }
+
+    public <T> T registrar(Class<T> tipo, int id, T entidad) {
+        entidades.computeIfAbsent(tipo, t -> new HashMap<>()).put(id, entidad);
+        return entidad;
+    }
+
+    /**
+     * Olvida todas las instancias; las filas siguientes vuelven a materializar lo que referencien.
+     */
+    public void vaciar() {
+        entidades.clear();
+    }
+
+    public int tamanio() {
+        int total = 0;
+        for (Map<Integer, Object> porId : entidades.values()) {
+            total += porId.size();
+        }
+        return total;
+    }
+}
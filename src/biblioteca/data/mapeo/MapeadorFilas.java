@@ -0,0 +1,41 @@
+package biblioteca.data.mapeo;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mapeo de filas a entidades en dos pasos: enlazar resuelve una vez, contra los metadatos del ResultSet,
+ * los índices de las columnas que necesita; el LectorFila resultante lee cada fila por índice.
+ * Un mapeador puede enlazar otros dentro de su propio enlazar para armar entidades anidadas
+ * (Prestamo con su Socio y su Ejemplar, Ejemplar con su Libro).
+ */
+@FunctionalInterface
+public interface MapeadorFilas<T> {
+
+    LectorFila<T> enlazar(Columnas columnas) throws SQLException;
+
+    default LectorFila<T> enlazar(ResultSet rs) throws SQLException {
+        return enlazar(Columnas.de(rs));
+    }
+
+    /**
+     * Recorre el ResultSet completo y devuelve una entidad por fila.
+     */
+    default List<T> listar(ResultSet rs) throws SQLException {
+        LectorFila<T> lector = enlazar(rs);
+        List<T> lista = new ArrayList<>();
+        while (rs.next()) {
+            lista.add(lector.leer(rs));
+        }
+        return lista;
+    }
+
+    /**
+     * Devuelve la entidad de la primera fila, o null si el ResultSet está vacío.
+     */
+    default T primero(ResultSet rs) throws SQLException {
+        return rs.next() ? enlazar(rs).leer(rs) : null;
+    }
+}
@@ -0,0 +1,305 @@
+package biblioteca.data.mapeo;
+
+import biblioteca.entities.inventario.Ejemplar;
+import biblioteca.entities.inventario.EstadoEjemplar;
+import biblioteca.entities.inventario.Libro;
+import biblioteca.entities.prestamos.EstadoPrestamo;
+import biblioteca.entities.prestamos.Prestamo;
+import biblioteca.entities.reportes.HistorialResumen;
+import biblioteca.entities.reportes.PrestamoResumen;
+import biblioteca.entities.usuarios.Bibliotecario;
+import biblioteca.entities.usuarios.EstadoSocio;
+import biblioteca.entities.usuarios.Socio;
+import biblioteca.entities.usuarios.TipoUsuario;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Mapeadores compartidos por los DAOs que leen préstamos con todas sus relaciones
+ * (Prestamo, Historial, Notificaciones, Comprobante y Devolucion) y por los DAOs de Socio, Bibliotecario
+ * y Ejemplar. Usan los alias de columna comunes a esas consultas (s_*, b_*, e_estado, l_categoria, ...);
+ * lo que cambia entre consultas (alias del id del préstamo o del libro, JOINs opcionales) se recibe por parámetro.
+ * Socio, Bibliotecario, Libro y Ejemplar pasan por el MapaIdentidad de la consulta: la misma clave primaria
+ * devuelve la misma instancia en todas las filas.
+ * También arma las proyecciones de reporte (PrestamoResumen, HistorialResumen), que leen sólo las columnas que muestran.
+ */
+public final class Mapeadores {
+
+    private Mapeadores() {
+    }
+
+    /**
+     * Socio con sus datos de Usuario (alias s_*).
+     */
+    public static MapeadorFilas<Socio> socio() {
+        return socio(false);
+    }
+
+    /**
+     * Socio con sus datos de Usuario (alias s_*).
+     * @param opcional si es true devuelve null cuando id_socio viene NULL (LEFT JOIN)
+     */
+    public static MapeadorFilas<Socio> socio(boolean opcional) {
+        return c -> {
+            int idSocio = c.indice("id_socio");
+            int idUsuario = c.indice("s_id_usuario");
+            int nombre = c.indice("s_nombre");
+            int apellido = c.indice("s_apellido");
+            int dni = c.indice("s_dni");
+            int email = c.indice("s_email");
+            int telefono = c.indice("s_telefono");
+            int fechaRegistro = c.indice("s_fecha_registro");
+            int username = c.indice("s_username");
+            int password = c.indice("s_password");
+            int tipo = c.indice("s_tipo");
+            int numeroSocio = c.indice("numero_socio");
+            int vencCarnet = c.indice("s_fecha_vencimiento_carnet");
+            int estado = c.indice("s_estado");
+            int sanciones = c.indice("tiene_sanciones");
+            int atrasos = c.indice("tiene_atrasos");
+            int categoria = c.indice("s_categoria");
+            MapaIdentidad mapa = c.identidades();
+
+            return rs -> {
+                int id = rs.getInt(idSocio);
+                if (opcional && rs.wasNull()) {
+                    return null;
+                }
+                Socio existente = mapa.buscar(Socio.class, id);
+                if (existente != null) {
+                    return existente;
+                }
+                String cat = rs.getString(categoria);
+                if (cat == null || cat.isBlank()) {
+                    cat = "Estándar";
+                }
+                Socio socio = new Socio(rs.getInt(idUsuario), rs.getString(nombre), rs.getString(apellido),
+                        rs.getString(dni), rs.getString(email), rs.getString(telefono),
+                        rs.getDate(fechaRegistro).toLocalDate(),
+                        TipoUsuario.valueOf(rs.getString(tipo).toUpperCase()),
+                        rs.getString(username), rs.getString(password), rs.getString(numeroSocio),
+                        fecha(rs.getDate(vencCarnet)), EstadoSocio.desdeCodigo(rs.getInt(estado)),
+                        rs.getBoolean(sanciones), rs.getBoolean(atrasos), cat);
+                socio.setIdSocio(id);
+                return mapa.registrar(Socio.class, id, socio);
+            };
+        };
+    }
+
+    /**
+     * Bibliotecario con sus datos de Usuario (alias b_*); null si el LEFT JOIN no trajo bibliotecario.
+     */
+    public static MapeadorFilas<Bibliotecario> bibliotecario() {
+        return c -> {
+            int idBibliotecario = c.indice("id_bibliotecario");
+            int idUsuario = c.indice("b_id_usuario");
+            int nombre = c.indice("b_nombre");
+            int apellido = c.indice("b_apellido");
+            int dni = c.indice("b_dni");
+            int email = c.indice("b_email");
+            int telefono = c.indice("b_telefono");
+            int fechaRegistro = c.indice("b_fecha_registro");
+            int username = c.indice("b_username");
+            int password = c.indice("b_password");
+            int legajo = c.indice("legajo");
+            int turno = c.indice("turno");
+            MapaIdentidad mapa = c.identidades();
+
+            return rs -> {
+                int id = rs.getInt(idBibliotecario);
+                if (rs.wasNull()) {
+                    return null;
+                }
+                Bibliotecario existente = mapa.buscar(Bibliotecario.class, id);
+                if (existente != null) {
+                    return existente;
+                }
+                Bibliotecario bibliotecario = new Bibliotecario(
+                        rs.getInt(idUsuario), rs.getString(nombre), rs.getString(apellido), rs.getString(dni),
+                        rs.getString(email), rs.getString(telefono), rs.getDate(fechaRegistro).toLocalDate(),
+                        TipoUsuario.BIBLIOTECARIO, rs.getString(username), rs.getString(password),
+                        rs.getString(legajo), rs.getString(turno)
+                );
+                bibliotecario.setIdBibliotecario(id);
+                return mapa.registrar(Bibliotecario.class, id, bibliotecario);
+            };
+        };
+    }
+
+    /**
+     * Libro con los nombres de autor y editorial.
+     * @param columnaId alias del id del libro en la consulta ("id_libro" o "l_id_libro")
+     * @param opcional  si es true devuelve null cuando el id viene NULL (LEFT JOIN)
+     */
+    public static MapeadorFilas<Libro> libro(String columnaId, boolean opcional) {
+        return c -> {
+            int id = c.indice(columnaId);
+            int titulo = c.indice("titulo");
+            int autor = c.indice("nombre_autor");
+            int isbn = c.indice("isbn");
+            int categoria = c.indice("l_categoria");
+            int editorial = c.indice("nombre_editorial");
+            int anio = c.indice("anio_publicacion");
+            int idAutor = c.indice("id_autor");
+            int idEditorial = c.indice("id_editorial");
+            MapaIdentidad mapa = c.identidades();
+
+            return rs -> {
+                int idLibro = rs.getInt(id);
+                if (opcional && rs.wasNull()) {
+                    return null;
+                }
+                Libro existente = mapa.buscar(Libro.class, idLibro);
+                if (existente != null) {
+                    return existente;
+                }
+                Libro libro = new Libro(idLibro, rs.getString(titulo), rs.getString(autor), rs.getString(isbn),
+                        rs.getString(categoria), rs.getString(editorial), rs.getInt(anio));
+                libro.setIdAutor(rs.getInt(idAutor));
+                libro.setIdEditorial(rs.getInt(idEditorial));
+                return mapa.registrar(Libro.class, idLibro, libro);
+            };
+        };
+    }
+
+    /**
+     * Ejemplar con su libro.
+     * @param opcional si es true devuelve null cuando id_ejemplar viene NULL (LEFT JOIN)
+     */
+    public static MapeadorFilas<Ejemplar> ejemplar(MapeadorFilas<Libro> libro, boolean opcional) {
+        return c -> {
+            int id = c.indice("id_ejemplar");
+            int codigo = c.indice("codigo_ejemplar");
+            int estado = c.indice("e_estado");
+            int ubicacion = c.indice("ubicacion");
+            LectorFila<Libro> lectorLibro = libro.enlazar(c);
+            MapaIdentidad mapa = c.identidades();
+
+            return rs -> {
+                int idEjemplar = rs.getInt(id);
+                if (opcional && rs.wasNull()) {
+                    return null;
+                }
+                Ejemplar existente = mapa.buscar(Ejemplar.class, idEjemplar);
+                if (existente != null) {
+                    return existente;
+                }
+                return mapa.registrar(Ejemplar.class, idEjemplar, new Ejemplar(idEjemplar, rs.getString(codigo),
+                        EstadoEjemplar.desdeCodigo(rs.getInt(estado)), rs.getString(ubicacion), lectorLibro.leer(rs)));
+            };
+        };
+    }
+
+    /**
+     * Préstamo con su socio, ejemplar y bibliotecario. La política no está en la tabla Prestamo:
+     * queda en null y la asigna el servicio si la necesita.
+     * @param columnaId     alias del id del préstamo ("id_prestamo" o "p_id_prestamo")
+     * @param columnaEstado alias del estado del préstamo ("estado" o "p_estado")
+     * @param opcional      si es true devuelve null cuando el id viene NULL (LEFT JOIN)
+     */
+    public static MapeadorFilas<Prestamo> prestamo(String columnaId, String columnaEstado, boolean opcional,
+                                                   MapeadorFilas<Socio> socio,
+                                                   MapeadorFilas<Ejemplar> ejemplar,
+                                                   MapeadorFilas<Bibliotecario> bibliotecario) {
+        return c -> {
+            int id = c.indice(columnaId);
+            int fechaPrestamo = c.indice("fecha_prestamo");
+            int fechaVencimiento = c.indice("fecha_vencimiento");
+            int estado = c.indice(columnaEstado);
+            int dias = c.indice("dias_prestamo");
+            LectorFila<Socio> lectorSocio = socio.enlazar(c);
+            LectorFila<Ejemplar> lectorEjemplar = ejemplar.enlazar(c);
+            LectorFila<Bibliotecario> lectorBibliotecario = bibliotecario.enlazar(c);
+
+            return rs -> {
+                int idPrestamo = rs.getInt(id);
+                if (opcional && rs.wasNull()) {
+                    return null;
+                }
+                LocalDate inicio = fecha(rs.getTimestamp(fechaPrestamo));
+                Prestamo prestamo = new Prestamo(idPrestamo, inicio != null ? inicio : LocalDate.now(),
+                        rs.getDate(fechaVencimiento).toLocalDate(), EstadoPrestamo.desdeCodigo(rs.getInt(estado)), rs.getInt(dias),
+                        lectorSocio.leer(rs), lectorEjemplar.leer(rs), null);
+                prestamo.setBibliotecario(lectorBibliotecario.leer(rs));
+                return prestamo;
+            };
+        };
+    }
+
+    /**
+     * Préstamo tal como lo traen los JOINs de Notificaciones, Comprobante y Devolucion (p_id_prestamo, p_estado).
+     */
+    public static MapeadorFilas<Prestamo> prestamoRelacionado() {
+        return prestamo("p_id_prestamo", "p_estado", false,
+                socio(), ejemplar(libro("id_libro", false), false), bibliotecario());
+    }
+
+    /**
+     * Proyección PrestamoResumen de las consultas de reporte: id_prestamo, estado, fechas, s_nombre, s_apellido,
+     * s_dni, codigo_ejemplar y titulo.
+     */
+    public static MapeadorFilas<PrestamoResumen> prestamoResumen() {
+        return c -> {
+            int id = c.indice("id_prestamo");
+            int nombre = c.indice("s_nombre");
+            int apellido = c.indice("s_apellido");
+            int dni = c.indice("s_dni");
+            int codigo = c.indice("codigo_ejemplar");
+            int titulo = c.indice("titulo");
+            int estado = c.indice("estado");
+            int fechaPrestamo = c.indice("fecha_prestamo");
+            int fechaVencimiento = c.indice("fecha_vencimiento");
+
+            return rs -> new PrestamoResumen(rs.getInt(id), rs.getString(nombre), rs.getString(apellido),
+                    rs.getString(dni), rs.getString(codigo), rs.getString(titulo), EstadoPrestamo.desdeCodigo(rs.getInt(estado)),
+                    fecha(rs.getTimestamp(fechaPrestamo)), fecha(rs.getDate(fechaVencimiento)));
+        };
+    }
+
+    /**
+     * Proyección HistorialResumen: datos del registro, nombre del socio y, si hay préstamo asociado
+     * (p_id_prestamo no NULL), su estado, fechas y el título del libro.
+     */
+    public static MapeadorFilas<HistorialResumen> historialResumen() {
+        return c -> {
+            int id = c.indice("id_historial");
+            int fecha = c.indice("fecha");
+            int tipo = c.indice("tipo_operacion");
+            int nombre = c.indice("s_nombre");
+            int apellido = c.indice("s_apellido");
+            int idPrestamo = c.indice("p_id_prestamo");
+            int titulo = c.indice("titulo");
+            int estado = c.indice("p_estado");
+            int fechaPrestamo = c.indice("fecha_prestamo");
+            int fechaVencimiento = c.indice("fecha_vencimiento");
+
+            return rs -> {
+                int prestamo = rs.getInt(idPrestamo);
+                Integer idPrestamoLeido = rs.wasNull() ? null : prestamo;
+                EstadoPrestamo estadoPrestamo = idPrestamoLeido != null ? EstadoPrestamo.desdeCodigo(rs.getInt(estado)) : null;
+                return new HistorialResumen(rs.getInt(id), fechaHora(rs.getTimestamp(fecha)), rs.getString(tipo),
+                        rs.getString(nombre), rs.getString(apellido), idPrestamoLeido, rs.getString(titulo),
+                        estadoPrestamo, fecha(rs.getTimestamp(fechaPrestamo)), fecha(rs.getDate(fechaVencimiento)));
+            };
+        };
+    }
+
+    public static LocalDate fecha(Date fecha) {
+        return fecha != null ? fecha.toLocalDate() : null;
+    }
+
+    /**
+     * DATETIME de la BD a fecha local; null si la columna es NULL.
+     */
+    public static LocalDate fecha(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant().atZone(ZoneId.systemDefault()).toLocalDate() : null;
+    }
+
+    public static LocalDateTime fechaHora(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime() : null;
+    }
+}
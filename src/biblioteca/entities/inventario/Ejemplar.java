@@ -1,7 +1,5 @@
 package biblioteca.entities.inventario;
 
-import java.util.Arrays;
-import java.util.List;
 import java.util.Objects;
 
 /**
@@ -12,29 +10,14 @@ public class Ejemplar {
 
     private int idEjemplar;
     private String codigo;
-    private String estado;
+    private EstadoEjemplar estado;
     private String ubicacion;
     private Libro libro;
 
-    private static final List<String> ESTADOS_VALIDOS = Arrays.asList("Disponible", "Prestado", "Dañado", "Extraviado");
-
-    private static String normalizarEstado(String estado) {
-        if (estado == null || estado.isBlank()) {
-            return "Disponible";
-        }
-        String estadoNormalizado = estado.trim();
-        for (String estadoValido : ESTADOS_VALIDOS) {
-            if (estadoValido.equalsIgnoreCase(estadoNormalizado)) {
-                return estadoValido;
-            }
-        }
-        throw new IllegalArgumentException("Estado no válido: " + estado);
-    }
-
-    public Ejemplar(int idEjemplar, String codigo, String estado, String ubicacion, Libro libro) {
+    public Ejemplar(int idEjemplar, String codigo, EstadoEjemplar estado, String ubicacion, Libro libro) {
         this.idEjemplar = idEjemplar;
         this.codigo = codigo;
-        setEstado(estado != null ? estado : "Disponible");
+        setEstado(estado);
         this.ubicacion = ubicacion;
         this.libro = libro;
     }
@@ -43,13 +26,13 @@ public class Ejemplar {
     public Ejemplar(int idEjemplar, String codigo, boolean disponible) {
         this.idEjemplar = idEjemplar;
         this.codigo = codigo;
-        this.estado = disponible ? "Disponible" : "Prestado";
+        this.estado = disponible ? EstadoEjemplar.DISPONIBLE : EstadoEjemplar.PRESTADO;
         this.ubicacion = "Sin asignar";
         this.libro = null;
     }
 
     // Constructor alternativo usado en BaseDeDatosSimulada
-    public Ejemplar(String codigo, Libro libro, String estado) {
+    public Ejemplar(String codigo, Libro libro, EstadoEjemplar estado) {
         this.idEjemplar = (int) (Math.random() * 1000);
         this.codigo = codigo;
         this.libro = libro;
@@ -59,45 +42,44 @@ public class Ejemplar {
 
     // Paso 5 del flujo CU03
     public boolean verificarDisponibilidad() {
-        return "Disponible".equalsIgnoreCase(consultarEstado());
+        return consultarEstado() == EstadoEjemplar.DISPONIBLE;
     }
 
     // Paso 6 del flujo CU03
-    public String consultarEstado() {
+    public EstadoEjemplar consultarEstado() {
         return estado;
     }
 
     // Paso 22 del flujo CU03
-    public void actualizarEstado(String nuevoEstado) {
-        this.estado = normalizarEstado(nuevoEstado);
+    public void actualizarEstado(EstadoEjemplar nuevoEstado) {
+        setEstado(nuevoEstado);
     }
 
     // Paso 23 del flujo CU03
-    public void cambiarEstadoBD(String nuevoEstado) {
+    public void cambiarEstadoBD(EstadoEjemplar nuevoEstado) {
         // Simulación de actualización en la “BD”
         actualizarEstado(nuevoEstado);
-        System.out.println("[BD] Estado del ejemplar " + codigo + " actualizado a: " + nuevoEstado);
+        System.out.println("[BD] Estado del ejemplar " + codigo + " actualizado a: " + nuevoEstado.getDescripcion());
     }
 
     public void marcarComoPrestado() {
-        cambiarEstadoBD("Prestado");
+        cambiarEstadoBD(EstadoEjemplar.PRESTADO);
     }
 
     public void marcarComoDisponible() {
-        cambiarEstadoBD("Disponible");
+        cambiarEstadoBD(EstadoEjemplar.DISPONIBLE);
     }
 
     public static boolean esEstadoValido(String estado) {
         if (estado == null || estado.isBlank()) {
             return false;
         }
-        String estadoNormalizado = estado.trim();
-        for (String estadoValido : ESTADOS_VALIDOS) {
-            if (estadoValido.equalsIgnoreCase(estadoNormalizado)) {
-                return true;
-            }
+        try {
+            EstadoEjemplar.desdeTexto(estado);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
         }
-        return false;
     }
 
     // ======== Getters y Setters ========
@@ -107,9 +89,9 @@ public class Ejemplar {
         this.idEjemplar = idEjemplar;
     }
     public String getCodigo() { return codigo; }
-    public String getEstado() { return estado; }
-    public void setEstado(String estado) {
-        this.estado = normalizarEstado(estado);
+    public EstadoEjemplar getEstado() { return estado; }
+    public void setEstado(EstadoEjemplar estado) {
+        this.estado = estado != null ? estado : EstadoEjemplar.DISPONIBLE;
     }
     public String getUbicacion() { return ubicacion; }
     public void setUbicacion(String ubicacion) { this.ubicacion = ubicacion; }
@@ -120,7 +102,7 @@ public class Ejemplar {
     public String toString() {
         return "Ejemplar{" +
                 "codigo='" + codigo + '\'' +
-                ", estado='" + estado + '\'' +
+                ", estado='" + estado.getDescripcion() + '\'' +
                 ", ubicacion='" + ubicacion + '\'' +
                 ", libro=" + (libro != null ? libro.getTitulo() : "Sin asignar") +
                 '}';
@@ -0,0 +1,55 @@
+package biblioteca.entities.inventario;
+
+/**
+ * Estado de un ejemplar. En la tabla Ejemplar se guarda el código (columna estado, TINYINT).
+ */
+public enum EstadoEjemplar {
+    DISPONIBLE(1, "Disponible"),
+    PRESTADO(2, "Prestado"),
+    DANADO(3, "Dañado"),
+    EXTRAVIADO(4, "Extraviado");
+
+    private static final EstadoEjemplar[] VALORES = values();
+
+    private final int codigo;
+    private final String descripcion;
+
+    EstadoEjemplar(int codigo, String descripcion) {
+        this.codigo = codigo;
+        this.descripcion = descripcion;
+    }
+
+    public int getCodigo() { return codigo; }
+    public String getDescripcion() { return descripcion; }
+
+    /**
+     * Estado guardado con ese código.
+     * @throws IllegalArgumentException si el código no corresponde a ningún estado
+     */
+    public static EstadoEjemplar desdeCodigo(int codigo) {
+        for (EstadoEjemplar estado : VALORES) {
+            if (estado.codigo == codigo) {
+                return estado;
+            }
+        }
+        throw new IllegalArgumentException("Código de estado de ejemplar desconocido: " + codigo);
+    }
+
+    /**
+     * Estado a partir del texto ingresado en los formularios: nombre o descripción, sin distinguir mayúsculas
+     * ("Dañado", "DANADO"). Un texto vacío es DISPONIBLE.
+     * @throws IllegalArgumentException si el texto no corresponde a ningún estado
+     */
+    public static EstadoEjemplar desdeTexto(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return DISPONIBLE;
+        }
+        String buscado = texto.trim();
+        for (EstadoEjemplar estado : VALORES) {
+            if (estado.name().equalsIgnoreCase(buscado) || estado.descripcion.equalsIgnoreCase(buscado)) {
+                return estado;
+            }
+        }
+        throw new IllegalArgumentException("Estado no válido: " + texto);
+    }
+}
@@ -78,13 +78,13 @@ public class Libro {
 
     public int contarEjemplaresDisponibles() {
         return (int) ejemplares.stream()
-                .filter(e -> e != null && "Disponible".equalsIgnoreCase(e.getEstado()))
+                .filter(e -> e != null && e.getEstado() == EstadoEjemplar.DISPONIBLE)
                 .count();
     }
 
     public int contarEjemplaresPrestados() {
         return (int) ejemplares.stream()
-                .filter(e -> e != null && "Prestado".equalsIgnoreCase(e.getEstado()))
+                .filter(e -> e != null && e.getEstado() == EstadoEjemplar.PRESTADO)
                 .count();
     }
 
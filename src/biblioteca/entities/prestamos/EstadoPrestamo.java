@@ -0,0 +1,36 @@
+package biblioteca.entities.prestamos;
+
+/**
+ * Estado de un préstamo. En la tabla Prestamo se guarda el código (columna estado, TINYINT).
+ */
+public enum EstadoPrestamo {
+    ACTIVO(1, "Activo"),
+    VENCIDO(2, "Vencido"),
+    DEVUELTO(3, "Devuelto");
+
+    private static final EstadoPrestamo[] VALORES = values();
+
+    private final int codigo;
+    private final String descripcion;
+
+    EstadoPrestamo(int codigo, String descripcion) {
+        this.codigo = codigo;
+        this.descripcion = descripcion;
+    }
+
+    public int getCodigo() { return codigo; }
+    public String getDescripcion() { return descripcion; }
+
+    /**
+     * Estado guardado con ese código.
+     * @throws IllegalArgumentException si el código no corresponde a ningún estado
+     */
+    public static EstadoPrestamo desdeCodigo(int codigo) {
+        for (EstadoPrestamo estado : VALORES) {
+            if (estado.codigo == codigo) {
+                return estado;
+            }
+        }
+        throw new IllegalArgumentException("Código de estado de préstamo desconocido: " + codigo);
+    }
+}
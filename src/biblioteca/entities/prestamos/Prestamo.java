@@ -18,7 +18,7 @@ public class Prestamo {
     private int id;
     private LocalDate fechaPrestamo;
     private LocalDate fechaVencimiento;
-    private String estado;
+    private EstadoPrestamo estado;
     private int diasPrestamo;
 
     private Socio socio;
@@ -46,8 +46,7 @@ public class Prestamo {
         this.bibliotecario = bibliotecario;
         this.politica = politica;
         this.diasPrestamo = (int) ChronoUnit.DAYS.between(fechaPrestamo, fechaVencimiento);
-        // Normalizamos el estado inicial a mayúsculas, alineado con la BD (DEFAULT 'ACTIVO')
-        this.estado = "ACTIVO";
+        this.estado = EstadoPrestamo.ACTIVO;
     }
 
     // Constructor simplificado (sin id, típico antes del guardado)
@@ -59,14 +58,14 @@ public class Prestamo {
 
     // Constructor alternativo (uso exclusivo desde DAO para reconstruir desde BD)
     public Prestamo(int id, LocalDate fechaPrestamo, LocalDate fechaVencimiento,
-                    String estado, int diasPrestamo,
+                    EstadoPrestamo estado, int diasPrestamo,
                     Socio socio, Ejemplar ejemplar,
                     PoliticaPrestamo politica) {
 
         this.id = id;
         this.fechaPrestamo = fechaPrestamo;
         this.fechaVencimiento = fechaVencimiento;
-        this.estado = (estado != null && !estado.isBlank()) ? estado.toUpperCase() : "ACTIVO";
+        this.estado = estado != null ? estado : EstadoPrestamo.ACTIVO;
         this.diasPrestamo = diasPrestamo;
         this.socio = socio;
         this.ejemplar = ejemplar;
@@ -128,17 +127,17 @@ public class Prestamo {
     //Lógica de negocio
 
     public boolean estaVencido() {
-        return LocalDate.now().isAfter(fechaVencimiento) && !"Devuelto".equalsIgnoreCase(estado);
+        return LocalDate.now().isAfter(fechaVencimiento) && estado != EstadoPrestamo.DEVUELTO;
     }
 
     public void marcarComoDevuelto() {
-        this.estado = "DEVUELTO";
+        this.estado = EstadoPrestamo.DEVUELTO;
     }
 
     public void actualizarEstado() {
-        if ("DEVUELTO".equalsIgnoreCase(estado)) return;
-        if (estaVencido()) estado = "VENCIDO";
-        else estado = "ACTIVO";
+        if (estado == EstadoPrestamo.DEVUELTO) return;
+        if (estaVencido()) estado = EstadoPrestamo.VENCIDO;
+        else estado = EstadoPrestamo.ACTIVO;
     }
 
     //Getters y Setters
@@ -146,7 +145,7 @@ public class Prestamo {
     public void setId(int id) { this.id = id; }
     public LocalDate getFechaPrestamo() { return fechaPrestamo; }
     public LocalDate getFechaVencimiento() { return fechaVencimiento; }
-    public String getEstado() { return estado; }
+    public EstadoPrestamo getEstado() { return estado; }
     public int getDiasPrestamo() { return diasPrestamo; }
     public void setDiasPrestamo(int diasPrestamo) {
         this.diasPrestamo = diasPrestamo;
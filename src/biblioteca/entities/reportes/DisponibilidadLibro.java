@@ -0,0 +1,17 @@
+package biblioteca.entities.reportes;
+
+import biblioteca.entities.inventario.Libro;
+
+/**
+ * Disponibilidad de un libro del catálogo según los contadores de la tabla DisponibilidadLibro.
+ * El libro viene con autor y editorial pero sin sus ejemplares: las cantidades ya están contadas.
+ */
+public record DisponibilidadLibro(Libro libro,
+                                  int total,
+                                  int disponibles,
+                                  int prestados) {
+
+    public boolean hayDisponibles() {
+        return disponibles > 0;
+    }
+}
@@ -32,12 +32,15 @@ public class Historial {
         this.socio = socio;
     }
 
-    // Constructor para DAO/operaciones individuales
+    // Constructor para DAO/operaciones individuales; el socio es null en los registros archivados de un socio
+    // dado de baja (HistorialArchivo no tiene claves foráneas)
     public Historial(int id, Socio socio, Prestamo prestamo, LocalDateTime fecha, String tipoOperacion, String detalles) {
-        this(id, socio);
+        if (id < 0) throw new IllegalArgumentException("El ID del historial no puede ser negativo.");
         if (fecha == null) throw new IllegalArgumentException("La fecha de la operación no puede ser nula.");
         if (tipoOperacion == null || tipoOperacion.isBlank())
             throw new IllegalArgumentException("El tipo de operación no puede estar vacío.");
+        this.id = id;
+        this.socio = socio;
         this.prestamo = prestamo;
         this.fecha = fecha;
         this.tipoOperacion = tipoOperacion;
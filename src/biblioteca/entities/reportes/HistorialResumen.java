@@ -0,0 +1,26 @@
+package biblioteca.entities.reportes;
+
+import biblioteca.entities.prestamos.EstadoPrestamo;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Proyección de sólo lectura de un registro del historial para listados.
+ * Los datos del préstamo son null cuando la operación no está asociada a uno.
+ */
+public record HistorialResumen(int id,
+                               LocalDateTime fecha,
+                               String tipoOperacion,
+                               String nombreSocio,
+                               String apellidoSocio,
+                               Integer idPrestamo,
+                               String tituloLibro,
+                               EstadoPrestamo estadoPrestamo,
+                               LocalDate fechaPrestamo,
+                               LocalDate fechaVencimiento) {
+
+    public boolean tienePrestamo() {
+        return idPrestamo != null;
+    }
+}
@@ -0,0 +1,25 @@
+package biblioteca.entities.reportes;
+
+import biblioteca.entities.prestamos.EstadoPrestamo;
+
+import java.time.LocalDate;
+
+/**
+ * Proyección de sólo lectura de un préstamo para reportes y listados.
+ * Trae únicamente los datos que se muestran (socio, ejemplar, libro, estado y fechas),
+ * sin armar el grafo completo de Prestamo con sus usuarios, autor y editorial.
+ */
+public record PrestamoResumen(int id,
+                              String nombreSocio,
+                              String apellidoSocio,
+                              String dniSocio,
+                              String codigoEjemplar,
+                              String tituloLibro,
+                              EstadoPrestamo estado,
+                              LocalDate fechaPrestamo,
+                              LocalDate fechaVencimiento) {
+
+    public String nombreCompletoSocio() {
+        return nombreSocio + " " + apellidoSocio;
+    }
+}
@@ -0,0 +1,36 @@
+package biblioteca.entities.usuarios;
+
+/**
+ * Estado de un socio. En la tabla Socio se guarda el código (columna estado, TINYINT).
+ */
+public enum EstadoSocio {
+    ACTIVO(1, "Activo"),
+    SUSPENDIDO(2, "Suspendido"),
+    INHABILITADO(3, "Inhabilitado");
+
+    private static final EstadoSocio[] VALORES = values();
+
+    private final int codigo;
+    private final String descripcion;
+
+    EstadoSocio(int codigo, String descripcion) {
+        this.codigo = codigo;
+        this.descripcion = descripcion;
+    }
+
+    public int getCodigo() { return codigo; }
+    public String getDescripcion() { return descripcion; }
+
+    /**
+     * Estado guardado con ese código.
+     * @throws IllegalArgumentException si el código no corresponde a ningún estado
+     */
+    public static EstadoSocio desdeCodigo(int codigo) {
+        for (EstadoSocio estado : VALORES) {
+            if (estado.codigo == codigo) {
+                return estado;
+            }
+        }
+        throw new IllegalArgumentException("Código de estado de socio desconocido: " + codigo);
+    }
+}
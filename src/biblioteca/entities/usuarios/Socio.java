@@ -1,5 +1,6 @@
 package biblioteca.entities.usuarios;
 
+import biblioteca.entities.prestamos.EstadoPrestamo;
 import biblioteca.entities.prestamos.Prestamo;
 
 import java.time.LocalDate;
@@ -15,7 +16,7 @@ public class Socio extends Usuario {
 
     private String numeroSocio;
     private LocalDate fechaVencimientoCarnet;
-    private String estado;
+    private EstadoSocio estado;
     private boolean tieneSanciones;
     private boolean tieneAtrasos;
     private List<Prestamo> prestamos;
@@ -23,7 +24,7 @@ public class Socio extends Usuario {
 
     public Socio(int id, String nombre, String apellido, String dni, String email, String telefono,
                  LocalDate fechaAlta, TipoUsuario tipo, String usuario, String contrasenia,
-                 String numeroSocio, LocalDate fechaVencimientoCarnet, String estado,
+                 String numeroSocio, LocalDate fechaVencimientoCarnet, EstadoSocio estado,
                  boolean tieneSanciones, boolean tieneAtrasos, String categoria) {
         super(id, nombre, apellido, dni, email, telefono, fechaAlta, tipo, usuario, contrasenia);
         this.numeroSocio = numeroSocio;
@@ -38,7 +39,7 @@ public class Socio extends Usuario {
     // Constructor simplificado (id corresponde actualmente al id_usuario)
     public Socio(int id, String nombre, String apellido, String dni, String email, String telefono,
                  LocalDate fechaAlta, TipoUsuario tipo, String usuario, String contrasenia,
-                 String numeroSocio, LocalDate fechaVencimientoCarnet, String estado,
+                 String numeroSocio, LocalDate fechaVencimientoCarnet, EstadoSocio estado,
                  boolean tieneSanciones, boolean tieneAtrasos) {
         this(id, nombre, apellido, dni, email, telefono, fechaAlta, tipo, usuario, contrasenia,
                 numeroSocio, fechaVencimientoCarnet, estado, tieneSanciones, tieneAtrasos, "Estándar");
@@ -63,7 +64,7 @@ public class Socio extends Usuario {
 
     public void setNumeroSocio(String numeroSocio) { this.numeroSocio = numeroSocio; }
     public void setFechaVencimientoCarnet(LocalDate fechaVencimientoCarnet) { this.fechaVencimientoCarnet = fechaVencimientoCarnet; }
-    public void setEstado(String estado) { this.estado = estado; }
+    public void setEstado(EstadoSocio estado) { this.estado = estado; }
     public void setTieneSanciones(boolean tieneSanciones) { this.tieneSanciones = tieneSanciones; }
     public void setTieneAtrasos(boolean tieneAtrasos) { this.tieneAtrasos = tieneAtrasos; }
     public void setCategoria(String categoria) {
@@ -86,7 +87,7 @@ public class Socio extends Usuario {
     public int getIdSocio() { return idSocio; }
     public String getNumeroSocio() { return numeroSocio; }
     public LocalDate getFechaVencimientoCarnet() { return fechaVencimientoCarnet; }
-    public String getEstado() { return estado; }
+    public EstadoSocio getEstado() { return estado; }
     public boolean isTieneSanciones() { return tieneSanciones; }
     public boolean isTieneAtrasos() { return tieneAtrasos; }
     public List<Prestamo> getPrestamos() { return prestamos; }
@@ -106,17 +107,17 @@ public class Socio extends Usuario {
         List<Prestamo> activos = new ArrayList<>();
         if (prestamos == null) return activos;
         for (Prestamo p : prestamos) {
-            if (p != null && p.getEstado() != null && !p.getEstado().equalsIgnoreCase("Devuelto")) activos.add(p);
+            if (p != null && p.getEstado() != null && p.getEstado() != EstadoPrestamo.DEVUELTO) activos.add(p);
         }
         return activos;
     }
 
     public boolean verificarHabilitacion() {
-        return estado != null && verificarVigencia() && !tieneSanciones && !tieneAtrasos && estado.equalsIgnoreCase("Activo");
+        return estado == EstadoSocio.ACTIVO && verificarVigencia() && !tieneSanciones && !tieneAtrasos;
     }
 
-    public void suspender() { this.estado = "Suspendido"; }
-    public void activar() { this.estado = "Activo"; this.tieneSanciones = false; this.tieneAtrasos = false; }
+    public void suspender() { this.estado = EstadoSocio.SUSPENDIDO; }
+    public void activar() { this.estado = EstadoSocio.ACTIVO; this.tieneSanciones = false; this.tieneAtrasos = false; }
 
     public void agregarPrestamo(Prestamo prestamo) {
         if (prestamo == null) throw new IllegalArgumentException("El préstamo no puede ser nulo.");
@@ -6,6 +6,7 @@ import biblioteca.data.dao.DAOException;
 import biblioteca.entities.inventario.Libro;
 import biblioteca.entities.prestamos.Prestamo;
 import biblioteca.entities.reportes.Historial;
+import biblioteca.entities.reportes.PrestamoResumen;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -75,21 +76,21 @@ public class ControlConsultas {
         sb.append("=== REPORTE DE PRÉSTAMOS ACTIVOS/VENCIDOS ===\n");
 
         try {
-            List<Prestamo> todosPrestamos = prestamoDAO.listarTodos();
+            List<PrestamoResumen> todosPrestamos = prestamoDAO.listarResumen();
 
             if (todosPrestamos.isEmpty()) {
                 sb.append("No hay préstamos registrados.\n");
             } else {
                 sb.append("Total de préstamos: ").append(todosPrestamos.size()).append("\n");
-                for (Prestamo p : todosPrestamos) {
+                for (PrestamoResumen p : todosPrestamos) {
                     sb.append(String.format(
                             "Préstamo N°%d | Socio: %s | Ejemplar: %s | Estado: %s | Fecha préstamo: %s | Vence: %s%n",
-                            p.getId(),
-                            p.getSocio() != null ? p.getSocio().getNombreCompleto() : "N/A",
-                            p.getEjemplar() != null ? p.getEjemplar().getCodigo() : "N/A",
-                            p.getEstado(),
-                            p.getFechaPrestamo(),
-                            p.getFechaVencimiento()
+                            p.id(),
+                            p.nombreCompletoSocio(),
+                            p.codigoEjemplar(),
+                            p.estado(),
+                            p.fechaPrestamo(),
+                            p.fechaVencimiento()
                     ));
                 }
             }
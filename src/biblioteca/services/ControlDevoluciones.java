@@ -4,8 +4,11 @@ import biblioteca.data.dao.DAOException;
 import biblioteca.data.dao.DevolucionDAO;
 import biblioteca.data.dao.PrestamoDAO;
 import biblioteca.data.dao.EjemplarDAO;
+import biblioteca.data.db.UnidadDeTrabajo;
 import biblioteca.entities.inventario.Ejemplar;
+import biblioteca.entities.inventario.EstadoEjemplar;
 import biblioteca.entities.prestamos.Devolucion;
+import biblioteca.entities.prestamos.EstadoPrestamo;
 import biblioteca.entities.prestamos.Prestamo;
 import biblioteca.entities.usuarios.Socio;
 
@@ -46,8 +49,8 @@ public class ControlDevoluciones {
 
         p.actualizarEstado();
 
-        return p.getEstado().equalsIgnoreCase("Activo")
-                || p.getEstado().equalsIgnoreCase("Vencido");
+        return p.getEstado() == EstadoPrestamo.ACTIVO
+                || p.getEstado() == EstadoPrestamo.VENCIDO;
     }
 
     public Prestamo buscarYValidarPrestamoParaDevolucion(int idPrestamo) throws DAOException {
@@ -73,10 +76,10 @@ public class ControlDevoluciones {
         return 0.0;
     }
 
-    private void liberarEjemplar(Prestamo prestamo, String nuevoEstado) {
+    private void liberarEjemplar(Prestamo prestamo, EstadoEjemplar nuevoEstado) {
         Ejemplar ej = prestamo.getEjemplar();
         if (ej != null) {
-            ej.setEstado(nuevoEstado != null && !nuevoEstado.isBlank() ? nuevoEstado : "Disponible");
+            ej.setEstado(nuevoEstado);
         }
     }
 
@@ -90,9 +93,10 @@ public class ControlDevoluciones {
             throw new Exception("El préstamo no puede devolverse (ya devuelto o inválido).");
 
         double multa = calcularMulta(prestamo);
+        EstadoEjemplar estadoFinal = EstadoEjemplar.desdeTexto(estadoEjemplar);
 
         estadoEjemplar = (estadoEjemplar == null || estadoEjemplar.isBlank())
-                ? "Disponible"
+                ? estadoFinal.getDescripcion()
                 : estadoEjemplar;
 
         Devolucion devolucion = new Devolucion(
@@ -105,16 +109,19 @@ public class ControlDevoluciones {
         );
 
         prestamo.marcarComoDevuelto();
-        liberarEjemplar(prestamo, estadoEjemplar);
-
-        devolucionDAO.insertar(devolucion);
-        prestamoDAO.actualizar(prestamo);
-        ejemplarDAO.actualizar(prestamo.getEjemplar());
-        Socio socio = prestamo.getSocio();
-        if (controlHistorial != null && socio != null) {
-            controlHistorial.registrarDevolucion(socio, devolucion);
-        }
-
-        return devolucion;
+        liberarEjemplar(prestamo, estadoFinal);
+
+        // Devolución, préstamo, ejemplar e historial se confirman o revierten juntos
+        return UnidadDeTrabajo.ejecutar(() -> {
+            devolucionDAO.insertar(devolucion);
+            prestamoDAO.actualizar(prestamo);
+            ejemplarDAO.actualizar(prestamo.getEjemplar());
+            Socio socio = prestamo.getSocio();
+            if (controlHistorial != null && socio != null) {
+                controlHistorial.registrarDevolucion(socio, devolucion);
+            }
+
+            return devolucion;
+        });
     }
 }
\ No newline at end of file
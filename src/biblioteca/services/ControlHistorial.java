@@ -5,10 +5,13 @@ import biblioteca.data.dao.HistorialDAO;
 import biblioteca.data.dao.PrestamoDAO;
 import biblioteca.entities.prestamos.Devolucion;
 import biblioteca.entities.reportes.Historial;
+import biblioteca.entities.reportes.HistorialResumen;
+import biblioteca.entities.reportes.PrestamoResumen;
 import biblioteca.entities.prestamos.Prestamo;
 import biblioteca.entities.inventario.Ejemplar;
 import biblioteca.entities.usuarios.Socio;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -94,12 +97,26 @@ public class ControlHistorial {
         return prestamoDAO.listarPorISBN(isbn);
     }
 
+    /**
+     * Préstamos de un socio como proyección liviana para mostrar en pantalla.
+     */
+    public List<PrestamoResumen> consultarResumenUsuario(String dni) throws DAOException {
+        return prestamoDAO.listarResumenPorDniSocio(dni);
+    }
+
+    /**
+     * Préstamos de un libro como proyección liviana para mostrar en pantalla.
+     */
+    public List<PrestamoResumen> consultarResumenLibro(String isbn) throws DAOException {
+        return prestamoDAO.listarResumenPorISBN(isbn);
+    }
+
     public boolean existeSocio(int idSocio) throws DAOException {
-        return !historialDAO.listarPorIdSocio(idSocio).isEmpty();
+        return historialDAO.existePorIdSocio(idSocio);
     }
 
     public boolean existeLibro(int idLibro) throws DAOException {
-        return !historialDAO.listarPorLibroId(idLibro).isEmpty();
+        return historialDAO.existePorLibroId(idLibro);
     }
 
     public List<Historial> obtenerHistorialCompleto() throws DAOException {
@@ -109,4 +126,21 @@ public class ControlHistorial {
         return historialDAO.listarTodos();
     }
 
+    /**
+     * Historial completo como proyección liviana, sin armar las entidades de cada registro.
+     */
+    public List<HistorialResumen> obtenerResumenHistorial() throws DAOException {
+        return historialDAO.listarResumen();
+    }
+
+    /**
+     * Resumen del historial entre dos días, ambos incluidos. Si el rango no llega a los meses archivados
+     * sólo se consulta el historial activo.
+     */
+    public List<HistorialResumen> obtenerResumenHistorial(LocalDate desde, LocalDate hasta) throws DAOException {
+        if (desde == null || hasta == null) throw new IllegalArgumentException("El rango de fechas no puede ser nulo.");
+        if (hasta.isBefore(desde)) throw new IllegalArgumentException("La fecha desde no puede ser posterior a hasta.");
+        return historialDAO.listarResumenPorRango(desde.atStartOfDay(), hasta.plusDays(1).atStartOfDay());
+    }
+
 }
@@ -1,10 +1,13 @@
 package biblioteca.services;
 
 import biblioteca.data.dao.DAOException;
+import biblioteca.data.dao.DisponibilidadLibroDAO;
 import biblioteca.data.dao.LibroDAO;
 import biblioteca.data.dao.EjemplarDAO;
 import biblioteca.entities.inventario.Ejemplar;
+import biblioteca.entities.inventario.EstadoEjemplar;
 import biblioteca.entities.inventario.Libro;
+import biblioteca.entities.reportes.DisponibilidadLibro;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -19,10 +22,12 @@ public class ControlLibros {
 
     private final LibroDAO libroDAO;
     private final EjemplarDAO ejemplarDAO;
+    private final DisponibilidadLibroDAO disponibilidadDAO;
 
-    public ControlLibros(LibroDAO libroDAO, EjemplarDAO ejemplarDAO) {
+    public ControlLibros(LibroDAO libroDAO, EjemplarDAO ejemplarDAO, DisponibilidadLibroDAO disponibilidadDAO) {
         this.libroDAO = libroDAO;
         this.ejemplarDAO = ejemplarDAO;
+        this.disponibilidadDAO = disponibilidadDAO;
     }
 
     public void registrarLibro(Libro libro) throws DAOException {
@@ -31,7 +36,7 @@ public class ControlLibros {
     }
     public void crearEjemplares(int idLibro,
                                 int cantidad,
-                                String estado,
+                                EstadoEjemplar estado,
                                 String ubicacion) throws DAOException {
 
         Libro libro = libroDAO.buscarPorId(idLibro);
@@ -39,10 +44,14 @@ public class ControlLibros {
             throw new DAOException("No existe un libro con ID " + idLibro);
         }
 
+        List<Ejemplar> nuevos = new ArrayList<>(cantidad);
         for (int i = 0; i < cantidad; i++) {
             String codigo = "LIB" + idLibro + "-EJ" + String.format("%03d", i + 1);
-            Ejemplar ej = new Ejemplar(0, codigo, estado, ubicacion, libro);
-            ejemplarDAO.insertar(ej);
+            nuevos.add(new Ejemplar(0, codigo, estado, ubicacion, libro));
+        }
+
+        ejemplarDAO.insertarLote(nuevos);
+        for (Ejemplar ej : nuevos) {
             libro.agregarEjemplar(ej);
         }
     }
@@ -73,43 +82,34 @@ public class ControlLibros {
         return libroDAO.listarTodos();
     }
 
+    /**
+     * Catálogo con total, disponibles y prestados por libro, leídos de los contadores de disponibilidad
+     * en una sola consulta. Los libros vienen sin sus ejemplares.
+     */
     public List<Map<String, Object>> listarLibrosConDetalleEjemplares() throws DAOException {
-        List<Libro> libros = libroDAO.listarTodos();
-        List<Map<String, Object>> resultado = new ArrayList<>();
+        return aDetalles(disponibilidadDAO.listarCatalogo());
+    }
 
-        for (Libro libro : libros) {
-            int disponibles = 0;
-            int prestados = 0;
+    /**
+     * Igual que listarLibrosConDetalleEjemplares, sólo con los libros que tienen algún ejemplar disponible.
+     */
+    public List<Map<String, Object>> listarLibrosDisponibles() throws DAOException {
+        return aDetalles(disponibilidadDAO.listarConDisponibles());
+    }
 
-            List<Ejemplar> ejemplares = ejemplarDAO.listarPorLibro(libro);
-            for (Ejemplar e : ejemplares) {
-                if ("Disponible".equalsIgnoreCase(e.getEstado())) disponibles++;
-                else if ("Prestado".equalsIgnoreCase(e.getEstado())) prestados++;
-            }
+    private List<Map<String, Object>> aDetalles(List<DisponibilidadLibro> disponibilidades) {
+        List<Map<String, Object>> resultado = new ArrayList<>(disponibilidades.size());
 
+        for (DisponibilidadLibro d : disponibilidades) {
             Map<String, Object> detalle = new HashMap<>();
-            detalle.put("libro", libro);
-            detalle.put("totalEjemplares", ejemplares.size());
-            detalle.put("disponibles", disponibles);
-            detalle.put("prestados", prestados);
+            detalle.put("libro", d.libro());
+            detalle.put("totalEjemplares", d.total());
+            detalle.put("disponibles", d.disponibles());
+            detalle.put("prestados", d.prestados());
 
             resultado.add(detalle);
         }
 
         return resultado;
     }
-
-    public List<Map<String, Object>> listarLibrosDisponibles() throws DAOException {
-        List<Map<String, Object>> todosLosLibros = listarLibrosConDetalleEjemplares();
-        List<Map<String, Object>> resultado = new ArrayList<>();
-
-        for (Map<String, Object> detalle : todosLosLibros) {
-            Integer disponibles = (Integer) detalle.get("disponibles");
-            if (disponibles != null && disponibles > 0) {
-                resultado.add(detalle);
-            }
-        }
-
-        return resultado;
-    }
 }
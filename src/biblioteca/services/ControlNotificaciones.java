@@ -4,11 +4,11 @@ import biblioteca.data.dao.DAOException;
 import biblioteca.data.dao.NotificacionesDAO;
 import biblioteca.data.dao.PrestamoDAO;
 import biblioteca.entities.notificaciones.Notificacion;
+import biblioteca.entities.prestamos.EstadoPrestamo;
 import biblioteca.entities.prestamos.Prestamo;
 import biblioteca.ui.componentes.NotificadorEmail;
 
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 /**
@@ -30,48 +30,30 @@ public class ControlNotificaciones {
     }
 
     public void generarNotificacionesPendientes() throws DAOException {
-        List<Prestamo> prestamos = prestamoDAO.listarTodos();
+        prestamoDAO.marcarVencidos();
 
-        for (Prestamo p : prestamos) {
-            if (p == null) continue;
-
-            if ("Activo".equalsIgnoreCase(p.getEstado())
-                    && p.getFechaVencimiento().isBefore(LocalDate.now())) {
-                generarNotificacion(p, "Aviso: su préstamo está vencido. Por favor devuelva el ejemplar.");
-            }
-        }
+        String mensaje = "Aviso: su préstamo está vencido. Por favor devuelva el ejemplar.";
+        generarNotificaciones(prestamoDAO.listarIdsSinNotificacionPorEstado(EstadoPrestamo.VENCIDO, mensaje), mensaje);
     }
 
     public void verificarVencimientos() throws DAOException {
-        List<Prestamo> prestamos = prestamoDAO.listarTodos();
-        LocalDate hoy = LocalDate.now();
+        prestamoDAO.marcarVencidos();
 
-        for (Prestamo p : prestamos) {
-            if (p == null || p.getSocio() == null) continue;
+        String recordatorio = "Recordatorio: su préstamo vence en 2 días.";
+        generarNotificaciones(prestamoDAO.listarIdsActivosQueVencenSinNotificacion(LocalDate.now().plusDays(2), recordatorio),
+                recordatorio);
 
-            p.actualizarEstado();
-            long diasRestantes = ChronoUnit.DAYS.between(hoy, p.getFechaVencimiento());
-
-            if ("Activo".equalsIgnoreCase(p.getEstado()) && diasRestantes == 2) {
-                generarNotificacion(p, "Recordatorio: su préstamo vence en 2 días.");
-            } else if ("Vencido".equalsIgnoreCase(p.getEstado())) {
-                generarNotificacion(p, "Aviso: su préstamo ha vencido.");
-            }
-        }
+        String aviso = "Aviso: su préstamo ha vencido.";
+        generarNotificaciones(prestamoDAO.listarIdsSinNotificacionPorEstado(EstadoPrestamo.VENCIDO, aviso), aviso);
     }
 
-    private void generarNotificacion(Prestamo prestamo, String mensaje) {
-        try {
-            for (Notificacion n : notificacionesDAO.listarPorPrestamoId(prestamo.getId())) {
-                if (mensaje.equalsIgnoreCase(n.getMensaje())) return;
-            }
-
-            Notificacion nueva = new Notificacion(mensaje, prestamo);
+    //Los préstamos que ya tienen el mensaje se descartan en SQL (NOT EXISTS sobre Notificacion, tras marcarVencidos);
+    //los que necesitan una notificación nueva se leen juntos con buscarPorIds.
+    private void generarNotificaciones(List<Integer> sinAviso, String mensaje) throws DAOException {
+        if (sinAviso.isEmpty()) return;
 
-            notificacionesDAO.insertar(nueva);
-
-        } catch (DAOException e) {
-            throw new RuntimeException("Error al generar notificación", e);
+        for (Prestamo prestamo : prestamoDAO.buscarPorIds(sinAviso).values()) {
+            notificacionesDAO.insertar(new Notificacion(mensaje, prestamo));
         }
     }
 
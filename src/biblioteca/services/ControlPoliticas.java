@@ -4,6 +4,7 @@ import biblioteca.data.dao.SocioDAO;
 import biblioteca.data.dao.PoliticaPrestamoDAO;
 import biblioteca.data.dao.DAOException;
 import biblioteca.entities.prestamos.PoliticaPrestamo;
+import biblioteca.entities.usuarios.EstadoSocio;
 import biblioteca.entities.usuarios.Socio;
 
 import java.time.LocalDate;
@@ -107,7 +108,7 @@ public class ControlPoliticas {
         Socio socioBD = socioDAO.buscarPorDni(socio.getDni());
         if (socioBD != null) socio = socioBD;
 
-        if (!"ACTIVO".equalsIgnoreCase(socio.getEstado())) return false;
+        if (socio.getEstado() != EstadoSocio.ACTIVO) return false;
         if (socio.isTieneSanciones()) return false;
         if (socio.isTieneAtrasos()) return false;
 
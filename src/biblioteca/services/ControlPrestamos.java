@@ -1,7 +1,9 @@
 package biblioteca.services;
 
 import biblioteca.data.dao.*;
+import biblioteca.data.db.UnidadDeTrabajo;
 import biblioteca.entities.inventario.Ejemplar;
+import biblioteca.entities.inventario.EstadoEjemplar;
 import biblioteca.entities.prestamos.Prestamo;
 import biblioteca.entities.prestamos.PoliticaPrestamo;
 import biblioteca.entities.usuarios.Bibliotecario;
@@ -54,7 +56,7 @@ public class ControlPrestamos {
         return ejemplar;
     }
 
-    private void actualizarEstadoEjemplar(Ejemplar ejemplar, String nuevoEstado) throws DAOException {
+    private void actualizarEstadoEjemplar(Ejemplar ejemplar, EstadoEjemplar nuevoEstado) throws DAOException {
         ejemplar.setEstado(nuevoEstado);
         ejemplarDAO.actualizar(ejemplar);
     }
@@ -73,15 +75,18 @@ public class ControlPrestamos {
                     politica
             );
 
-            prestamoDAO.insertar(prestamo);
+            // Inserción, cambio de estado del ejemplar e historial en una única transacción
+            return UnidadDeTrabajo.ejecutar(() -> {
+                prestamoDAO.insertar(prestamo);
 
-            actualizarEstadoEjemplar(ejemplar, "Prestado");
+                actualizarEstadoEjemplar(ejemplar, EstadoEjemplar.PRESTADO);
 
-            if (controlHistorial != null) {
-                controlHistorial.registrarPrestamo(prestamo);
-            }
+                if (controlHistorial != null) {
+                    controlHistorial.registrarPrestamo(prestamo);
+                }
 
-            return prestamo;
+                return prestamo;
+            });
 
         } catch (DAOException e) {
             throw new IllegalStateException("Error en BD al registrar el préstamo", e);
@@ -1,12 +1,14 @@
 package biblioteca.services;
 
 import biblioteca.data.dao.BibliotecarioDAO;
+import biblioteca.data.dao.DAOAsincrono;
 import biblioteca.data.dao.DAOException;
 import biblioteca.data.dao.SocioDAO;
 import biblioteca.entities.usuarios.*;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controlador de servicios para la gestión de usuarios del sistema.
@@ -40,7 +42,7 @@ public class ControlUsuarios {
         socio.setNumeroSocio(numeroSocio);
 
         socio.setFechaVencimientoCarnet(fechaRegistro.plusYears(1));
-        socio.setEstado("Activo");
+        socio.setEstado(EstadoSocio.ACTIVO);
         socio.setTieneSanciones(false);
         socio.setTieneAtrasos(false);
 
@@ -72,10 +74,14 @@ public class ControlUsuarios {
     }
 
     public Usuario buscarPorDni(String dni) throws DAOException {
-        Bibliotecario bibliotecario = bibliotecarioDAO.buscarPorDni(dni);
+        // Las dos búsquedas son independientes: se lanzan en paralelo y tiene prioridad el bibliotecario
+        CompletableFuture<Bibliotecario> busquedaBibliotecario = DAOAsincrono.ejecutar(() -> bibliotecarioDAO.buscarPorDni(dni));
+        CompletableFuture<Socio> busquedaSocio = DAOAsincrono.ejecutar(() -> socioDAO.buscarPorDni(dni));
+
+        Bibliotecario bibliotecario = DAOAsincrono.esperar(busquedaBibliotecario);
         if (bibliotecario != null) return bibliotecario;
 
-        Socio socio = socioDAO.buscarPorDni(dni);
+        Socio socio = DAOAsincrono.esperar(busquedaSocio);
         if (socio != null) return socio;
 
         return null;
@@ -4,6 +4,7 @@ import biblioteca.data.dao.SocioDAO;
 import biblioteca.data.dao.DAOException;
 import biblioteca.entities.inventario.Ejemplar;
 import biblioteca.entities.inventario.Libro;
+import biblioteca.entities.usuarios.EstadoSocio;
 import biblioteca.entities.usuarios.Socio;
 import biblioteca.entities.usuarios.Usuario;
 
@@ -33,7 +34,7 @@ public class ControlValidaciones {
         if (socioBD == null) {
             return false;
         }
-        return !socioBD.getEstado().equalsIgnoreCase("Inhabilitado");
+        return socioBD.getEstado() != EstadoSocio.INHABILITADO;
     }
 
     public boolean verificarSanciones(Socio socio) {
@@ -0,0 +1,64 @@
+package biblioteca.services;
+
+import biblioteca.data.dao.DAOException;
+import biblioteca.data.dao.HistorialDAO;
+import biblioteca.data.db.ConfigBD;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.logging.Logger;
+
+/**
+ * Tarea programada que mantiene acotada la tabla Historial: mueve a HistorialArchivo los meses cerrados
+ * más viejos que historial.meses.activos y, si historial.archivo.retencion.meses es mayor que 0, borra del
+ * archivo los meses que superan esa retención. Corre al iniciar y luego cada historial.archivo.intervalo.ms.
+ */
+public class TareaArchivoHistorial {
+
+    private static final Logger LOG = Logger.getLogger("biblioteca.historial.archivo");
+
+    private final HistorialDAO historialDAO;
+    private final TareaProgramada programada;
+
+    public TareaArchivoHistorial(HistorialDAO historialDAO) {
+        this.historialDAO = historialDAO;
+        this.programada = new TareaProgramada("historial-archivo", LOG, "No se pudo archivar el historial", this::ejecutar);
+    }
+
+    /**
+     * Programa la tarea con el intervalo configurado; con intervalo 0 no hace nada. Es idempotente.
+     */
+    public void iniciar() {
+        programada.iniciar(ConfigBD.actual().getHistorialArchivoIntervaloMs());
+    }
+
+    public void detener() {
+        programada.detener();
+    }
+
+    /**
+     * Archiva y purga una vez según la configuración vigente. Devuelve cuántos registros se archivaron.
+     */
+    public int ejecutar() throws DAOException {
+        ConfigBD config = ConfigBD.actual();
+        YearMonth mesActual = YearMonth.now();
+
+        int archivados = historialDAO.archivarAnterioresA(inicioDe(mesActual.minusMonths(config.getHistorialMesesActivos())));
+        if (archivados > 0) {
+            LOG.info("Registros de historial archivados: " + archivados);
+        }
+
+        int retencion = config.getHistorialArchivoRetencionMeses();
+        if (retencion > 0) {
+            int purgados = historialDAO.purgarArchivoAnteriorA(inicioDe(mesActual.minusMonths(retencion)));
+            if (purgados > 0) {
+                LOG.info("Registros de historial archivado borrados por retención: " + purgados);
+            }
+        }
+        return archivados;
+    }
+
+    private static LocalDateTime inicioDe(YearMonth mes) {
+        return mes.atDay(1).atStartOfDay();
+    }
+}
@@ -0,0 +1,49 @@
+package biblioteca.services;
+
+import biblioteca.data.dao.DAOException;
+import biblioteca.data.dao.DisponibilidadLibroDAO;
+import biblioteca.data.db.ConfigBD;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Tarea programada que corrige los contadores de disponibilidad por libro que se desviaron de los ejemplares,
+ * por ejemplo por cambios hechos con SQL fuera de la aplicación.
+ * Corre al iniciar y luego cada disponibilidad.reconciliacion.intervalo.ms.
+ */
+public class TareaDisponibilidad {
+
+    private static final Logger LOG = Logger.getLogger("biblioteca.libros.disponibilidad");
+
+    private final DisponibilidadLibroDAO disponibilidadDAO;
+    private final TareaProgramada programada;
+
+    public TareaDisponibilidad(DisponibilidadLibroDAO disponibilidadDAO) {
+        this.disponibilidadDAO = disponibilidadDAO;
+        this.programada = new TareaProgramada("libros-disponibilidad", LOG,
+                "No se pudo reconciliar la disponibilidad de los libros", this::ejecutar);
+    }
+
+    /**
+     * Programa la tarea con el intervalo configurado; con intervalo 0 no hace nada. Es idempotente.
+     */
+    public void iniciar() {
+        programada.iniciar(ConfigBD.actual().getDisponibilidadReconciliacionIntervaloMs());
+    }
+
+    public void detener() {
+        programada.detener();
+    }
+
+    /**
+     * Reconcilia una vez y devuelve los ids de los libros cuyos contadores se corrigieron.
+     */
+    public List<Integer> ejecutar() throws DAOException {
+        List<Integer> corregidos = disponibilidadDAO.reconciliar();
+        if (!corregidos.isEmpty()) {
+            LOG.warning("Contadores de disponibilidad corregidos para los libros: " + corregidos);
+        }
+        return corregidos;
+    }
+}
@@ -0,0 +1,64 @@
+package biblioteca.services;
+
+import biblioteca.data.dao.DAOException;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Planificación compartida por las tareas periódicas de los servicios: un hilo daemon propio que corre
+ * el trabajo al iniciar y luego cada intervalo. Un error en una ejecución se registra como advertencia
+ * y no cancela las siguientes, porque la base puede volver a estar disponible en la próxima.
+ */
+final class TareaProgramada {
+
+    @FunctionalInterface
+    interface Trabajo {
+        void ejecutar() throws DAOException;
+    }
+
+    private final String nombreHilo;
+    private final Logger log;
+    private final String mensajeError;
+    private final Trabajo trabajo;
+    private ScheduledExecutorService planificador;
+
+    TareaProgramada(String nombreHilo, Logger log, String mensajeError, Trabajo trabajo) {
+        this.nombreHilo = nombreHilo;
+        this.log = log;
+        this.mensajeError = mensajeError;
+        this.trabajo = trabajo;
+    }
+
+    /**
+     * Programa el trabajo con el intervalo dado; con intervalo 0 no hace nada. Es idempotente.
+     */
+    synchronized void iniciar(long intervaloMs) {
+        if (planificador != null || intervaloMs <= 0) {
+            return;
+        }
+        planificador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, nombreHilo);
+            t.setDaemon(true);
+            return t;
+        });
+        planificador.scheduleWithFixedDelay(this::ejecutarProgramada, 0, intervaloMs, TimeUnit.MILLISECONDS);
+    }
+
+    synchronized void detener() {
+        if (planificador != null) {
+            planificador.shutdownNow();
+            planificador = null;
+        }
+    }
+
+    private void ejecutarProgramada() {
+        try {
+            trabajo.ejecutar();
+        } catch (DAOException | RuntimeException e) {
+            log.warning(mensajeError + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package biblioteca.services;
+
+import biblioteca.data.dao.DAOException;
+import biblioteca.data.dao.PrestamoDAO;
+import biblioteca.data.db.ConfigBD;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Tarea programada que persiste el estado VENCIDO de los préstamos atrasados.
+ * Corre al iniciar y luego cada vencimientos.intervalo.ms, de modo que reportes y notificaciones
+ * puedan filtrar por estado en SQL en lugar de recalcularlo en Java sobre todos los préstamos.
+ */
+public class TareaVencimientos {
+
+    private static final Logger LOG = Logger.getLogger("biblioteca.prestamos.vencimientos");
+
+    private final PrestamoDAO prestamoDAO;
+    private final TareaProgramada programada;
+
+    public TareaVencimientos(PrestamoDAO prestamoDAO) {
+        this.prestamoDAO = prestamoDAO;
+        this.programada = new TareaProgramada("prestamos-vencimientos", LOG,
+                "No se pudieron marcar los préstamos vencidos", this::ejecutar);
+    }
+
+    /**
+     * Programa la tarea con el intervalo configurado; con intervalo 0 no hace nada. Es idempotente.
+     */
+    public void iniciar() {
+        programada.iniciar(ConfigBD.actual().getVencimientosIntervaloMs());
+    }
+
+    public void detener() {
+        programada.detener();
+    }
+
+    /**
+     * Marca los vencidos una vez y devuelve los ids de los préstamos que cambiaron de estado.
+     */
+    public List<Integer> ejecutar() throws DAOException {
+        List<Integer> vencidos = prestamoDAO.marcarVencidos();
+        if (!vencidos.isEmpty()) {
+            LOG.info("Préstamos pasados a VENCIDO: " + vencidos);
+        }
+        return vencidos;
+    }
+}
@@ -29,6 +29,9 @@ public class MenuPrincipal  {
     private final ControlLibros controlLibros;
     private final FormularioLogin formularioLogin;
     private final ControlNotificaciones controlNotificaciones;
+    private final TareaVencimientos tareaVencimientos;
+    private final TareaDisponibilidad tareaDisponibilidad;
+    private final TareaArchivoHistorial tareaArchivoHistorial;
     private NotificadorEmail notificadorEmail;
 
     // DAOs propagados a Formularios
@@ -49,6 +52,7 @@ public class MenuPrincipal  {
         HistorialDAO historialDAO = new HistorialDAO(socioDAO);
         NotificacionesDAO notificacionesDAO = new NotificacionesDAO();
         BibliotecarioDAO bibliotecarioDAO = new BibliotecarioDAO();
+        DisponibilidadLibroDAO disponibilidadDAO = new DisponibilidadLibroDAO();
 
         // CONTROLES
         this.scanner = new Scanner(System.in);
@@ -58,7 +62,7 @@ public class MenuPrincipal  {
         this.controlHistorial = new ControlHistorial(historialDAO, prestamoDAO);
         this.controlComprobantes = new ControlComprobantes(comprobanteDAO);
         this.controlConsultas = new ControlConsultas(libroDAO, prestamoDAO);
-        this.controlLibros = new ControlLibros(libroDAO, ejemplarDAO);
+        this.controlLibros = new ControlLibros(libroDAO, ejemplarDAO, disponibilidadDAO);
 
         // DEVOLUCIONES CON DAOs
         this.controlDevoluciones = new ControlDevoluciones(controlHistorial, prestamoDAO, devolucionDAO, ejemplarDAO);
@@ -73,6 +77,15 @@ public class MenuPrincipal  {
                 notificadorEmail
         );
 
+        // TAREA PROGRAMADA DE VENCIMIENTOS
+        this.tareaVencimientos = new TareaVencimientos(prestamoDAO);
+
+        // TAREA PROGRAMADA DE RECONCILIACIÓN DE DISPONIBILIDAD
+        this.tareaDisponibilidad = new TareaDisponibilidad(disponibilidadDAO);
+
+        // TAREA PROGRAMADA DE ARCHIVO DEL HISTORIAL
+        this.tareaArchivoHistorial = new TareaArchivoHistorial(historialDAO);
+
         // PRESTAMOS
         this.controlPrestamos = new ControlPrestamos(prestamoDAO, ejemplarDAO, socioDAO, controlPoliticas, controlValidaciones, controlHistorial);
 
@@ -83,6 +96,19 @@ public class MenuPrincipal  {
     public void iniciar() throws DAOException {
         System.out.println("===== SISTEMA DE GESTIÓN BIBLIOTECARIA =====");
 
+        tareaVencimientos.iniciar();
+        tareaDisponibilidad.iniciar();
+        tareaArchivoHistorial.iniciar();
+        try {
+            mostrarSeleccionRol();
+        } finally {
+            tareaVencimientos.detener();
+            tareaDisponibilidad.detener();
+            tareaArchivoHistorial.detener();
+        }
+    }
+
+    private void mostrarSeleccionRol() throws DAOException {
         boolean salirSistema = false;
 
         while (!salirSistema) {
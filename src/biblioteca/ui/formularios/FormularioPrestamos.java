@@ -1,5 +1,6 @@
 package biblioteca.ui.formularios;
 
+import biblioteca.data.dao.DAOAsincrono;
 import biblioteca.data.dao.DAOException;
 import biblioteca.entities.inventario.Ejemplar;
 import biblioteca.entities.usuarios.Bibliotecario;
@@ -11,6 +12,7 @@ import biblioteca.services.ControlPrestamos;
 import biblioteca.services.ControlUsuarios;
 
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Formulario para el registro de préstamos de ejemplares a socios.
@@ -57,9 +59,11 @@ public class FormularioPrestamos {
                 String dniSocio = ingresarDniSocio();
                 String codigoEjemplar = ingresarCodigoEjemplar();
 
-                // --- Validaciones y búsquedas ---
-                Socio socio = buscarSocio(dniSocio);
-                Ejemplar ejemplar = buscarEjemplar(codigoEjemplar);
+                // --- Validaciones y búsquedas (independientes, en paralelo) ---
+                CompletableFuture<Socio> busquedaSocio = DAOAsincrono.ejecutar(() -> buscarSocio(dniSocio));
+                CompletableFuture<Ejemplar> busquedaEjemplar = DAOAsincrono.ejecutar(() -> buscarEjemplar(codigoEjemplar));
+                Socio socio = DAOAsincrono.esperar(busquedaSocio);
+                Ejemplar ejemplar = DAOAsincrono.esperar(busquedaEjemplar);
 
                 // Obtener bibliotecario: usar el logueado si está disponible, sino buscar por ID 1 (legacy)
                 Bibliotecario bibliotecario = obtenerBibliotecario();
@@ -1,5 +1,6 @@
 package biblioteca.ui.formularios;
 
+import biblioteca.entities.inventario.EstadoEjemplar;
 import biblioteca.entities.inventario.Libro;
 import biblioteca.services.ControlLibros;
 import biblioteca.data.dao.DAOException;
@@ -95,7 +96,7 @@ public class FormularioRegistroLibro {
             controlLibros.crearEjemplares(
                     libroBD.getId(),
                     cantidadEjemplares,
-                    "Disponible",
+                    EstadoEjemplar.DISPONIBLE,
                     "Depósito"
             );
 
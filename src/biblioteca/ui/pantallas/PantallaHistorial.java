@@ -1,11 +1,12 @@
 package biblioteca.ui.pantallas;
 
 import biblioteca.data.dao.DAOException;
-import biblioteca.entities.prestamos.Prestamo;
-import biblioteca.entities.reportes.Historial;
+import biblioteca.entities.reportes.HistorialResumen;
+import biblioteca.entities.reportes.PrestamoResumen;
 import biblioteca.services.ControlConsultas;
 import biblioteca.services.ControlHistorial;
 
+import java.time.LocalDate;
 import java.util.InputMismatchException;
 import java.util.List;
 import java.util.Scanner;
@@ -21,6 +22,8 @@ public class PantallaHistorial {
     private final ControlHistorial controlHistorial;
     private final Scanner scanner;
 
+    private static final int DIAS_ACTIVIDAD_RECIENTE = 30;
+
     public PantallaHistorial(ControlConsultas controlConsultas, ControlHistorial controlHistorial) {
         this.controlConsultas = controlConsultas;
         this.controlHistorial = controlHistorial;
@@ -36,6 +39,7 @@ public class PantallaHistorial {
             System.out.println("2. Consultar historial por libro (ISBN)");
             System.out.println("3. Ver historial completo del sistema");
             System.out.println("4. Exportar reporte de préstamos");
+            System.out.println("5. Ver actividad de los últimos " + DIAS_ACTIVIDAD_RECIENTE + " días");
             System.out.println("0. Volver al menú principal");
             System.out.print("Seleccione una opción: ");
 
@@ -57,6 +61,7 @@ public class PantallaHistorial {
             case 2 -> consultarHistorialLibro();
             case 3 -> mostrarHistorialCompleto();
             case 4 -> exportarReporte();
+            case 5 -> mostrarActividadReciente();
             case 0 -> System.out.println("Regresando al menú principal...");
             default -> System.out.println("Opción no válida.");
         }
@@ -68,7 +73,7 @@ public class PantallaHistorial {
         String dni = scanner.nextLine().trim();
 
         try {
-            List<Prestamo> prestamos = controlHistorial.consultarHistorialUsuario(dni);
+            List<PrestamoResumen> prestamos = controlHistorial.consultarResumenUsuario(dni);
 
             if (prestamos == null || prestamos.isEmpty()) {
                 System.out.println("No se encontraron registros de historial para el socio con DNI " + dni);
@@ -76,14 +81,14 @@ public class PantallaHistorial {
             }
 
             System.out.println("\n=== RESULTADOS DE LA CONSULTA ===");
-            for (Prestamo p : prestamos) {
+            for (PrestamoResumen p : prestamos) {
                 System.out.printf("Préstamo N°%d | Libro: %s | Ejemplar: %s | Estado: %s | Fecha préstamo: %s | Vence: %s%n",
-                        p.getId(),
-                        p.getEjemplar().getLibro().getTitulo(),
-                        p.getEjemplar().getCodigo(),
-                        p.getEstado(),
-                        p.getFechaPrestamo(),
-                        p.getFechaVencimiento());
+                        p.id(),
+                        p.tituloLibro(),
+                        p.codigoEjemplar(),
+                        p.estado(),
+                        p.fechaPrestamo(),
+                        p.fechaVencimiento());
             }
         } catch (DAOException e) {
             System.out.println("Error consultando historial del socio: " + e.getMessage());
@@ -96,7 +101,7 @@ public class PantallaHistorial {
         String isbn = scanner.nextLine().trim();
 
         try {
-            List<Prestamo> prestamos = controlHistorial.consultarHistorialLibro(isbn);
+            List<PrestamoResumen> prestamos = controlHistorial.consultarResumenLibro(isbn);
 
             if (prestamos == null || prestamos.isEmpty()) {
                 System.out.println("No se encontraron registros de historial para el libro con ISBN " + isbn);
@@ -104,27 +109,25 @@ public class PantallaHistorial {
             }
 
             System.out.println("\n=== HISTORIAL DEL LIBRO ISBN " + isbn + " ===");
-            for (Prestamo p : prestamos) {
+            for (PrestamoResumen p : prestamos) {
                 System.out.printf("Préstamo N°%d | Socio: %s %s | DNI: %s | Estado: %s | Fecha préstamo: %s | Vence: %s%n",
-                        p.getId(),
-                        p.getSocio().getNombre(),
-                        p.getSocio().getApellido(),
-                        p.getSocio().getDni(),
-                        p.getEstado(),
-                        p.getFechaPrestamo(),
-                        p.getFechaVencimiento());
+                        p.id(),
+                        p.nombreSocio(),
+                        p.apellidoSocio(),
+                        p.dniSocio(),
+                        p.estado(),
+                        p.fechaPrestamo(),
+                        p.fechaVencimiento());
             }
         } catch (DAOException e) {
             System.out.println("Error consultando historial del libro: " + e.getMessage());
         }
     }
 
-    /** Muestra todo el historial del sistema de forma segura */
     /** Muestra todo el historial del sistema de forma segura */
     private void mostrarHistorialCompleto() {
         try {
-            // Usamos el método existente de ControlHistorial
-            List<Historial> todos = controlHistorial.obtenerHistorialCompletoConDetalles();
+            List<HistorialResumen> todos = controlHistorial.obtenerResumenHistorial();
 
             if (todos == null || todos.isEmpty()) {
                 System.out.println("No hay registros en el historial del sistema.");
@@ -132,26 +135,48 @@ public class PantallaHistorial {
             }
 
             System.out.println("\n=== HISTORIAL COMPLETO DEL SISTEMA ===");
-            for (Historial h : todos) {
-                Prestamo p = h.getPrestamo();
-                if (p != null) {
-                    System.out.printf(
-                            "Préstamo N°%d | Socio: %s %s | Libro: %s | Estado: %s | Fecha préstamo: %s | Vence: %s%n",
-                            p.getId(),
-                            p.getSocio().getNombre(),
-                            p.getSocio().getApellido(),
-                            p.getEjemplar().getLibro().getTitulo(),
-                            p.getEstado(),
-                            p.getFechaPrestamo(),
-                            p.getFechaVencimiento()
-                    );
-                }
-            }
+            imprimirPrestamos(todos);
         } catch (DAOException e) {
             System.out.println("Error consultando historial completo: " + e.getMessage());
         }
     }
 
+    /** Muestra la actividad reciente; sólo lee el historial activo, sin importar cuánto haya archivado */
+    private void mostrarActividadReciente() {
+        try {
+            LocalDate hoy = LocalDate.now();
+            List<HistorialResumen> recientes =
+                    controlHistorial.obtenerResumenHistorial(hoy.minusDays(DIAS_ACTIVIDAD_RECIENTE - 1), hoy);
+
+            if (recientes.isEmpty()) {
+                System.out.println("No hay actividad en los últimos " + DIAS_ACTIVIDAD_RECIENTE + " días.");
+                return;
+            }
+
+            System.out.println("\n=== ACTIVIDAD DE LOS ÚLTIMOS " + DIAS_ACTIVIDAD_RECIENTE + " DÍAS ===");
+            imprimirPrestamos(recientes);
+        } catch (DAOException e) {
+            System.out.println("Error consultando actividad reciente: " + e.getMessage());
+        }
+    }
+
+    private void imprimirPrestamos(List<HistorialResumen> registros) {
+        for (HistorialResumen h : registros) {
+            if (h.tienePrestamo()) {
+                System.out.printf(
+                        "Préstamo N°%d | Socio: %s %s | Libro: %s | Estado: %s | Fecha préstamo: %s | Vence: %s%n",
+                        h.idPrestamo(),
+                        h.nombreSocio(),
+                        h.apellidoSocio(),
+                        h.tituloLibro(),
+                        h.estadoPrestamo(),
+                        h.fechaPrestamo(),
+                        h.fechaVencimiento()
+                );
+            }
+        }
+    }
+
 
     /** Exporta un reporte textual (simulado en consola) */
     private void exportarReporte() {